@@ -0,0 +1,28 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line options and always
+ * adds the GC profiler, so every run reports allocation rates (gc.alloc.rate.norm is
+ * bytes allocated per operation).
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar EncodeBenchmark -p numPoints=1000,100000
+ * </pre>
+ */
+public class BenchmarkRunner {
+    public static void main( String[] args ) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+            .parent( new CommandLineOptions( args ) )
+            .addProfiler( GCProfiler.class )
+            .build();
+        new Runner( options ).run();
+    }
+}
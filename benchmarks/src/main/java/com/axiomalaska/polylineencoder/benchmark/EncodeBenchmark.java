@@ -0,0 +1,67 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+
+/**
+ * Douglas-Peucker encode and dumbEncode over synthetic and coastline inputs.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class EncodeBenchmark {
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int numPoints;
+
+    @Param({ "RANDOM_WALK", "CIRCLE", "COASTLINE" })
+    public Geometries.Shape shape;
+
+    private LineString line;
+    private PolylineEncoderSettings settings;
+    private PolylineEncoderSettings parallelSettings;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        line = shape.create( numPoints );
+        settings = new PolylineEncoderSettings();
+        parallelSettings = new PolylineEncoderSettings();
+        parallelSettings.setParallelThreshold( 16384 );
+    }
+
+    @Benchmark
+    public EncodedPolyline encode() throws UnsupportedGeometryTypeException {
+        return PolylineEncoder.encode( line, settings );
+    }
+
+    @Benchmark
+    public EncodedPolyline encodeParallel() throws UnsupportedGeometryTypeException {
+        return PolylineEncoder.encode( line, parallelSettings );
+    }
+
+    @Benchmark
+    public EncodedPolyline dumbEncode() throws UnsupportedGeometryTypeException {
+        return PolylineEncoder.dumbEncode( line );
+    }
+}
@@ -0,0 +1,154 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Deterministic benchmark inputs. All shapes are lon/lat LineStrings in EPSG:4326
+ * with exactly the requested number of vertices.
+ */
+public final class Geometries {
+    private static final GeometryFactory GEOMETRY_FACTORY_4326 = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), 4326 );
+    private static final GeometryFactory GEOMETRY_FACTORY_3857 = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), 3857 );
+    private static final String FIXTURE = "/testPolygonWKT.txt";
+    private static final double EARTH_RADIUS = 6378137.0;
+
+    private static Coordinate[] fixtureRing;
+
+    public enum Shape {
+        /** GPS-like track: small random steps, many near-collinear vertices. */
+        RANDOM_WALK,
+        /** Densely sampled circle, every vertex slightly significant. */
+        CIRCLE,
+        /** The Alaska coastline polygon from the test fixture, resampled with survey-sized noise. */
+        COASTLINE,
+        /** 1 Hz vessel GPS track: near-collinear legs with fix jitter and stationary clusters. */
+        DENSE_TRACK;
+
+        public LineString create( int numPoints ) throws IOException, ParseException {
+            switch( this ){
+                case RANDOM_WALK:
+                    return randomWalk( numPoints );
+                case CIRCLE:
+                    return circle( numPoints );
+                case DENSE_TRACK:
+                    return denseTrack( numPoints );
+                default:
+                    return coastline( numPoints );
+            }
+        }
+    }
+
+    private Geometries() {
+    }
+
+    public static LineString randomWalk( int numPoints ){
+        Random random = new Random( 42 );
+        Coordinate[] coords = new Coordinate[ numPoints ];
+        double x = -150.0, y = 60.0;
+        double heading = 0;
+        for( int i = 0; i < numPoints; i++ ){
+            heading += ( random.nextDouble() - 0.5 ) * 0.3;
+            x += Math.cos( heading ) * 0.0002;
+            y += Math.sin( heading ) * 0.0001;
+            coords[i] = new Coordinate( x, y );
+        }
+        return GEOMETRY_FACTORY_4326.createLineString( coords );
+    }
+
+    public static LineString circle( int numPoints ){
+        Coordinate[] coords = new Coordinate[ numPoints ];
+        for( int i = 0; i < numPoints; i++ ){
+            double angle = 2 * Math.PI * i / Math.max( numPoints - 1, 1 );
+            coords[i] = new Coordinate( -150.0 + Math.cos( angle ) * 2.0, 60.0 + Math.sin( angle ) );
+        }
+        return GEOMETRY_FACTORY_4326.createLineString( coords );
+    }
+
+    public static LineString denseTrack( int numPoints ){
+        Random random = new Random( 11 );
+        Coordinate[] coords = new Coordinate[ numPoints ];
+        double x = -150.0, y = 60.0;
+        double heading = 0.3;
+        int legRemaining = 0;
+        boolean stationary = false;
+        for( int i = 0; i < numPoints; i++ ){
+            if( legRemaining-- <= 0 ){
+                stationary = random.nextInt( 4 ) == 0;
+                legRemaining = 200 + random.nextInt( 2000 );
+                heading += ( random.nextDouble() - 0.5 ) * 1.5;
+            }
+            if( !stationary ){
+                x += Math.cos( heading ) * 0.00004;
+                y += Math.sin( heading ) * 0.00002;
+            }
+            // about one fix in five repeats the previous reading exactly
+            if( i > 0 && random.nextInt( 5 ) == 0 ){
+                coords[i] = new Coordinate( coords[ i - 1 ] );
+            } else {
+                coords[i] = new Coordinate( x + random.nextGaussian() * 0.000002, y + random.nextGaussian() * 0.000001 );
+            }
+        }
+        return GEOMETRY_FACTORY_4326.createLineString( coords );
+    }
+
+    public static LineString coastline( int numPoints ) throws IOException, ParseException {
+        Coordinate[] ring = fixtureRing();
+        Random random = new Random( 7 );
+        Coordinate[] coords = new Coordinate[ numPoints ];
+        double step = (double) ( ring.length - 1 ) / Math.max( numPoints - 1, 1 );
+        for( int i = 0; i < numPoints; i++ ){
+            double pos = i * step;
+            int j = Math.min( (int) pos, ring.length - 2 );
+            double t = pos - j;
+            double x = ring[j].x + ( ring[ j + 1 ].x - ring[j].x ) * t;
+            double y = ring[j].y + ( ring[ j + 1 ].y - ring[j].y ) * t;
+            if( t != 0 ){
+                x += ( random.nextDouble() - 0.5 ) * 0.00002;
+                y += ( random.nextDouble() - 0.5 ) * 0.00001;
+            }
+            coords[i] = new Coordinate( x, y );
+        }
+        return GEOMETRY_FACTORY_4326.createLineString( coords );
+    }
+
+    /**
+     * Converts a lon/lat line to spherical web mercator with SRID 3857.
+     */
+    public static LineString toWebMercator( LineString line ){
+        Coordinate[] coords = line.getCoordinates();
+        Coordinate[] projected = new Coordinate[ coords.length ];
+        for( int i = 0; i < coords.length; i++ ){
+            double x = Math.toRadians( coords[i].x ) * EARTH_RADIUS;
+            double y = Math.log( Math.tan( Math.PI / 4 + Math.toRadians( coords[i].y ) / 2 ) ) * EARTH_RADIUS;
+            projected[i] = new Coordinate( x, y );
+        }
+        return GEOMETRY_FACTORY_3857.createLineString( projected );
+    }
+
+    private static synchronized Coordinate[] fixtureRing() throws IOException, ParseException {
+        if( fixtureRing == null ){
+            InputStream in = Geometries.class.getResourceAsStream( FIXTURE );
+            if( in == null ){
+                throw new IOException( FIXTURE + " not found on the classpath, is the polyline-encoder test-jar installed?" );
+            }
+            try( Reader reader = new InputStreamReader( in, StandardCharsets.UTF_8 ) ){
+                Polygon polygon = (Polygon) new WKTReader().read( reader );
+                fixtureRing = polygon.getExteriorRing().getCoordinates();
+            }
+        }
+        return fixtureRing;
+    }
+}
@@ -0,0 +1,62 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.io.ParseException;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.operation.TransformException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.axiomalaska.polylineencoder.Reprojector;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+
+/**
+ * Reprojector.reproject from web mercator. Source geometries are in EPSG:3857 so the
+ * EPSG:4326 lat/lon axis order of the GeoTools database does not affect the input.
+ * The first invocation pays the EPSG database start up, which the warmup absorbs.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ReprojectBenchmark {
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int numPoints;
+
+    @Param({ "RANDOM_WALK", "COASTLINE" })
+    public Geometries.Shape shape;
+
+    @Param({ "4326", "3338" })
+    public int toSrid;
+
+    /** 0 transforms on the benchmark thread, otherwise chunks of this many vertices in parallel. */
+    @Param({ "0", "65536" })
+    public int parallelThreshold;
+
+    private LineString line;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        line = Geometries.toWebMercator( shape.create( numPoints ) );
+    }
+
+    @Benchmark
+    public Geometry reproject() throws FactoryException, UnsupportedGeometryTypeException, TransformException {
+        return Reprojector.reproject( line, toSrid, parallelThreshold );
+    }
+}
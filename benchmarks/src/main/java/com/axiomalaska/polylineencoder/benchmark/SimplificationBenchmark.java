@@ -0,0 +1,65 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.SimplificationStrategy;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+
+/**
+ * Compares simplification strategies, with and without the radial distance prefilter,
+ * on dense GPS tracks and the other benchmark shapes.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class SimplificationBenchmark {
+    @Param({ "1000", "100000", "1000000" })
+    public int numPoints;
+
+    @Param({ "DENSE_TRACK", "RANDOM_WALK" })
+    public Geometries.Shape shape;
+
+    @Param({ "DOUGLAS_PEUCKER", "VISVALINGAM_WHYATT" })
+    public SimplificationStrategy strategy;
+
+    /** Prefilter distance in degrees, negative to disable. */
+    @Param({ "-1", "0", "0.00001" })
+    public double prefilterDistance;
+
+    private LineString line;
+    private PolylineEncoderSettings settings;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        line = shape.create( numPoints );
+        settings = new PolylineEncoderSettings();
+        settings.setSimplificationStrategy( strategy );
+        settings.setPrefilterDistance( prefilterDistance );
+    }
+
+    @Benchmark
+    public EncodedPolyline encode() throws UnsupportedGeometryTypeException {
+        return PolylineEncoder.encode( line, settings );
+    }
+}
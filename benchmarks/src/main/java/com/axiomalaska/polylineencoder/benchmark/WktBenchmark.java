@@ -0,0 +1,57 @@
+package com.axiomalaska.polylineencoder.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
+
+/**
+ * WKT parsing on its own and as part of encode(String).
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class WktBenchmark {
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int numPoints;
+
+    @Param({ "RANDOM_WALK", "COASTLINE" })
+    public Geometries.Shape shape;
+
+    private String wkt;
+
+    @Setup
+    public void setUp() throws IOException, ParseException {
+        wkt = shape.create( numPoints ).toText();
+    }
+
+    @Benchmark
+    public Geometry wktToGeom() throws ParseException {
+        return WktUtil.wktToGeom( wkt );
+    }
+
+    @Benchmark
+    public EncodedPolyline encodeWkt() throws ParseException, UnsupportedGeometryTypeException {
+        return PolylineEncoder.encode( wkt );
+    }
+}
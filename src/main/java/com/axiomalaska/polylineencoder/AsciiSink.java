@@ -0,0 +1,249 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Destination for the characters of an encoded polyline. The polyline alphabet is
+ * ASCII (63-126), so numbers are written as single bytes straight into a byte array,
+ * replacing the StringBuffer and String that used to be allocated for every number.
+ * Subclasses decide what happens when the array is full: grow it, or drain it to a
+ * Writer, Appendable or ByteBuffer.
+ *
+ * IOExceptions from the underlying Appendable are wrapped in UncheckedIOException so the
+ * encoding loops stay free of checked exceptions; the public API unwraps them.
+ */
+abstract class AsciiSink {
+    private static final int CHUNK_SIZE = 512;
+
+    protected byte[] buf;
+    protected int pos;
+    protected int limit;
+    /** bytes already handed to the destination and no longer in buf */
+    protected long drained;
+    private final int origin;
+
+    protected AsciiSink( byte[] buf, int pos, int limit ) {
+        this.buf = buf;
+        this.pos = pos;
+        this.limit = limit;
+        this.origin = pos;
+    }
+
+    /**
+     * @return number of bytes written since the sink was created
+     */
+    final long bytesWritten() {
+        return drained + pos - origin;
+    }
+
+    /**
+     * Makes room for at least len more bytes at pos.
+     */
+    protected abstract void makeRoom( int len );
+
+    /**
+     * Pushes any buffered bytes to the destination. Called once encoding is complete.
+     */
+    void finish() {
+    }
+
+    final void writeSignedNumber( int num ) {
+        int sgn_num = num << 1;
+        if( num < 0 ){
+            sgn_num = ~( sgn_num );
+        }
+        writeNumber( sgn_num );
+    }
+
+    final void writeNumber( int num ) {
+        int len = 1;
+        for( int n = num; n >= 0x20; n >>= 5 ){
+            len++;
+        }
+        if( pos + len > limit ){
+            makeRoom( len );
+        }
+        pos = putNumber( buf, pos, num );
+    }
+
+    /**
+     * Writes two signed numbers (a vertex's latitude and longitude deltas) with a single
+     * capacity check while there is room for the longest encoding of both.
+     */
+    final void writeSignedPair( int first, int second ) {
+        if( pos + 2 * PointsKernel.MAX_NUMBER_LENGTH > limit ){
+            writeSignedNumber( first );
+            writeSignedNumber( second );
+            return;
+        }
+        byte[] b = buf;
+        int p = putNumber( b, pos, ( first << 1 ) ^ ( first >> 31 ) );
+        pos = putNumber( b, p, ( second << 1 ) ^ ( second >> 31 ) );
+    }
+
+    /**
+     * @return the position after num, written at p without any capacity check
+     */
+    private static int putNumber( byte[] b, int p, int num ) {
+        while( num >= 0x20 ){
+            b[ p++ ] = (byte) ( ( 0x20 | ( num & 0x1f ) ) + 63 );
+            num >>= 5;
+        }
+        b[ p++ ] = (byte) ( num + 63 );
+        return p;
+    }
+
+    /**
+     * Growable in-memory sink, used for the String results.
+     */
+    static final class Builder extends AsciiSink {
+        Builder( int initialCapacity ) {
+            this( new byte[ Math.max( initialCapacity, 16 ) ] );
+        }
+
+        private Builder( byte[] buf ) {
+            super( buf, 0, buf.length );
+        }
+
+        @Override
+        protected void makeRoom( int len ) {
+            buf = Arrays.copyOf( buf, Math.max( buf.length << 1, pos + len ) );
+            limit = buf.length;
+        }
+
+        int length() {
+            return pos;
+        }
+
+        /**
+         * Empties the builder, keeping its array for reuse.
+         */
+        void clear() {
+            pos = 0;
+        }
+
+        void copyTo( byte[] dst, int offset ) {
+            System.arraycopy( buf, 0, dst, offset, pos );
+        }
+
+        void copyTo( ByteBuffer dst ) {
+            dst.put( buf, 0, pos );
+        }
+
+        void writeTo( OutputStream out ) throws IOException {
+            out.write( buf, 0, pos );
+        }
+
+        /**
+         * @return a new Builder holding the same bytes, with room for extra more
+         */
+        Builder copy( int extra ) {
+            Builder copy = new Builder( Arrays.copyOf( buf, Math.max( pos + extra, 16 ) ) );
+            copy.pos = pos;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return new String( buf, 0, pos, StandardCharsets.ISO_8859_1 );
+        }
+    }
+
+    /**
+     * Drains fixed size chunks into a Writer (bulk char[] writes) or any other Appendable.
+     */
+    static final class ForAppendable extends AsciiSink {
+        private final Appendable target;
+        private final char[] chars = new char[ CHUNK_SIZE ];
+        private final CharBuffer charBuffer = CharBuffer.wrap( chars );
+
+        ForAppendable( Appendable target ) {
+            super( new byte[ CHUNK_SIZE ], 0, CHUNK_SIZE );
+            this.target = target;
+        }
+
+        @Override
+        protected void makeRoom( int len ) {
+            drain();
+        }
+
+        @Override
+        void finish() {
+            drain();
+        }
+
+        private void drain() {
+            int n = pos;
+            for( int i = 0; i < n; i++ ){
+                chars[i] = (char) buf[i];
+            }
+            try {
+                if( target instanceof Writer ){
+                    ( (Writer) target ).write( chars, 0, n );
+                } else {
+                    target.append( charBuffer, 0, n );
+                }
+            } catch( IOException e ){
+                throw new UncheckedIOException( e );
+            }
+            drained += n;
+            pos = 0;
+        }
+    }
+
+    /**
+     * Writes into a ByteBuffer, advancing its position. Heap buffers are written in place
+     * through their backing array; others go through a chunk. Throws
+     * BufferOverflowException when the buffer is too small.
+     */
+    static final class ForByteBuffer extends AsciiSink {
+        private final ByteBuffer target;
+        private final boolean inPlace;
+
+        static ForByteBuffer create( ByteBuffer target ) {
+            if( target.hasArray() ){
+                int offset = target.arrayOffset();
+                return new ForByteBuffer( target, target.array(), offset + target.position(), offset + target.limit(), true );
+            }
+            return new ForByteBuffer( target, new byte[ CHUNK_SIZE ], 0, CHUNK_SIZE, false );
+        }
+
+        private ForByteBuffer( ByteBuffer target, byte[] buf, int pos, int limit, boolean inPlace ) {
+            super( buf, pos, limit );
+            this.target = target;
+            this.inPlace = inPlace;
+        }
+
+        @Override
+        protected void makeRoom( int len ) {
+            if( inPlace ){
+                finish();
+                throw new BufferOverflowException();
+            }
+            drain();
+        }
+
+        @Override
+        void finish() {
+            if( inPlace ){
+                target.position( pos - target.arrayOffset() );
+            } else {
+                drain();
+            }
+        }
+
+        private void drain() {
+            target.put( buf, 0, pos );
+            drained += pos;
+            pos = 0;
+        }
+    }
+}
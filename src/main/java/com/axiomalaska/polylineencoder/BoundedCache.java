@@ -0,0 +1,91 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small thread-safe LRU cache bounded by total weight (entry count by default), with
+ * hit/miss/eviction counters. Values are computed outside the lock by the caller, so an
+ * expensive load never blocks readers of other keys; two threads missing the same key at
+ * once may both compute it, and the last put wins.
+ */
+final class BoundedCache<K, V> {
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<K, V>( 16, 0.75f, true );
+    private final ToLongFunction<? super V> weigher;
+    private long maxWeight;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Cache holding at most maxEntries entries.
+     */
+    BoundedCache( long maxEntries ) {
+        this( maxEntries, value -> 1L );
+    }
+
+    /**
+     * Cache holding entries whose weights add up to at most maxWeight.
+     */
+    BoundedCache( long maxWeight, ToLongFunction<? super V> weigher ) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    synchronized V get( K key ){
+        V value = map.get( key );
+        if( value == null ){
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Adds or replaces an entry, evicting least recently used entries as needed. A value
+     * heavier than the whole cache is not stored.
+     */
+    synchronized void put( K key, V value ){
+        long valueWeight = weigher.applyAsLong( value );
+        if( valueWeight > maxWeight ){
+            V old = map.remove( key );
+            if( old != null ){
+                weight -= weigher.applyAsLong( old );
+            }
+            return;
+        }
+        V old = map.put( key, value );
+        if( old != null ){
+            weight -= weigher.applyAsLong( old );
+        }
+        weight += valueWeight;
+        evict();
+    }
+
+    synchronized void setMaxWeight( long maxWeight ){
+        this.maxWeight = maxWeight;
+        evict();
+    }
+
+    synchronized void clear(){
+        map.clear();
+        weight = 0;
+    }
+
+    synchronized CacheStats stats(){
+        return new CacheStats( hitCount, missCount, evictionCount, map.size(), weight, maxWeight );
+    }
+
+    private void evict(){
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        while( weight > maxWeight && it.hasNext() ){
+            weight -= weigher.applyAsLong( it.next().getValue() );
+            it.remove();
+            evictionCount++;
+        }
+    }
+}
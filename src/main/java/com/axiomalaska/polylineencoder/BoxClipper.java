@@ -0,0 +1,206 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+/**
+ * Clips lines and rings held in packed coordinate arrays to an axis aligned box:
+ * Liang-Barsky for lines, which may fall apart into several pieces, and
+ * Sutherland-Hodgman for rings, which stay one closed ring (running along the box
+ * edges where the polygon was cut). Vertices inside the box are copied unchanged.
+ * Results are held in this clipper's arrays until the next call.
+ */
+final class BoxClipper {
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    double[] xs = new double[ 64 ];
+    double[] ys = new double[ 64 ];
+    private double[] swapXs = new double[ 64 ];
+    private double[] swapYs = new double[ 64 ];
+    /** end of each line piece in xs/ys */
+    int[] pieceEnds = new int[ 8 ];
+
+    BoxClipper( double minX, double minY, double maxX, double maxY ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @return whether all numPoints vertices are inside the box
+     */
+    boolean contains( double[] xs, double[] ys, int numPoints ){
+        for( int i = 0; i < numPoints; i++ ){
+            if( xs[i] < minX || xs[i] > maxX || ys[i] < minY || ys[i] > maxY ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clips a line into the pieces inside the box, stored one after the other in xs/ys
+     * and ending at pieceEnds.
+     *
+     * @return number of pieces
+     */
+    int clipLine( double[] lineXs, double[] lineYs, int numPoints ){
+        int size = 0;
+        int numPieces = 0;
+        boolean open = false;
+        for( int i = 0; i + 1 < numPoints; i++ ){
+            double x0 = lineXs[i], y0 = lineYs[i];
+            double x1 = lineXs[ i + 1 ], y1 = lineYs[ i + 1 ];
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double t0 = 0;
+            double t1 = 1;
+            boolean visible = true;
+            for( int edge = 0; edge < 4 && visible; edge++ ){
+                double p;
+                double q;
+                switch( edge ){
+                    case 0: p = -dx; q = x0 - minX; break;
+                    case 1: p = dx; q = maxX - x0; break;
+                    case 2: p = -dy; q = y0 - minY; break;
+                    default: p = dy; q = maxY - y0; break;
+                }
+                if( p == 0 ){
+                    visible = q >= 0;
+                } else {
+                    double r = q / p;
+                    if( p < 0 ){
+                        if( r > t0 ){
+                            t0 = r;
+                        }
+                    } else if( r < t1 ){
+                        t1 = r;
+                    }
+                    visible = t0 < t1;
+                }
+            }
+            if( !visible ){
+                if( open ){
+                    numPieces = endPiece( numPieces, size );
+                    open = false;
+                }
+                continue;
+            }
+
+            ensureCapacity( size + 2 );
+            if( !open ){
+                xs[ size ] = t0 == 0 ? x0 : x0 + t0 * dx;
+                ys[ size ] = t0 == 0 ? y0 : y0 + t0 * dy;
+                size++;
+                open = true;
+            }
+            xs[ size ] = t1 == 1 ? x1 : x0 + t1 * dx;
+            ys[ size ] = t1 == 1 ? y1 : y0 + t1 * dy;
+            size++;
+            if( t1 < 1 ){
+                numPieces = endPiece( numPieces, size );
+                open = false;
+            }
+        }
+        if( open ){
+            numPieces = endPiece( numPieces, size );
+        }
+        return numPieces;
+    }
+
+    private int endPiece( int numPieces, int size ){
+        if( numPieces == pieceEnds.length ){
+            pieceEnds = Arrays.copyOf( pieceEnds, numPieces << 1 );
+        }
+        pieceEnds[ numPieces ] = size;
+        return numPieces + 1;
+    }
+
+    /**
+     * Clips a closed ring into xs/ys.
+     *
+     * @return number of vertices of the closed clipped ring, 0 if nothing of it is left
+     */
+    int clipRing( double[] ringXs, double[] ringYs, int numPoints ){
+        //work on the open ring, without the closing vertex
+        int size = numPoints > 0 && ringXs[0] == ringXs[ numPoints - 1 ] && ringYs[0] == ringYs[ numPoints - 1 ] ? numPoints - 1 : numPoints;
+        ensureCapacity( size );
+        System.arraycopy( ringXs, 0, xs, 0, size );
+        System.arraycopy( ringYs, 0, ys, 0, size );
+        for( int edge = 0; edge < 4 && size > 0; edge++ ){
+            size = clipRing( size, edge );
+        }
+        if( size < 3 ){
+            return 0;
+        }
+        ensureCapacity( size + 1 );
+        xs[ size ] = xs[0];
+        ys[ size ] = ys[0];
+        return size + 1;
+    }
+
+    /**
+     * One Sutherland-Hodgman pass of the open ring in xs/ys against one box edge.
+     */
+    private int clipRing( int size, int edge ){
+        if( swapXs.length < size * 2 ){
+            swapXs = new double[ size * 2 ];
+            swapYs = new double[ size * 2 ];
+        }
+        double[] outXs = swapXs;
+        double[] outYs = swapYs;
+        int outSize = 0;
+        double px = xs[ size - 1 ];
+        double py = ys[ size - 1 ];
+        boolean prevInside = inside( px, py, edge );
+        for( int i = 0; i < size; i++ ){
+            double x = xs[i];
+            double y = ys[i];
+            boolean inside = inside( x, y, edge );
+            if( inside != prevInside ){
+                double bound = edge == 0 ? minX : edge == 1 ? maxX : edge == 2 ? minY : maxY;
+                if( edge < 2 ){
+                    outXs[ outSize ] = bound;
+                    outYs[ outSize ] = py + ( bound - px ) * ( y - py ) / ( x - px );
+                } else {
+                    outXs[ outSize ] = px + ( bound - py ) * ( x - px ) / ( y - py );
+                    outYs[ outSize ] = bound;
+                }
+                outSize++;
+            }
+            if( inside ){
+                outXs[ outSize ] = x;
+                outYs[ outSize ] = y;
+                outSize++;
+            }
+            px = x;
+            py = y;
+            prevInside = inside;
+        }
+        swapXs = xs;
+        swapYs = ys;
+        xs = outXs;
+        ys = outYs;
+        return outSize;
+    }
+
+    private boolean inside( double x, double y, int edge ){
+        switch( edge ){
+            case 0: return x >= minX;
+            case 1: return x <= maxX;
+            case 2: return y >= minY;
+            default: return y <= maxY;
+        }
+    }
+
+    private void ensureCapacity( int size ){
+        if( xs.length < size ){
+            int capacity = Math.max( size, xs.length << 1 );
+            xs = Arrays.copyOf( xs, capacity );
+            ys = Arrays.copyOf( ys, capacity );
+        }
+    }
+}
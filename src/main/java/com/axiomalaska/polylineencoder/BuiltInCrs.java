@@ -0,0 +1,128 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coordinate reference systems computed in plain Java, so that reprojecting between the
+ * common systems does not boot the GeoTools EPSG database:
+ * <ul>
+ * <li>4326 (WGS84) and 4269 (NAD83) longitude/latitude</li>
+ * <li>3857 (and 900913) spherical Web Mercator</li>
+ * <li>3338 NAD83 / Alaska Albers</li>
+ * <li>32601-32660 and 32701-32760 WGS84 / UTM north and south</li>
+ * <li>26901-26923 NAD83 / UTM north</li>
+ * </ul>
+ * NAD83 and WGS84 are treated as the same datum (they differ by about a meter, which is
+ * what GeoTools does too without a datum shift grid). Geographic coordinates are always
+ * longitude first. Projections are created on first use and cached.
+ */
+public final class BuiltInCrs {
+    private static final double WGS84_A = 6378137.0;
+    private static final double WGS84_F = 1 / 298.257223563;
+    private static final double GRS80_F = 1 / 298.257222101;
+    private static final double UTM_SCALE = 0.9996;
+    private static final double UTM_FALSE_EASTING = 500000;
+    private static final double UTM_SOUTH_FALSE_NORTHING = 10000000;
+
+    private static final ConcurrentMap<Integer, Projection> PROJECTIONS = new ConcurrentHashMap<Integer, Projection>();
+
+    private BuiltInCrs() {
+    }
+
+    /**
+     * @return whether srid is one of the built in systems
+     */
+    public static boolean isSupported( int srid ){
+        return isGeographic( srid ) || srid == WebMercator.SRID || srid == 900913 || srid == 3338
+            || ( srid >= 32601 && srid <= 32660 ) || ( srid >= 32701 && srid <= 32760 )
+            || ( srid >= 26901 && srid <= 26923 );
+    }
+
+    /**
+     * Transforms numPoints interleaved x/y pairs starting at coords[offset * 2] in place.
+     *
+     * @throws IllegalArgumentException if either system is not built in
+     */
+    public static void transform( int fromSrid, int toSrid, double[] coords, int offset, int numPoints ){
+        Transform transform = find( fromSrid, toSrid );
+        if( transform == null ){
+            throw new IllegalArgumentException( "EPSG:" + ( isSupported( fromSrid ) ? toSrid : fromSrid ) + " is not a built in coordinate reference system" );
+        }
+        transform.transform( coords, offset, numPoints );
+    }
+
+    /**
+     * @return the transform between two built in systems, or null if either is not built in
+     */
+    static Transform find( int fromSrid, int toSrid ){
+        if( !isSupported( fromSrid ) || !isSupported( toSrid ) ){
+            return null;
+        }
+        return new Transform( projection( fromSrid ), projection( toSrid ) );
+    }
+
+    static boolean isGeographic( int srid ){
+        return srid == 4326 || srid == 4269;
+    }
+
+    /**
+     * @return the projection from longitude/latitude to srid, null for geographic systems
+     */
+    private static Projection projection( int srid ){
+        if( isGeographic( srid ) ){
+            return null;
+        }
+        Projection projection = PROJECTIONS.get( srid );
+        if( projection == null ){
+            projection = createProjection( srid );
+            Projection existing = PROJECTIONS.putIfAbsent( srid, projection );
+            if( existing != null ){
+                projection = existing;
+            }
+        }
+        return projection;
+    }
+
+    private static Projection createProjection( int srid ){
+        if( srid == WebMercator.SRID || srid == 900913 ){
+            return new Projection.Mercator();
+        } else if( srid == 3338 ){
+            return new Projection.AlbersEqualArea( WGS84_A, GRS80_F, 55, 65, 50, -154, 0, 0 );
+        } else if( srid >= 26901 && srid <= 26923 ){
+            return utm( GRS80_F, srid - 26900, 0 );
+        } else if( srid >= 32701 ){
+            return utm( WGS84_F, srid - 32700, UTM_SOUTH_FALSE_NORTHING );
+        }
+        return utm( WGS84_F, srid - 32600, 0 );
+    }
+
+    private static Projection utm( double flattening, int zone, double falseNorthing ){
+        return new Projection.TransverseMercator( WGS84_A, flattening, UTM_SCALE, zone * 6 - 183, UTM_FALSE_EASTING, falseNorthing );
+    }
+
+    /**
+     * Unprojects to longitude/latitude with one projection and projects with the other.
+     */
+    static final class Transform {
+        private final Projection from;
+        private final Projection to;
+
+        Transform( Projection from, Projection to ) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void transform( double[] coords, int offset, int numPoints ){
+            if( from == to ){
+                return;
+            }
+            if( from != null ){
+                from.inverse( coords, offset * 2, numPoints );
+            }
+            if( to != null ){
+                to.forward( coords, offset * 2, numPoints );
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Encodes files with one geometry per line, as exported from PostGIS: WKT (optionally
+ * with an EWKT "SRID=n;" prefix) or hex WKB, told apart line by line. Text up to the
+ * last tab of a line is an id, copied to the output.
+ *
+ * The input is memory mapped in line aligned chunks that are encoded in parallel without
+ * building JTS geometries, and written in input order, one line per input line:
+ * <pre>[id TAB] points TAB levels LF</pre>
+ * A line that cannot be encoded, including a blank one, is written with empty points and
+ * levels and counted as failed, so output line n always belongs to input line n. Only a few chunks per thread are in flight at once, so memory does not grow
+ * with the file.
+ *
+ * Also runs from the command line, see {@link #main(String[])}.
+ */
+public final class BulkFileEncoder {
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    private static final String USAGE = "Usage: java -cp polyline-encoder.jar:jts-core.jar " + BulkFileEncoder.class.getName() + " [options] input output\n"
+        + "Encodes one WKT or hex WKB geometry (optionally preceded by an id and a tab) per input line.\n"
+        + "Options:\n"
+        + "  --threads n              encoding threads (default: available processors)\n"
+        + "  --num-levels n           number of zoom levels\n"
+        + "  --zoom-factor n          zoom factor between levels\n"
+        + "  --very-small d           smallest distance to simplify to\n"
+        + "  --force-endpoints b      whether to force the end points to be visible (true or false)\n"
+        + "  --precision n            decimal digits of the encoded points, 1 to 6\n"
+        + "  --strategy s             DOUGLAS_PEUCKER or VISVALINGAM_WHYATT\n"
+        + "  --prefilter-distance d   drop points within d of the previous one before simplifying";
+
+    private BulkFileEncoder() {
+    }
+
+    /**
+     * Encodes the lines of input into output, replacing it.
+     *
+     * @param threads number of encoding threads
+     */
+    public static Summary encode( Path input, Path output, ImmutablePolylineEncoderSettings settings, int threads ) throws IOException {
+        try( OutputStream out = Files.newOutputStream( output ) ){
+            return encode( input, out, settings, threads );
+        }
+    }
+
+    /**
+     * Encodes the lines of input into out, which is not closed.
+     *
+     * @param threads number of encoding threads
+     */
+    public static Summary encode( Path input, OutputStream out, ImmutablePolylineEncoderSettings settings, int threads ) throws IOException {
+        if( threads < 1 ){
+            throw new IllegalArgumentException( "threads must be positive, was " + threads );
+        }
+        long start = System.nanoTime();
+        long numLines = 0;
+        long numFailed = 0;
+        long outputBytes = 0;
+        ExecutorService executor = Executors.newFixedThreadPool( threads, runnable -> {
+            Thread thread = new Thread( runnable, "polyline-bulk-encoder" );
+            thread.setDaemon( true );
+            return thread;
+        });
+        Deque<Future<ChunkResult>> inFlight = new ArrayDeque<Future<ChunkResult>>();
+        try( FileChannel channel = FileChannel.open( input, StandardOpenOption.READ ) ){
+            long size = channel.size();
+            long position = 0;
+            while( position < size || !inFlight.isEmpty() ){
+                if( position < size && inFlight.size() < threads * CHUNKS_IN_FLIGHT_PER_THREAD ){
+                    ByteBuffer chunk = mapChunk( channel, position, size );
+                    position += chunk.limit();
+                    inFlight.add( executor.submit( new ChunkEncoder( chunk, settings ) ) );
+                    continue;
+                }
+                ChunkResult result = get( inFlight.poll() );
+                result.output.writeTo( out );
+                numLines += result.numLines;
+                numFailed += result.numFailed;
+                outputBytes += result.output.size();
+            }
+            out.flush();
+            return new Summary( numLines, numFailed, size, outputBytes, System.nanoTime() - start );
+        } finally {
+            for( Future<ChunkResult> future : inFlight ){
+                future.cancel( true );
+            }
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Maps CHUNK_SIZE bytes from position, ending after the last complete line in them
+     * (mapping more if a single line is longer).
+     */
+    private static ByteBuffer mapChunk( FileChannel channel, long position, long size ) throws IOException {
+        long length = CHUNK_SIZE;
+        while( true ){
+            if( position + length >= size ){
+                return channel.map( FileChannel.MapMode.READ_ONLY, position, size - position );
+            }
+            if( length > Integer.MAX_VALUE ){
+                throw new IOException( "Line at byte " + position + " is longer than " + Integer.MAX_VALUE + " bytes" );
+            }
+            MappedByteBuffer chunk = channel.map( FileChannel.MapMode.READ_ONLY, position, length );
+            for( int i = (int) length - 1; i >= 0; i-- ){
+                if( chunk.get( i ) == '\n' ){
+                    chunk.limit( i + 1 );
+                    return chunk;
+                }
+            }
+            length <<= 1;
+        }
+    }
+
+    private static ChunkResult get( Future<ChunkResult> future ) throws IOException {
+        try {
+            return future.get();
+        } catch( InterruptedException e ){
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while encoding", e );
+        } catch( ExecutionException e ){
+            Throwable cause = e.getCause();
+            if( cause instanceof RuntimeException ){
+                throw (RuntimeException) cause;
+            }
+            if( cause instanceof Error ){
+                throw (Error) cause;
+            }
+            throw new IOException( cause );
+        }
+    }
+
+    /**
+     * Encodes the input file named by the last two arguments, after the options listed
+     * by running without arguments, and prints throughput to standard error.
+     */
+    public static void main( String[] args ) throws IOException {
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ImmutablePolylineEncoderSettings immutable;
+        try {
+            if( args.length < 2 || ( args.length & 1 ) != 0 ){
+                throw new IllegalArgumentException( "Expected options, an input and an output file" );
+            }
+            for( int i = 0; i < args.length - 2; i += 2 ){
+                String value = args[ i + 1 ];
+                switch( args[i] ){
+                    case "--threads": threads = Integer.parseInt( value ); break;
+                    case "--num-levels": settings.setNumLevels( Integer.parseInt( value ) ); break;
+                    case "--zoom-factor": settings.setZoomFactor( Integer.parseInt( value ) ); break;
+                    case "--very-small": settings.setVerySmall( Double.parseDouble( value ) ); break;
+                    case "--force-endpoints": settings.setForceEndpoints( parseBoolean( value ) ); break;
+                    case "--precision": settings.setPrecision( Integer.parseInt( value ) ); break;
+                    case "--strategy": settings.setSimplificationStrategy( SimplificationStrategy.valueOf( value.toUpperCase( Locale.ROOT ) ) ); break;
+                    case "--prefilter-distance": settings.setPrefilterDistance( Double.parseDouble( value ) ); break;
+                    default: throw new IllegalArgumentException( "Unknown option " + args[i] );
+                }
+            }
+            immutable = ImmutablePolylineEncoderSettings.of( settings );
+        } catch( IllegalArgumentException e ){
+            System.err.println( e.getMessage() );
+            System.err.println( USAGE );
+            System.exit( 2 );
+            return;
+        }
+
+        Summary summary = encode( Paths.get( args[ args.length - 2 ] ), Paths.get( args[ args.length - 1 ] ), immutable, threads );
+        System.err.println( summary );
+        if( summary.getNumFailed() > 0 ){
+            System.exit( 1 );
+        }
+    }
+
+    private static boolean parseBoolean( String value ){
+        if( !value.equals( "true" ) && !value.equals( "false" ) ){
+            throw new IllegalArgumentException( "Expected true or false but found " + value );
+        }
+        return Boolean.parseBoolean( value );
+    }
+
+    /**
+     * Counts and timing of one bulk encode.
+     */
+    public static final class Summary {
+        private final long numLines;
+        private final long numFailed;
+        private final long inputBytes;
+        private final long outputBytes;
+        private final long nanos;
+
+        Summary( long numLines, long numFailed, long inputBytes, long outputBytes, long nanos ) {
+            this.numLines = numLines;
+            this.numFailed = numFailed;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return number of input lines, blank ones included
+         */
+        public long getNumLines() {
+            return numLines;
+        }
+
+        /**
+         * @return number of lines that could not be encoded, blank ones included
+         */
+        public long getNumFailed() {
+            return numFailed;
+        }
+
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getLinesPerSecond() {
+            return nanos == 0 ? 0 : numLines * 1e9 / nanos;
+        }
+
+        public double getInputMegabytesPerSecond() {
+            return nanos == 0 ? 0 : inputBytes * 1e3 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format( Locale.ROOT, "Encoded %d lines (%d failed), %.1f MB into %.1f MB in %.2f s: %.0f lines/s, %.1f MB/s",
+                numLines, numFailed, inputBytes / 1e6, outputBytes / 1e6, nanos / 1e9, getLinesPerSecond(), getInputMegabytesPerSecond() );
+        }
+    }
+
+    private static final class ChunkResult {
+        final ByteArrayOutputStream output;
+        final long numLines;
+        final long numFailed;
+
+        ChunkResult( ByteArrayOutputStream output, long numLines, long numFailed ) {
+            this.output = output;
+            this.numLines = numLines;
+            this.numFailed = numFailed;
+        }
+    }
+
+    /**
+     * Encodes the lines of one chunk with its own working arrays.
+     */
+    private static final class ChunkEncoder implements Callable<ChunkResult> {
+        private final ByteBuffer chunk;
+        private final ImmutablePolylineEncoderSettings settings;
+
+        ChunkEncoder( ByteBuffer chunk, ImmutablePolylineEncoderSettings settings ) {
+            this.chunk = chunk;
+            this.settings = settings;
+        }
+
+        @Override
+        public ChunkResult call() throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream( chunk.limit() / 4 + 64 );
+            EncoderScratch scratch = new EncoderScratch( 256 );
+            AsciiSink.Builder points = new AsciiSink.Builder( 1024 );
+            AsciiSink.Builder levels = new AsciiSink.Builder( 256 );
+            AsciiSequence geometry = new AsciiSequence( chunk );
+            long numLines = 0;
+            long numFailed = 0;
+            int limit = chunk.limit();
+            int lineStart = 0;
+            while( lineStart < limit ){
+                int lineEnd = lineStart;
+                int tab = -1;
+                while( lineEnd < limit && chunk.get( lineEnd ) != '\n' ){
+                    if( chunk.get( lineEnd ) == '\t' ){
+                        tab = lineEnd;
+                    }
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if( lineEnd > lineStart && chunk.get( lineEnd - 1 ) == '\r' ){
+                    lineEnd--;
+                }
+                int geometryStart = tab < 0 ? lineStart : tab + 1;
+
+                numLines++;
+                for( int i = lineStart; i < geometryStart; i++ ){
+                    output.write( chunk.get( i ) );
+                }
+                geometry.reset( geometryStart, lineEnd - geometryStart );
+                if( encode( geometry, scratch, points, levels ) ){
+                    points.writeTo( output );
+                    output.write( '\t' );
+                    levels.writeTo( output );
+                } else {
+                    numFailed++;
+                    output.write( '\t' );
+                }
+                output.write( '\n' );
+                lineStart = next;
+            }
+            return new ChunkResult( output, numLines, numFailed );
+        }
+
+        /**
+         * @return false if the geometry could not be encoded
+         */
+        private boolean encode( AsciiSequence geometry, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels ){
+            try {
+                int numPoints;
+                if( geometry.length() > 0 && geometry.charAt( 0 ) == '0' ){
+                    byte[] wkb = WkbCoordinateReader.hexToBytes( geometry );
+                    numPoints = WkbCoordinateReader.read( wkb, 0, wkb.length, scratch );
+                } else {
+                    numPoints = WktCoordinateReader.read( geometry, scratch );
+                }
+                points.clear();
+                levels.clear();
+                PolylineEncoder.encode( scratch.xs, scratch.ys, numPoints, settings.settings(), settings.levelLookup(), scratch.clearDists( numPoints ), scratch.stack, points, levels, 0 );
+                return true;
+            } catch( ParseException | UnsupportedGeometryTypeException | IllegalArgumentException e ){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Single byte characters of a region of a buffer, repositioned for every line.
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private int offset;
+        private int length;
+
+        AsciiSequence( ByteBuffer buffer ) {
+            this.buffer = buffer;
+        }
+
+        void reset( int offset, int length ){
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length(){
+            return length;
+        }
+
+        @Override
+        public char charAt( int index ){
+            return (char) ( buffer.get( offset + index ) & 0xff );
+        }
+
+        @Override
+        public CharSequence subSequence( int start, int end ){
+            return toString( offset + start, end - start );
+        }
+
+        @Override
+        public String toString(){
+            return toString( offset, length );
+        }
+
+        private String toString( int from, int count ){
+            char[] chars = new char[ count ];
+            for( int i = 0; i < count; i++ ){
+                chars[i] = (char) ( buffer.get( from + i ) & 0xff );
+            }
+            return new String( chars );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Point in time snapshot of a cache's counters.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final long weight;
+    private final long maxWeight;
+
+    CacheStats( long hitCount, long missCount, long evictionCount, int size, long weight, long maxWeight ) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return hits / (hits + misses), or 0 if the cache has not been queried
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return number of entries currently cached
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return current total weight (equal to size for caches bounded by entry count)
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+            + ", size=" + size + ", weight=" + weight + "/" + maxWeight + "]";
+    }
+}
@@ -0,0 +1,106 @@
+package com.axiomalaska.polylineencoder;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * Encodes many lines held in columnar form, without a JTS geometry or any other object
+ * per line: one DoubleBuffer (heap or direct) of interleaved x/y coordinates and an int[]
+ * of part offsets, where line i is vertices [offsets[i], offsets[i + 1]) counted from
+ * the buffer's position.
+ *
+ * The points and then the levels of each line are written as ASCII bytes one after the
+ * other into a single output ByteBuffer, and their positions into an offsets index: for
+ * the j-th line encoded, its points are bytes [outOffsets[2j], outOffsets[2j + 1]) of
+ * the output and its levels [outOffsets[2j + 1], outOffsets[2j + 2]).
+ *
+ * When the output fills up, encoding stops after the last line that fit and returns the
+ * index of the next one, so the caller can drain the output and carry on from there.
+ * Working arrays are allocated once per call and grow to the largest line.
+ */
+public final class ColumnarPolylineEncoder {
+    private ColumnarPolylineEncoder() {
+    }
+
+    /**
+     * Encodes lines [fromLine, toLine) like
+     * {@link PolylineEncoder#encode(double[], double[], int, PolylineEncoderSettings)}.
+     *
+     * @param coords interleaved x (longitude) and y (latitude) ordinates, read from its
+     * position without moving it
+     * @param offsets vertex offsets of the lines, non-decreasing, with one more entry than lines
+     * @param fromLine first line to encode
+     * @param toLine line to stop before
+     * @param settings encoding settings
+     * @param out receives the points and levels of each line, starting at and advancing its position
+     * @param outOffsets receives the positions in out where each line's points and levels
+     * start, and where the last one ends; needs at least 2 * (toLine - fromLine) + 1 entries
+     * @return toLine, or the first line that did not fit in out (fromLine if not even one did)
+     * @throws IllegalArgumentException if the offsets of a line are decreasing or past the
+     * end of coords
+     */
+    public static int encode( DoubleBuffer coords, int[] offsets, int fromLine, int toLine, ImmutablePolylineEncoderSettings settings, ByteBuffer out, int[] outOffsets ){
+        return encode( coords, offsets, fromLine, toLine, settings, 0, 0, out, outOffsets );
+    }
+
+    /**
+     * Encodes all points of lines [fromLine, toLine) at one level like
+     * {@link PolylineEncoder#dumbEncode(org.locationtech.jts.geom.Geometry, int, int)}.
+     *
+     * @param level Level for which to encode the points (usually the lowest zoom level).
+     * @param step Step size to use when moving through points (use 1 to include all points)
+     * @see #encode(DoubleBuffer, int[], int, int, ImmutablePolylineEncoderSettings, ByteBuffer, int[])
+     */
+    public static int dumbEncode( DoubleBuffer coords, int[] offsets, int fromLine, int toLine, int level, int step, ByteBuffer out, int[] outOffsets ){
+        if( step < 1 ){
+            throw new IllegalArgumentException( "step must be positive, was " + step );
+        }
+        return encode( coords, offsets, fromLine, toLine, null, level, step, out, outOffsets );
+    }
+
+    /**
+     * @param settings null to encode every step-th point at level
+     */
+    private static int encode( DoubleBuffer coords, int[] offsets, int fromLine, int toLine, ImmutablePolylineEncoderSettings settings, int level, int step, ByteBuffer out, int[] outOffsets ){
+        int base = coords.position();
+        int numVertices = coords.remaining() / 2;
+        EncoderScratch scratch = new EncoderScratch( 256 );
+        AsciiSink.Builder points = new AsciiSink.Builder( 1024 );
+        AsciiSink.Builder levels = new AsciiSink.Builder( 256 );
+
+        outOffsets[0] = out.position();
+        for( int line = fromLine; line < toLine; line++ ){
+            int start = offsets[ line ];
+            int end = offsets[ line + 1 ];
+            if( start < 0 || end < start || end > numVertices ){
+                throw new IllegalArgumentException( "Line " + line + " has vertices [" + start + ", " + end + ") of " + numVertices );
+            }
+            int numPoints = end - start;
+            scratch.ensureCapacity( numPoints );
+            double[] xs = scratch.xs;
+            double[] ys = scratch.ys;
+            for( int i = 0, index = base + start * 2; i < numPoints; i++, index += 2 ){
+                xs[i] = coords.get( index );
+                ys[i] = coords.get( index + 1 );
+            }
+
+            points.clear();
+            levels.clear();
+            if( settings == null ){
+                PolylineEncoder.dumbEncode( xs, ys, numPoints, level, step, points, levels );
+            } else {
+                PolylineEncoder.encode( xs, ys, numPoints, settings.settings(), settings.levelLookup(), scratch.clearDists( numPoints ), scratch.stack, points, levels, 0 );
+            }
+
+            if( out.remaining() < points.length() + levels.length() ){
+                return line;
+            }
+            int j = ( line - fromLine ) * 2;
+            points.copyTo( out );
+            outOffsets[ j + 1 ] = out.position();
+            levels.copyTo( out );
+            outOffsets[ j + 2 ] = out.position();
+        }
+        return toLine;
+    }
+}
@@ -0,0 +1,180 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Immutable encoded polyline holding the points and levels strings as ASCII bytes in one
+ * array, about half the heap of an {@link EncodedPolyline} and its two Strings. The bytes
+ * can be read through read-only ByteBuffer views, CharSequence views (accepted by
+ * {@link PolylineDecoder}) or written to a stream without copying; Strings are only built
+ * when asked for, and then kept.
+ */
+public final class CompactPolyline {
+    private final byte[] data;
+    private final int pointsLength;
+    private String points;
+    private String levels;
+
+    private CompactPolyline( byte[] data, int pointsLength ) {
+        this.data = data;
+        this.pointsLength = pointsLength;
+    }
+
+    static CompactPolyline of( AsciiSink.Builder points, AsciiSink.Builder levels ){
+        int pointsLength = points.length();
+        byte[] data = new byte[ pointsLength + levels.length() ];
+        points.copyTo( data, 0 );
+        levels.copyTo( data, pointsLength );
+        return new CompactPolyline( data, pointsLength );
+    }
+
+    /**
+     * Copies an EncodedPolyline. Its strings must only hold polyline characters (ASCII).
+     */
+    public static CompactPolyline of( EncodedPolyline encodedPolyline ){
+        byte[] points = encodedPolyline.getPoints().getBytes( StandardCharsets.ISO_8859_1 );
+        byte[] levels = encodedPolyline.getLevels().getBytes( StandardCharsets.ISO_8859_1 );
+        byte[] data = Arrays.copyOf( points, points.length + levels.length );
+        System.arraycopy( levels, 0, data, points.length, levels.length );
+        return new CompactPolyline( data, points.length );
+    }
+
+    public int getPointsLength() {
+        return pointsLength;
+    }
+
+    public int getLevelsLength() {
+        return data.length - pointsLength;
+    }
+
+    /**
+     * @return read-only view of the points bytes, position 0 and limit at the end
+     */
+    public ByteBuffer getPointsBuffer() {
+        return ByteBuffer.wrap( data, 0, pointsLength ).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return read-only view of the levels bytes, position 0 and limit at the end
+     */
+    public ByteBuffer getLevelsBuffer() {
+        return ByteBuffer.wrap( data, pointsLength, data.length - pointsLength ).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the points as a CharSequence backed by the bytes, without building a String
+     */
+    public CharSequence getPointsChars() {
+        return new AsciiChars( data, 0, pointsLength );
+    }
+
+    public CharSequence getLevelsChars() {
+        return new AsciiChars( data, pointsLength, data.length );
+    }
+
+    public void writePointsTo( OutputStream out ) throws IOException {
+        out.write( data, 0, pointsLength );
+    }
+
+    public void writeLevelsTo( OutputStream out ) throws IOException {
+        out.write( data, pointsLength, data.length - pointsLength );
+    }
+
+    /**
+     * @return the points string, built on first use
+     */
+    public String getPoints() {
+        String s = points;
+        if( s == null ){
+            s = new String( data, 0, pointsLength, StandardCharsets.ISO_8859_1 );
+            points = s;
+        }
+        return s;
+    }
+
+    /**
+     * @return the levels string, built on first use
+     */
+    public String getLevels() {
+        String s = levels;
+        if( s == null ){
+            s = new String( data, pointsLength, data.length - pointsLength, StandardCharsets.ISO_8859_1 );
+            levels = s;
+        }
+        return s;
+    }
+
+    public EncodedPolyline toEncodedPolyline() {
+        EncodedPolyline encodedPolyline = new EncodedPolyline();
+        encodedPolyline.setPoints( getPoints() );
+        encodedPolyline.setLevels( getLevels() );
+        return encodedPolyline;
+    }
+
+    @Override
+    public boolean equals( Object o ){
+        if( this == o ){
+            return true;
+        }
+        if( !( o instanceof CompactPolyline ) ){
+            return false;
+        }
+        CompactPolyline other = (CompactPolyline) o;
+        return pointsLength == other.pointsLength && Arrays.equals( data, other.data );
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode( data ) * 31 + pointsLength;
+    }
+
+    @Override
+    public String toString(){
+        return "CompactPolyline[points=" + getPointsChars() + ", levels=" + getLevelsChars() + "]";
+    }
+
+    /**
+     * CharSequence over a range of ASCII bytes.
+     */
+    private static final class AsciiChars implements CharSequence {
+        private final byte[] bytes;
+        private final int start;
+        private final int end;
+
+        AsciiChars( byte[] bytes, int start, int end ) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length(){
+            return end - start;
+        }
+
+        @Override
+        public char charAt( int index ){
+            if( index < 0 || index >= end - start ){
+                throw new IndexOutOfBoundsException( "index " + index + ", length " + ( end - start ) );
+            }
+            return (char) bytes[ start + index ];
+        }
+
+        @Override
+        public CharSequence subSequence( int from, int to ){
+            if( from < 0 || to > end - start || from > to ){
+                throw new IndexOutOfBoundsException( "[" + from + ", " + to + "), length " + ( end - start ) );
+            }
+            return new AsciiChars( bytes, start + from, start + to );
+        }
+
+        @Override
+        public String toString(){
+            return new String( bytes, start, end - start, StandardCharsets.ISO_8859_1 );
+        }
+    }
+}
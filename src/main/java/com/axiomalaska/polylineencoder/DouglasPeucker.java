@@ -0,0 +1,226 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Douglas-Peucker core working on packed x/y coordinate arrays. Produces the same
+ * per-vertex distances as the original JTS based implementation (which built a
+ * two point LineString and ran DistanceOp for every test) without allocating
+ * anything per vertex.
+ */
+final class DouglasPeucker {
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Runs the Douglas-Peucker algorithm over the first numPoints coordinates.
+     *
+     * @param xs x ordinates (longitude)
+     * @param ys y ordinates (latitude)
+     * @param numPoints number of coordinates to use from xs and ys
+     * @param verySmall distance below which a vertex is not retained
+     * @param dists output array (length >= numPoints, zero filled) receiving the distance of each retained vertex
+     * @param stack scratch stack, cleared before use
+     * @return the largest distance found (absMaxDist)
+     */
+    static double simplify( double[] xs, double[] ys, int numPoints, double verySmall, double[] dists, IntStack stack ){
+        if( numPoints <= 2 ){
+            return 0.0;
+        }
+        return simplifyRange( xs, ys, 0, numPoints - 1, verySmall, dists, stack );
+    }
+
+    /**
+     * Same as {@link #simplify(double[], double[], int, double, double[], IntStack)}, but ranges
+     * longer than parallelThreshold are split into fork-join tasks. Every range is still
+     * processed exactly as in the sequential algorithm, so dists and the returned absMaxDist
+     * are identical. Runs in the current fork-join pool if called from one, otherwise in the
+     * common pool.
+     */
+    static double simplifyParallel( double[] xs, double[] ys, int numPoints, double verySmall, double[] dists, int parallelThreshold ){
+        if( numPoints <= 2 ){
+            return 0.0;
+        }
+        SimplifyTask task = new SimplifyTask( xs, ys, verySmall, dists, Math.max( parallelThreshold, 2 ), 0, numPoints - 1 );
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke( task );
+    }
+
+    /**
+     * Sequential Douglas-Peucker over the closed index range [first, last].
+     */
+    private static double simplifyRange( double[] xs, double[] ys, int first, int last, double verySmall, double[] dists, IntStack stack ){
+        double absMaxDist = 0.0;
+
+        stack.clear();
+        stack.push( first );
+        stack.push( last );
+
+        while( !stack.isEmpty() ){
+            int end = stack.pop();
+            int start = stack.pop();
+            double maxDist = 0;
+            int maxLoc = 0;
+
+            double ax = xs[start], ay = ys[start];
+            double bx = xs[end], by = ys[end];
+            for( int i = start + 1; i < end; i++ ){
+                double temp = distance( xs[i], ys[i], ax, ay, bx, by );
+                if( temp > maxDist ){
+                    maxDist = temp;
+                    maxLoc = i;
+                }
+            }
+            if( maxDist > absMaxDist ){
+                absMaxDist = maxDist;
+            }
+            if( maxDist > verySmall ){
+                dists[maxLoc] = maxDist;
+                stack.push( start );
+                stack.push( maxLoc );
+                stack.push( maxLoc );
+                stack.push( end );
+            }
+        }
+        return absMaxDist;
+    }
+
+    /**
+     * Processes one [start, end] range: finds its furthest vertex, then simplifies both
+     * halves, forking the left one. Returns the largest distance found in the subtree.
+     */
+    private static final class SimplifyTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] xs;
+        private final double[] ys;
+        private final double verySmall;
+        private final double[] dists;
+        private final int parallelThreshold;
+        private final int start;
+        private final int end;
+
+        SimplifyTask( double[] xs, double[] ys, double verySmall, double[] dists, int parallelThreshold, int start, int end ) {
+            this.xs = xs;
+            this.ys = ys;
+            this.verySmall = verySmall;
+            this.dists = dists;
+            this.parallelThreshold = parallelThreshold;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Double compute() {
+            if( end - start <= parallelThreshold ){
+                return simplifyRange( xs, ys, start, end, verySmall, dists, new IntStack() );
+            }
+
+            FarthestPoint farthest = new ScanTask( xs, ys, start, end, start + 1, end ).compute();
+            double absMaxDist = farthest.dist;
+            if( farthest.dist > verySmall ){
+                dists[ farthest.loc ] = farthest.dist;
+                SimplifyTask left = new SimplifyTask( xs, ys, verySmall, dists, parallelThreshold, start, farthest.loc );
+                SimplifyTask right = new SimplifyTask( xs, ys, verySmall, dists, parallelThreshold, farthest.loc, end );
+                left.fork();
+                absMaxDist = Math.max( absMaxDist, right.compute() );
+                absMaxDist = Math.max( absMaxDist, left.join() );
+            }
+            return absMaxDist;
+        }
+    }
+
+    private static final class FarthestPoint {
+        final double dist;
+        final int loc;
+
+        FarthestPoint( double dist, int loc ) {
+            this.dist = dist;
+            this.loc = loc;
+        }
+    }
+
+    /**
+     * Finds the vertex in [from, to) furthest from the segment [start, end], splitting very
+     * long scans. Ties go to the lowest index, as in the sequential loop.
+     */
+    private static final class ScanTask extends RecursiveTask<FarthestPoint> {
+        private static final long serialVersionUID = 1L;
+        private static final int SCAN_THRESHOLD = 1 << 16;
+
+        private final double[] xs;
+        private final double[] ys;
+        private final int start;
+        private final int end;
+        private final int from;
+        private final int to;
+
+        ScanTask( double[] xs, double[] ys, int start, int end, int from, int to ) {
+            this.xs = xs;
+            this.ys = ys;
+            this.start = start;
+            this.end = end;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FarthestPoint compute() {
+            if( to - from <= SCAN_THRESHOLD ){
+                double maxDist = 0;
+                int maxLoc = 0;
+                double ax = xs[start], ay = ys[start];
+                double bx = xs[end], by = ys[end];
+                for( int i = from; i < to; i++ ){
+                    double temp = distance( xs[i], ys[i], ax, ay, bx, by );
+                    if( temp > maxDist ){
+                        maxDist = temp;
+                        maxLoc = i;
+                    }
+                }
+                return new FarthestPoint( maxDist, maxLoc );
+            }
+
+            int mid = ( from + to ) >>> 1;
+            ScanTask left = new ScanTask( xs, ys, start, end, from, mid );
+            left.fork();
+            FarthestPoint rightMax = new ScanTask( xs, ys, start, end, mid, to ).compute();
+            FarthestPoint leftMax = left.join();
+            return rightMax.dist > leftMax.dist ? rightMax : leftMax;
+        }
+    }
+
+    /**
+     * Distance between the point (px, py) and the segment [(ax, ay), (bx, by)]. Follows
+     * the arithmetic of JTS Distance.pointToSegment exactly so results are bit-for-bit
+     * identical to DistanceOp on a two point LineString.
+     */
+    static double distance( double px, double py, double ax, double ay, double bx, double by ){
+        if( ax == bx && ay == by ){
+            return pointDistance( px, py, ax, ay );
+        }
+
+        double dx = bx - ax;
+        double dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double r = ( ( px - ax ) * dx + ( py - ay ) * dy ) / len2;
+
+        if( r <= 0.0 ){
+            return pointDistance( px, py, ax, ay );
+        }
+        if( r >= 1.0 ){
+            return pointDistance( px, py, bx, by );
+        }
+
+        double s = ( ( ay - py ) * dx - ( ax - px ) * dy ) / len2;
+        return Math.abs( s ) * Math.sqrt( len2 );
+    }
+
+    private static double pointDistance( double px, double py, double qx, double qy ){
+        double dx = px - qx;
+        double dy = py - qy;
+        return Math.sqrt( dx * dx + dy * dy );
+    }
+}
@@ -0,0 +1,89 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Measurements of one encode, passed to {@link MetricsListener#encoded(EncodeMetrics)}.
+ * Phases that did not run (parsing when encoding a Geometry, levels when they were not
+ * requested) report 0.
+ */
+public final class EncodeMetrics {
+    private final int inputVertices;
+    private final int outputVertices;
+    private final long parseNanos;
+    private final long simplifyNanos;
+    private final long pointsNanos;
+    private final long levelsNanos;
+    private final long pointsBytes;
+    private final long levelsBytes;
+
+    EncodeMetrics( int inputVertices, int outputVertices, long parseNanos, long simplifyNanos, long pointsNanos, long levelsNanos, long pointsBytes, long levelsBytes ) {
+        this.inputVertices = inputVertices;
+        this.outputVertices = outputVertices;
+        this.parseNanos = parseNanos;
+        this.simplifyNanos = simplifyNanos;
+        this.pointsNanos = pointsNanos;
+        this.levelsNanos = levelsNanos;
+        this.pointsBytes = pointsBytes;
+        this.levelsBytes = levelsBytes;
+    }
+
+    /**
+     * @return vertices in the line handed to the encoder
+     */
+    public int getInputVertices() {
+        return inputVertices;
+    }
+
+    /**
+     * @return vertices kept by the simplification and written to the points string
+     */
+    public int getOutputVertices() {
+        return outputVertices;
+    }
+
+    /**
+     * @return time spent parsing WKT or WKB
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * @return time spent in the prefilter and simplification
+     */
+    public long getSimplifyNanos() {
+        return simplifyNanos;
+    }
+
+    /**
+     * @return time spent encoding the points string
+     */
+    public long getPointsNanos() {
+        return pointsNanos;
+    }
+
+    /**
+     * @return time spent computing and encoding levels
+     */
+    public long getLevelsNanos() {
+        return levelsNanos;
+    }
+
+    public long getTotalNanos() {
+        return parseNanos + simplifyNanos + pointsNanos + levelsNanos;
+    }
+
+    public long getPointsBytes() {
+        return pointsBytes;
+    }
+
+    public long getLevelsBytes() {
+        return levelsBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "EncodeMetrics[vertices=" + inputVertices + "->" + outputVertices
+            + ", parse=" + parseNanos + "ns, simplify=" + simplifyNanos + "ns, points=" + pointsNanos
+            + "ns, levels=" + levelsNanos + "ns, bytes=" + pointsBytes + "+" + levelsBytes + "]";
+    }
+}
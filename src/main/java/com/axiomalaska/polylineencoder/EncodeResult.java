@@ -0,0 +1,51 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Outcome of encoding one element of a batch: either the encoded polyline or the
+ * exception that element failed with. Failures never abort the rest of the batch.
+ */
+public final class EncodeResult {
+    private final long index;
+    private final EncodedPolyline encodedPolyline;
+    private final Exception error;
+
+    private EncodeResult( long index, EncodedPolyline encodedPolyline, Exception error ) {
+        this.index = index;
+        this.encodedPolyline = encodedPolyline;
+        this.error = error;
+    }
+
+    static EncodeResult success( long index, EncodedPolyline encodedPolyline ){
+        return new EncodeResult( index, encodedPolyline, null );
+    }
+
+    static EncodeResult failure( long index, Exception error ){
+        return new EncodeResult( index, null, error );
+    }
+
+    /**
+     * @return position of the element in the input
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the encoded polyline, or null if encoding failed
+     */
+    public EncodedPolyline getEncodedPolyline() {
+        return encodedPolyline;
+    }
+
+    /**
+     * @return the exception encoding failed with (typically an
+     * {@link UnsupportedGeometryTypeException}), or null on success
+     */
+    public Exception getError() {
+        return error;
+    }
+}
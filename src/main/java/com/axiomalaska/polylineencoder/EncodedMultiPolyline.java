@@ -0,0 +1,154 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+/**
+ * Encoding of every part of a multi-part geometry: each LineString, and each exterior
+ * and interior ring of each Polygon, in depth-first order. Every part is an independent
+ * encoded polyline (its deltas start from zero), but all points are held in one String
+ * and all levels in another, with offsets marking where each part starts.
+ */
+public final class EncodedMultiPolyline {
+    private final String points;
+    private final String levels;
+    private final int[] pointsOffsets;
+    private final int[] levelsOffsets;
+    private final int[] geometryIndexes;
+    private final int[] ringIndexes;
+
+    EncodedMultiPolyline( String points, String levels, int[] pointsOffsets, int[] levelsOffsets, int[] geometryIndexes, int[] ringIndexes ) {
+        this.points = points;
+        this.levels = levels;
+        this.pointsOffsets = pointsOffsets;
+        this.levelsOffsets = levelsOffsets;
+        this.geometryIndexes = geometryIndexes;
+        this.ringIndexes = ringIndexes;
+    }
+
+    public int getNumParts() {
+        return geometryIndexes.length;
+    }
+
+    /**
+     * @return the points of all parts, concatenated
+     */
+    public String getPoints() {
+        return points;
+    }
+
+    /**
+     * @return the levels of all parts, concatenated
+     */
+    public String getLevels() {
+        return levels;
+    }
+
+    public String getPoints( int part ) {
+        return points.substring( pointsOffsets[ part ], pointsOffsets[ part + 1 ] );
+    }
+
+    public String getLevels( int part ) {
+        return levels.substring( levelsOffsets[ part ], levelsOffsets[ part + 1 ] );
+    }
+
+    /**
+     * @return offset of the part's first character in {@link #getPoints()}
+     */
+    public int getPointsStart( int part ) {
+        return pointsOffsets[ part ];
+    }
+
+    /**
+     * @return offset just past the part's last character in {@link #getPoints()}
+     */
+    public int getPointsEnd( int part ) {
+        return pointsOffsets[ part + 1 ];
+    }
+
+    public int getLevelsStart( int part ) {
+        return levelsOffsets[ part ];
+    }
+
+    public int getLevelsEnd( int part ) {
+        return levelsOffsets[ part + 1 ];
+    }
+
+    /**
+     * @return index of the LineString or Polygon the part belongs to, counting the
+     * LineStrings and Polygons of the input depth-first
+     */
+    public int getGeometryIndex( int part ) {
+        return geometryIndexes[ part ];
+    }
+
+    /**
+     * @return 0 for LineStrings and exterior rings, 1 + n for the n-th interior ring
+     */
+    public int getRingIndex( int part ) {
+        return ringIndexes[ part ];
+    }
+
+    public boolean isHole( int part ) {
+        return ringIndexes[ part ] > 0;
+    }
+
+    public EncodedPolyline getPart( int part ) {
+        EncodedPolyline encodedPolyline = new EncodedPolyline();
+        encodedPolyline.setPoints( getPoints( part ) );
+        encodedPolyline.setLevels( getLevels( part ) );
+        return encodedPolyline;
+    }
+
+    public EncodedPolyline[] toArray() {
+        EncodedPolyline[] parts = new EncodedPolyline[ getNumParts() ];
+        for( int i = 0; i < parts.length; i++ ){
+            parts[i] = getPart( i );
+        }
+        return parts;
+    }
+
+    /**
+     * Collects part boundaries while the parts are written to shared sinks.
+     */
+    static final class Builder {
+        private int[] pointsOffsets = new int[ 9 ];
+        private int[] levelsOffsets = new int[ 9 ];
+        private int[] geometryIndexes = new int[ 8 ];
+        private int[] ringIndexes = new int[ 8 ];
+        private int numParts;
+        private int geometryIndex;
+
+        /**
+         * Records a part that ends at the given sink lengths.
+         */
+        void endPart( int ringIndex, int pointsEnd, int levelsEnd ){
+            if( numParts == geometryIndexes.length ){
+                int capacity = numParts << 1;
+                geometryIndexes = Arrays.copyOf( geometryIndexes, capacity );
+                ringIndexes = Arrays.copyOf( ringIndexes, capacity );
+                pointsOffsets = Arrays.copyOf( pointsOffsets, capacity + 1 );
+                levelsOffsets = Arrays.copyOf( levelsOffsets, capacity + 1 );
+            }
+            geometryIndexes[ numParts ] = geometryIndex;
+            ringIndexes[ numParts ] = ringIndex;
+            numParts++;
+            pointsOffsets[ numParts ] = pointsEnd;
+            levelsOffsets[ numParts ] = levelsEnd;
+        }
+
+        void endGeometry(){
+            geometryIndex++;
+        }
+
+        EncodedMultiPolyline build( String points, String levels ){
+            return new EncodedMultiPolyline(
+                 points
+                ,levels
+                ,Arrays.copyOf( pointsOffsets, numParts + 1 )
+                ,Arrays.copyOf( levelsOffsets, numParts + 1 )
+                ,Arrays.copyOf( geometryIndexes, numParts )
+                ,Arrays.copyOf( ringIndexes, numParts )
+            );
+        }
+    }
+}
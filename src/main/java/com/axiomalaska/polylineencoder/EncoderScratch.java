@@ -0,0 +1,65 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+
+/**
+ * Working arrays for one encode: packed coordinates, per-vertex distances and the
+ * Douglas-Peucker range stack. Grows to the largest line seen and can be reused for
+ * any number of lines, one at a time.
+ */
+final class EncoderScratch {
+    double[] xs;
+    double[] ys;
+    double[] dists;
+    final IntStack stack = new IntStack();
+
+    EncoderScratch( int initialCapacity ) {
+        int capacity = Math.max( initialCapacity, 16 );
+        xs = new double[ capacity ];
+        ys = new double[ capacity ];
+        dists = new double[ capacity ];
+    }
+
+    /**
+     * Makes room for numPoints vertices. Coordinates already in xs/ys are kept, so
+     * parsers can grow the arrays while appending; distances are not.
+     */
+    void ensureCapacity( int numPoints ){
+        if( xs.length < numPoints ){
+            int capacity = Math.max( numPoints, xs.length + ( xs.length >> 1 ) );
+            xs = Arrays.copyOf( xs, capacity );
+            ys = Arrays.copyOf( ys, capacity );
+            dists = new double[ capacity ];
+        }
+    }
+
+    /**
+     * Copies a coordinate sequence into xs/ys and clears the distances.
+     *
+     * @return number of points loaded
+     */
+    int load( CoordinateSequence seq ){
+        int numPoints = seq.size();
+        ensureCapacity( numPoints );
+        for( int i = 0; i < numPoints; i++ ){
+            xs[i] = seq.getX( i );
+            ys[i] = seq.getY( i );
+        }
+        clearDists( numPoints );
+        return numPoints;
+    }
+
+    /**
+     * Zeroes the first numPoints distances (growing if needed) and returns the array.
+     */
+    double[] clearDists( int numPoints ){
+        if( dists.length < numPoints ){
+            ensureCapacity( numPoints );
+        } else {
+            Arrays.fill( dists, 0, numPoints, 0.0 );
+        }
+        return dists;
+    }
+}
@@ -0,0 +1,660 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Pull reader for GeoJSON that walks a file one feature at a time through a fixed size
+ * buffer, without a JSON tree or JTS geometries, so memory stays flat however large the
+ * file is. Accepts a FeatureCollection, a single Feature, or a sequence of Features
+ * (newline delimited or RFC 8142 GeoJSON text sequences).
+ *
+ * For each feature it keeps the id, the geometry type and the coordinates of the line the
+ * encoder would use (a LineString, or the exterior ring of a Polygon; for the multi
+ * types, the first line or the exterior ring of the first polygon). Members may come in
+ * any order. Properties and other members are skipped, checking only that their brackets
+ * balance. Coordinate arrays grow to the largest feature read and are reused.
+ */
+public final class GeoJsonFeatureReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int RECORD_SEPARATOR = 0x1e;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+    private final byte[] buf = buffer.array();
+    private int pos;
+    private int limit;
+    /** bytes of the input before buf[0] */
+    private long bufferOffset;
+
+    private final EncoderScratch scratch = new EncoderScratch( 256 );
+    private byte[] text = new byte[ 64 ];
+    private int textLength;
+
+    private boolean inTopObject;
+    private boolean firstTopMember;
+    private boolean topIsFeature;
+    private boolean inFeatures;
+    private boolean firstFeature;
+
+    private String id;
+    private String geometryType;
+    private int numPoints;
+    private int positionDepth;
+
+    public GeoJsonFeatureReader( ReadableByteChannel channel ) {
+        this.channel = channel;
+    }
+
+    public GeoJsonFeatureReader( InputStream in ) {
+        this( Channels.newChannel( in ) );
+    }
+
+    /**
+     * Opens a reader on a file, closed with the reader.
+     */
+    public static GeoJsonFeatureReader open( Path path ) throws IOException {
+        return new GeoJsonFeatureReader( FileChannel.open( path, StandardOpenOption.READ ) );
+    }
+
+    /**
+     * Reads the next feature.
+     *
+     * @return false at the end of the input
+     * @throws ParseException if the input is not GeoJSON
+     */
+    public boolean next() throws IOException, ParseException {
+        while( true ){
+            if( inFeatures ){
+                int c = skipWhitespace();
+                if( c == ']' ){
+                    pos++;
+                    inFeatures = false;
+                } else {
+                    if( !firstFeature ){
+                        expect( ',' );
+                        skipWhitespace();
+                    }
+                    firstFeature = false;
+                    expect( '{' );
+                    resetFeature();
+                    readObjectMembers( false );
+                    return true;
+                }
+            }
+            if( inTopObject ){
+                if( readTopMembers() ){
+                    continue;
+                }
+                inTopObject = false;
+                if( topIsFeature ){
+                    return true;
+                }
+            }
+
+            int c = skipWhitespace();
+            while( c == RECORD_SEPARATOR ){
+                pos++;
+                c = skipWhitespace();
+            }
+            if( c < 0 ){
+                return false;
+            }
+            expect( '{' );
+            resetFeature();
+            inTopObject = true;
+            firstTopMember = true;
+            topIsFeature = false;
+        }
+    }
+
+    /**
+     * @return the feature's id, numbers as written in the input, or null if it has none
+     */
+    public String getId(){
+        return id;
+    }
+
+    /**
+     * @return the GeoJSON type of the feature's geometry, or null if the geometry is null
+     */
+    public String getGeometryType(){
+        return geometryType;
+    }
+
+    /**
+     * @return number of vertices of the line to encode
+     */
+    public int getNumPoints(){
+        return numPoints;
+    }
+
+    public double getX( int index ){
+        checkIndex( index );
+        return scratch.xs[ index ];
+    }
+
+    public double getY( int index ){
+        checkIndex( index );
+        return scratch.ys[ index ];
+    }
+
+    /**
+     * @return the working arrays holding the coordinates of the current feature
+     */
+    EncoderScratch scratch(){
+        return scratch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkIndex( int index ){
+        if( index < 0 || index >= numPoints ){
+            throw new IndexOutOfBoundsException( "Vertex " + index + " of " + numPoints );
+        }
+    }
+
+    private void resetFeature(){
+        id = null;
+        geometryType = null;
+        numPoints = 0;
+        positionDepth = 0;
+    }
+
+    /**
+     * Reads top level members up to the features array or the end of the object. A
+     * "type": "Feature" member makes the top level object a feature itself.
+     *
+     * @return true when the features array was entered, false at the end of the object
+     */
+    private boolean readTopMembers() throws IOException, ParseException {
+        while( true ){
+            int c = skipWhitespace();
+            if( c == '}' ){
+                pos++;
+                return false;
+            }
+            if( !firstTopMember ){
+                expect( ',' );
+            }
+            firstTopMember = false;
+            String key = readKey();
+            if( key.equals( "features" ) ){
+                skipWhitespace();
+                expect( '[' );
+                inFeatures = true;
+                firstFeature = true;
+                return true;
+            }
+            if( key.equals( "type" ) ){
+                topIsFeature = "Feature".equals( readStringOrNull() );
+            } else {
+                readFeatureMember( key );
+            }
+        }
+    }
+
+    /**
+     * Reads the members of an object whose opening brace was consumed, up to and
+     * including the closing brace.
+     *
+     * @param geometry whether the object is a geometry rather than a feature
+     */
+    private void readObjectMembers( boolean geometry ) throws IOException, ParseException {
+        if( skipWhitespace() == '}' ){
+            pos++;
+            return;
+        }
+        while( true ){
+            String key = readKey();
+            if( geometry ){
+                readGeometryMember( key );
+            } else {
+                readFeatureMember( key );
+            }
+            skipWhitespace();
+            int c = read();
+            if( c == '}' ){
+                return;
+            }
+            if( c != ',' ){
+                throw parseError( "Expected ',' or '}'", c );
+            }
+        }
+    }
+
+    private void readFeatureMember( String key ) throws IOException, ParseException {
+        if( key.equals( "id" ) ){
+            int c = skipWhitespace();
+            if( c == '"' ){
+                id = readString();
+            } else if( c == '-' || ( c >= '0' && c <= '9' ) ){
+                readNumberText();
+                id = new String( text, 0, textLength, StandardCharsets.US_ASCII );
+            } else {
+                skipValue();
+            }
+        } else if( key.equals( "geometry" ) ){
+            int c = skipWhitespace();
+            if( c == '{' ){
+                pos++;
+                numPoints = 0;
+                positionDepth = 0;
+                readObjectMembers( true );
+                checkPositionDepth();
+            } else {
+                skipValue();
+            }
+        } else {
+            skipValue();
+        }
+    }
+
+    private void readGeometryMember( String key ) throws IOException, ParseException {
+        if( key.equals( "type" ) ){
+            geometryType = readStringOrNull();
+        } else if( key.equals( "coordinates" ) ){
+            skipWhitespace();
+            expect( '[' );
+            readArray( 1, true, false );
+        } else {
+            skipValue();
+        }
+    }
+
+    private void checkPositionDepth() throws ParseException {
+        if( geometryType == null || positionDepth == 0 ){
+            return;
+        }
+        int expected;
+        switch( geometryType ){
+            case "Point": expected = 1; break;
+            case "LineString": case "MultiPoint": expected = 2; break;
+            case "Polygon": case "MultiLineString": expected = 3; break;
+            case "MultiPolygon": expected = 4; break;
+            default: return;
+        }
+        if( positionDepth != expected ){
+            throw new ParseException( "Coordinates of a " + geometryType + " nested " + positionDepth + " deep" );
+        }
+    }
+
+    /**
+     * Reads a coordinates array whose opening bracket was consumed. Positions are recorded
+     * when their parent array is the first at every level above it.
+     *
+     * @param first whether this array is the first element at every level above it
+     * @param record whether this array is to be recorded if it is a position
+     */
+    private void readArray( int depth, boolean first, boolean record ) throws IOException, ParseException {
+        int c = skipWhitespace();
+        if( c == ']' ){
+            pos++;
+            return;
+        }
+        if( c != '[' ){
+            readPosition( depth, record );
+            return;
+        }
+        for( int index = 0; ; index++ ){
+            skipWhitespace();
+            expect( '[' );
+            readArray( depth + 1, first && index == 0, first );
+            skipWhitespace();
+            c = read();
+            if( c == ']' ){
+                return;
+            }
+            if( c != ',' ){
+                throw parseError( "Expected ',' or ']'", c );
+            }
+        }
+    }
+
+    /**
+     * Reads the numbers of a position up to and including its closing bracket.
+     */
+    private void readPosition( int depth, boolean record ) throws IOException, ParseException {
+        if( positionDepth == 0 ){
+            positionDepth = depth;
+        } else if( positionDepth != depth ){
+            throw new ParseException( "Positions nested at different depths at byte " + position() );
+        }
+        double x = readNumber();
+        skipWhitespace();
+        expect( ',' );
+        skipWhitespace();
+        double y = readNumber();
+        int c = skipWhitespace();
+        while( c == ',' ){
+            pos++;
+            skipWhitespace();
+            readNumber();
+            c = skipWhitespace();
+        }
+        expect( ']' );
+        if( record ){
+            scratch.ensureCapacity( numPoints + 1 );
+            scratch.xs[ numPoints ] = x;
+            scratch.ys[ numPoints ] = y;
+            numPoints++;
+        }
+    }
+
+    private double readNumber() throws IOException, ParseException {
+        readNumberText();
+        byte[] t = text;
+        int length = textLength;
+        int i = 0;
+        boolean negative = t[0] == '-';
+        if( negative ){
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        int numDigits = 0;
+        boolean fraction = false;
+        for( ; i < length; i++ ){
+            byte c = t[i];
+            if( c >= '0' && c <= '9' ){
+                numDigits++;
+                if( mantissa != 0 || c != '0' ){
+                    significantDigits++;
+                }
+                if( significantDigits <= WktCoordinateReader.MAX_EXACT_DIGITS ){
+                    mantissa = mantissa * 10 + ( c - '0' );
+                    if( fraction ){
+                        scale--;
+                    }
+                }
+            } else if( c == '.' && !fraction ){
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if( numDigits == 0 ){
+            throw new ParseException( "Invalid number " + textString() + " at byte " + position() );
+        }
+
+        int exp = 0;
+        if( i < length && ( t[i] == 'e' || t[i] == 'E' ) ){
+            i++;
+            boolean negativeExp = false;
+            if( i < length && ( t[i] == '-' || t[i] == '+' ) ){
+                negativeExp = t[i] == '-';
+                i++;
+            }
+            int expDigits = 0;
+            for( ; i < length && t[i] >= '0' && t[i] <= '9'; i++ ){
+                if( exp < 100000 ){
+                    exp = exp * 10 + ( t[i] - '0' );
+                }
+                expDigits++;
+            }
+            if( expDigits == 0 ){
+                throw new ParseException( "Malformed exponent in " + textString() + " at byte " + position() );
+            }
+            if( negativeExp ){
+                exp = -exp;
+            }
+        }
+        if( i != length ){
+            throw new ParseException( "Invalid number " + textString() + " at byte " + position() );
+        }
+
+        if( significantDigits <= WktCoordinateReader.MAX_EXACT_DIGITS ){
+            // same exact fast path as the WKT reader
+            int e = scale + exp;
+            double value;
+            if( mantissa == 0 ){
+                value = 0.0;
+            } else if( e >= 0 && e < WktCoordinateReader.POWERS_OF_TEN.length ){
+                value = mantissa * WktCoordinateReader.POWERS_OF_TEN[e];
+            } else if( e < 0 && -e < WktCoordinateReader.POWERS_OF_TEN.length ){
+                value = mantissa / WktCoordinateReader.POWERS_OF_TEN[-e];
+            } else {
+                return Double.parseDouble( textString() );
+            }
+            return negative ? -value : value;
+        }
+        return Double.parseDouble( textString() );
+    }
+
+    /**
+     * Reads the characters of a number into text.
+     */
+    private void readNumberText() throws IOException, ParseException {
+        textLength = 0;
+        while( true ){
+            int c = peek();
+            if( ( c >= '0' && c <= '9' ) || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' ){
+                appendText( (byte) c );
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if( textLength == 0 ){
+            throw parseError( "Expected a number", peek() );
+        }
+    }
+
+    private String readKey() throws IOException, ParseException {
+        skipWhitespace();
+        String key = readString();
+        skipWhitespace();
+        expect( ':' );
+        return key;
+    }
+
+    private String readStringOrNull() throws IOException, ParseException {
+        if( skipWhitespace() == '"' ){
+            return readString();
+        }
+        skipValue();
+        return null;
+    }
+
+    /**
+     * Reads a string, decoding UTF-8 and escapes.
+     */
+    private String readString() throws IOException, ParseException {
+        expect( '"' );
+        textLength = 0;
+        boolean escaped = false;
+        while( true ){
+            int c = read();
+            if( c < 0 ){
+                throw parseError( "Unterminated string", c );
+            }
+            if( c == '"' ){
+                break;
+            }
+            appendText( (byte) c );
+            if( c == '\\' ){
+                escaped = true;
+                c = read();
+                if( c < 0 ){
+                    throw parseError( "Unterminated string", c );
+                }
+                appendText( (byte) c );
+            }
+        }
+        String s = new String( text, 0, textLength, StandardCharsets.UTF_8 );
+        return escaped ? unescape( s ) : s;
+    }
+
+    private String unescape( String s ) throws ParseException {
+        StringBuilder sb = new StringBuilder( s.length() );
+        for( int i = 0; i < s.length(); i++ ){
+            char c = s.charAt( i );
+            if( c != '\\' ){
+                sb.append( c );
+                continue;
+            }
+            char e = s.charAt( ++i );
+            switch( e ){
+                case '"': case '\\': case '/': sb.append( e ); break;
+                case 'b': sb.append( '\b' ); break;
+                case 'f': sb.append( '\f' ); break;
+                case 'n': sb.append( '\n' ); break;
+                case 'r': sb.append( '\r' ); break;
+                case 't': sb.append( '\t' ); break;
+                case 'u':
+                    if( i + 4 >= s.length() ){
+                        throw new ParseException( "Malformed unicode escape in string at byte " + position() );
+                    }
+                    try {
+                        sb.append( (char) Integer.parseInt( s.substring( i + 1, i + 5 ), 16 ) );
+                    } catch( NumberFormatException ex ){
+                        throw new ParseException( "Malformed unicode escape in string at byte " + position() );
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new ParseException( "Invalid escape \\" + e + " in string at byte " + position() );
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips any value, checking only that brackets balance and strings are terminated.
+     */
+    private void skipValue() throws IOException, ParseException {
+        int c = skipWhitespace();
+        if( c == '"' ){
+            skipString();
+            return;
+        }
+        if( c != '{' && c != '[' ){
+            int length = 0;
+            while( ( c = peek() ) > ' ' && c != ',' && c != '}' && c != ']' ){
+                pos++;
+                length++;
+            }
+            if( length == 0 ){
+                throw parseError( "Expected a value", c );
+            }
+            return;
+        }
+        int depth = 0;
+        do {
+            c = read();
+            if( c < 0 ){
+                throw parseError( "Unterminated value", c );
+            } else if( c == '"' ){
+                pos--;
+                skipString();
+            } else if( c == '{' || c == '[' ){
+                depth++;
+            } else if( c == '}' || c == ']' ){
+                depth--;
+            }
+        } while( depth > 0 );
+    }
+
+    private void skipString() throws IOException, ParseException {
+        expect( '"' );
+        while( true ){
+            int c = read();
+            if( c < 0 ){
+                throw parseError( "Unterminated string", c );
+            }
+            if( c == '"' ){
+                return;
+            }
+            if( c == '\\' ){
+                read();
+            }
+        }
+    }
+
+    private void appendText( byte b ){
+        if( textLength == text.length ){
+            text = Arrays.copyOf( text, textLength << 1 );
+        }
+        text[ textLength++ ] = b;
+    }
+
+    private String textString(){
+        return new String( text, 0, textLength, StandardCharsets.UTF_8 );
+    }
+
+    private void expect( char expected ) throws IOException, ParseException {
+        int c = peek();
+        if( c != expected ){
+            throw parseError( "Expected '" + expected + "'", c );
+        }
+        pos++;
+    }
+
+    /**
+     * @return the next byte that is not whitespace, without consuming it, or -1 at the end
+     */
+    private int skipWhitespace() throws IOException {
+        while( true ){
+            int c = peek();
+            if( c != ' ' && c != '\n' && c != '\r' && c != '\t' ){
+                return c;
+            }
+            pos++;
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if( c >= 0 ){
+            pos++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if( pos == limit && !fill() ){
+            return -1;
+        }
+        return buf[ pos ] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read( buffer );
+        } while( n == 0 );
+        if( n < 0 ){
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private long position(){
+        return bufferOffset + pos;
+    }
+
+    private ParseException parseError( String message, int found ){
+        return new ParseException( message + " but found " + ( found < 0 ? "end of input" : "'" + (char) found + "'" ) + " at byte " + position() );
+    }
+}
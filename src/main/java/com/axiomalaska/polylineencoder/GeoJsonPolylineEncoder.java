@@ -0,0 +1,92 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Converts GeoJSON files of any size to encoded polylines, streaming features through a
+ * {@link GeoJsonFeatureReader} straight into the encoder with one set of working arrays,
+ * so memory does not grow with the file.
+ *
+ * Each LineString or Polygon feature becomes one line of UTF-8 output:
+ * <pre>id TAB points TAB levels LF</pre>
+ * The id is empty if the feature has none; tabs, line breaks and backslashes in it are
+ * written as \t, \n, \r and \\. Features without a LineString or Polygon geometry, or
+ * whose line cannot be encoded (an unclosed ring, a single point), are skipped.
+ */
+public final class GeoJsonPolylineEncoder {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private GeoJsonPolylineEncoder() {
+    }
+
+    /**
+     * Encodes every feature of a GeoJSON file.
+     *
+     * @param out receives one line per encoded feature; flushed but not closed
+     * @return number of features written
+     * @throws ParseException if the input is not GeoJSON
+     */
+    public static long encode( Path geoJson, OutputStream out, PolylineEncoderSettings settings ) throws IOException, ParseException {
+        try( GeoJsonFeatureReader reader = GeoJsonFeatureReader.open( geoJson ) ){
+            return encode( reader, out, settings );
+        }
+    }
+
+    /**
+     * Encodes every feature read from a channel, which is not closed.
+     *
+     * @see #encode(Path, OutputStream, PolylineEncoderSettings)
+     */
+    public static long encode( ReadableByteChannel geoJson, OutputStream out, PolylineEncoderSettings settings ) throws IOException, ParseException {
+        return encode( new GeoJsonFeatureReader( geoJson ), out, settings );
+    }
+
+    private static long encode( GeoJsonFeatureReader reader, OutputStream out, PolylineEncoderSettings settings ) throws IOException, ParseException {
+        ImmutablePolylineEncoderSettings immutable = ImmutablePolylineEncoderSettings.of( settings );
+        EncoderScratch scratch = reader.scratch();
+        AsciiSink.Builder points = new AsciiSink.Builder( 1024 );
+        AsciiSink.Builder levels = new AsciiSink.Builder( 256 );
+        OutputStream buffered = new BufferedOutputStream( out, OUTPUT_BUFFER_SIZE );
+        long numWritten = 0;
+        while( reader.next() ){
+            String type = reader.getGeometryType();
+            boolean polygon = "Polygon".equals( type );
+            if( !polygon && !"LineString".equals( type ) ){
+                continue;
+            }
+            int numPoints = reader.getNumPoints();
+            try {
+                PolylineEncoder.checkLineToEncode( scratch.xs, scratch.ys, numPoints, polygon );
+            } catch( IllegalArgumentException e ){
+                continue;
+            }
+
+            points.clear();
+            levels.clear();
+            PolylineEncoder.encode( scratch.xs, scratch.ys, numPoints, immutable.settings(), immutable.levelLookup(), scratch.clearDists( numPoints ), scratch.stack, points, levels, 0 );
+            writeId( reader.getId(), buffered );
+            buffered.write( '\t' );
+            points.writeTo( buffered );
+            buffered.write( '\t' );
+            levels.writeTo( buffered );
+            buffered.write( '\n' );
+            numWritten++;
+        }
+        buffered.flush();
+        return numWritten;
+    }
+
+    private static void writeId( String id, OutputStream out ) throws IOException {
+        if( id == null ){
+            return;
+        }
+        out.write( id.replace( "\\", "\\\\" ).replace( "\t", "\\t" ).replace( "\n", "\\n" ).replace( "\r", "\\r" ).getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
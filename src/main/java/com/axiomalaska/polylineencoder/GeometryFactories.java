@@ -0,0 +1,26 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+/**
+ * Shared floating precision GeometryFactory per SRID. GeometryFactory is immutable, so
+ * one instance per SRID can be used from any thread.
+ */
+final class GeometryFactories {
+    private static final ConcurrentMap<Integer, GeometryFactory> FACTORIES = new ConcurrentHashMap<Integer, GeometryFactory>();
+
+    private GeometryFactories() {
+    }
+
+    static GeometryFactory forSrid( int srid ){
+        GeometryFactory geomFactory = FACTORIES.get( srid );
+        if( geomFactory == null ){
+            geomFactory = FACTORIES.computeIfAbsent( srid, s -> new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), s ) );
+        }
+        return geomFactory;
+    }
+}
@@ -0,0 +1,135 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Validated, unmodifiable copy of {@link PolylineEncoderSettings}, used to build a
+ * {@link ReusablePolylineEncoder}. Safe to share between threads.
+ */
+public final class ImmutablePolylineEncoderSettings {
+    public static final ImmutablePolylineEncoderSettings DEFAULT = of( new PolylineEncoderSettings() );
+
+    //private copy, never modified or handed out
+    private final PolylineEncoderSettings settings;
+    private final LevelLookup levelLookup;
+
+    private ImmutablePolylineEncoderSettings( PolylineEncoderSettings settings ) {
+        this.settings = settings;
+        this.levelLookup = LevelLookup.of( settings );
+    }
+
+    /**
+     * Copies and validates settings.
+     *
+     * @throws IllegalArgumentException if numLevels or zoomFactor is not positive,
+     * verySmall, the parallel threshold or a break is negative or NaN, there is not
+     * one break per level, the last break is above verySmall (which would leave
+     * significant vertices without a level), no simplification strategy is set, or the
+     * precision is not between 1 and 6
+     */
+    public static ImmutablePolylineEncoderSettings of( PolylineEncoderSettings settings ){
+        int numLevels = settings.getNumLevels();
+        if( numLevels < 1 ){
+            throw new IllegalArgumentException( "numLevels must be positive, was " + numLevels );
+        }
+        PolylineEncoderSettings copy = copy( settings );
+        if( copy.getZoomFactor() < 1 ){
+            throw new IllegalArgumentException( "zoomFactor must be positive, was " + copy.getZoomFactor() );
+        }
+        if( !( copy.getVerySmall() >= 0 ) ){
+            throw new IllegalArgumentException( "verySmall must not be negative, was " + copy.getVerySmall() );
+        }
+        if( copy.getParallelThreshold() < 0 ){
+            throw new IllegalArgumentException( "parallelThreshold must not be negative, was " + copy.getParallelThreshold() );
+        }
+        if( copy.getSimplificationStrategy() == null ){
+            throw new IllegalArgumentException( "simplificationStrategy must be set" );
+        }
+        if( Double.isNaN( copy.getPrefilterDistance() ) ){
+            throw new IllegalArgumentException( "prefilterDistance must not be NaN" );
+        }
+        PointsKernel.scale( copy.getPrecision() );
+        double[] breaks = copy.getZoomLevelBreaks();
+        if( breaks == null || breaks.length != numLevels ){
+            throw new IllegalArgumentException( "expected " + numLevels + " zoom level breaks, got " + ( breaks == null ? 0 : breaks.length ) );
+        }
+        for( double b : breaks ){
+            if( !( b >= 0 ) ){
+                throw new IllegalArgumentException( "zoom level breaks must not be negative or NaN, got " + b );
+            }
+        }
+        if( breaks[ numLevels - 1 ] > copy.getVerySmall() ){
+            throw new IllegalArgumentException( "last zoom level break " + breaks[ numLevels - 1 ] + " is above verySmall " + copy.getVerySmall() );
+        }
+        return new ImmutablePolylineEncoderSettings( copy );
+    }
+
+    static PolylineEncoderSettings copy( PolylineEncoderSettings settings ){
+        PolylineEncoderSettings copy = new PolylineEncoderSettings( settings.getNumLevels(), settings.getZoomFactor(), settings.getVerySmall(), settings.isForceEndpoints() );
+        copy.setZoomLevelBreaks( settings.getZoomLevelBreaks() == null ? null : settings.getZoomLevelBreaks().clone() );
+        copy.setParallelThreshold( settings.getParallelThreshold() );
+        copy.setSimplificationStrategy( settings.getSimplificationStrategy() );
+        copy.setPrefilterDistance( settings.getPrefilterDistance() );
+        copy.setPrecision( settings.getPrecision() );
+        return copy;
+    }
+
+    /**
+     * @return a new mutable copy, for the static {@link PolylineEncoder} methods
+     */
+    public PolylineEncoderSettings toSettings(){
+        return copy( settings );
+    }
+
+    public int getNumLevels() {
+        return settings.getNumLevels();
+    }
+
+    public int getZoomFactor() {
+        return settings.getZoomFactor();
+    }
+
+    public double getVerySmall() {
+        return settings.getVerySmall();
+    }
+
+    public boolean isForceEndpoints() {
+        return settings.isForceEndpoints();
+    }
+
+    public int getParallelThreshold() {
+        return settings.getParallelThreshold();
+    }
+
+    public SimplificationStrategy getSimplificationStrategy() {
+        return settings.getSimplificationStrategy();
+    }
+
+    public double getPrefilterDistance() {
+        return settings.getPrefilterDistance();
+    }
+
+    public int getPrecision() {
+        return settings.getPrecision();
+    }
+
+    /**
+     * @return a copy of the zoom level breaks
+     */
+    public double[] getZoomLevelBreaks() {
+        return settings.getZoomLevelBreaks().clone();
+    }
+
+    /**
+     * @return the level a vertex with this significance is encoded at
+     */
+    public int getLevel( double significance ){
+        return settings.getNumLevels() - levelLookup.computeLevel( significance ) - 1;
+    }
+
+    PolylineEncoderSettings settings(){
+        return settings;
+    }
+
+    LevelLookup levelLookup(){
+        return levelLookup;
+    }
+}
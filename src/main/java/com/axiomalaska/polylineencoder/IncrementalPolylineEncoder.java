@@ -0,0 +1,247 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+
+/**
+ * Append-only encoder for lines that grow over time, such as live GPS tracks. Appended
+ * coordinates are encoded against the running lat/lng delta state, so the points string
+ * is extended without re-encoding what was already written.
+ *
+ * Without a window every appended vertex is written straight away at the highest level,
+ * like {@link PolylineEncoder#dumbEncode(org.locationtech.jts.geom.Geometry)}. With a
+ * window the track is simplified online: new vertices are held back until windowSize of
+ * them (counting the last written vertex) are pending, then the configured simplification
+ * runs over the window and the vertices it keeps are written with their levels, up to the
+ * last kept interior vertex, which anchors the next window. If nothing inside a full
+ * window is kept, its last vertex is written at level 0 so memory stays bounded. Pending
+ * vertices are simplified on the fly whenever a snapshot is taken.
+ *
+ * Instances are not thread-safe.
+ */
+public final class IncrementalPolylineEncoder {
+    private final PolylineEncoderSettings settings;
+    private final int windowSize;
+    private final double scale;
+    private final AsciiSink.Builder points = new AsciiSink.Builder( 256 );
+    private final AsciiSink.Builder levels = new AsciiSink.Builder( 64 );
+    private int plat;
+    private int plng;
+    private int numAppended;
+    private int numWritten;
+
+    //pending vertices; index 0 is the last written vertex
+    private double[] windowXs;
+    private double[] windowYs;
+    private double[] dists;
+    private IntStack stack;
+    private int windowCount;
+
+    /**
+     * Creates an encoder that writes every appended vertex.
+     */
+    public IncrementalPolylineEncoder() {
+        this( new PolylineEncoderSettings(), 0 );
+    }
+
+    /**
+     * @param settings levels and simplification settings; the prefilter is not used
+     * @param windowSize maximum number of pending vertices, at least 3, or 0 to write every
+     * vertex without simplification
+     */
+    public IncrementalPolylineEncoder( PolylineEncoderSettings settings, int windowSize ) {
+        if( windowSize != 0 && windowSize < 3 ){
+            throw new IllegalArgumentException( "windowSize must be 0 or at least 3, was " + windowSize );
+        }
+        this.settings = settings;
+        this.windowSize = windowSize;
+        this.scale = PointsKernel.scale( settings.getPrecision() );
+        if( windowSize > 0 ){
+            windowXs = new double[ windowSize ];
+            windowYs = new double[ windowSize ];
+            dists = new double[ windowSize ];
+            stack = new IntStack();
+        }
+    }
+
+    /**
+     * Appends one vertex.
+     *
+     * @param x longitude
+     * @param y latitude
+     */
+    public void append( double x, double y ){
+        numAppended++;
+        if( windowSize == 0 ){
+            write( x, y, settings.getNumLevels() - 1 );
+            return;
+        }
+        if( numWritten == 0 ){
+            write( x, y, endpointLevel( 0 ) );
+            windowXs[ 0 ] = x;
+            windowYs[ 0 ] = y;
+            windowCount = 1;
+            return;
+        }
+        windowXs[ windowCount ] = x;
+        windowYs[ windowCount ] = y;
+        windowCount++;
+        if( windowCount == windowSize ){
+            flushWindow();
+        }
+    }
+
+    /**
+     * Appends numPoints vertices from parallel longitude and latitude arrays.
+     */
+    public void append( double[] xs, double[] ys, int numPoints ){
+        for( int i = 0; i < numPoints; i++ ){
+            append( xs[i], ys[i] );
+        }
+    }
+
+    public void append( CoordinateSequence seq ){
+        for( int i = 0, n = seq.size(); i < n; i++ ){
+            append( seq.getX( i ), seq.getY( i ) );
+        }
+    }
+
+    /**
+     * Writes the pending vertices the simplification keeps, and the last appended vertex,
+     * so that they become part of the prefix. Later appends continue from the last vertex.
+     */
+    public void flush(){
+        if( windowCount < 2 ){
+            return;
+        }
+        int last = windowCount - 1;
+        double absMaxDist = simplifyWindow( dists );
+        writeKept( last - 1 );
+        write( windowXs[ last ], windowYs[ last ], endpointLevel( absMaxDist ) );
+        windowXs[ 0 ] = windowXs[ last ];
+        windowYs[ 0 ] = windowYs[ last ];
+        windowCount = 1;
+    }
+
+    public int getNumAppended(){
+        return numAppended;
+    }
+
+    /**
+     * @return number of vertices in the written prefix
+     */
+    public int getNumWritten(){
+        return numWritten;
+    }
+
+    /**
+     * @return length of the points prefix that later appends will no longer change
+     */
+    public int getWrittenPointsLength(){
+        return points.length();
+    }
+
+    /**
+     * @return the written prefix followed by the simplified pending vertices
+     */
+    public EncodedPolyline toEncodedPolyline(){
+        AsciiSink.Builder snapshotPoints = points.copy( windowCount * 8 );
+        AsciiSink.Builder snapshotLevels = levels.copy( windowCount );
+        writePending( snapshotPoints, snapshotLevels );
+        EncodedPolyline encodedPolyline = new EncodedPolyline();
+        encodedPolyline.setPoints( snapshotPoints.toString() );
+        encodedPolyline.setLevels( snapshotLevels.toString() );
+        return encodedPolyline;
+    }
+
+    /**
+     * Like {@link #toEncodedPolyline()}, as a {@link CompactPolyline}.
+     */
+    public CompactPolyline toCompactPolyline(){
+        AsciiSink.Builder snapshotPoints = points.copy( windowCount * 8 );
+        AsciiSink.Builder snapshotLevels = levels.copy( windowCount );
+        writePending( snapshotPoints, snapshotLevels );
+        return CompactPolyline.of( snapshotPoints, snapshotLevels );
+    }
+
+    /**
+     * Simplifies a full window, writes the kept vertices up to the last kept interior one
+     * and slides the window so that vertex becomes its anchor.
+     */
+    private void flushWindow(){
+        int last = windowCount - 1;
+        simplifyWindow( dists );
+        int anchor = last - 1;
+        while( anchor > 0 && dists[ anchor ] == 0 ){
+            anchor--;
+        }
+        if( anchor == 0 ){
+            write( windowXs[ last ], windowYs[ last ], 0 );
+            anchor = last;
+        } else {
+            writeKept( anchor );
+        }
+        windowCount -= anchor;
+        System.arraycopy( windowXs, anchor, windowXs, 0, windowCount );
+        System.arraycopy( windowYs, anchor, windowYs, 0, windowCount );
+    }
+
+    private double simplifyWindow( double[] windowDists ){
+        Arrays.fill( windowDists, 0, windowCount, 0 );
+        return PolylineEncoder.simplify( windowXs, windowYs, windowCount, settings, windowDists, stack );
+    }
+
+    /**
+     * Writes the window vertices in [1, end] that the simplification kept.
+     */
+    private void writeKept( int end ){
+        for( int i = 1; i <= end; i++ ){
+            if( dists[i] != 0 ){
+                write( windowXs[i], windowYs[i], settings.getNumLevels() - PolylineEncoder.computeLevel( settings, dists[i] ) - 1 );
+            }
+        }
+    }
+
+    private void write( double x, double y, int level ){
+        int lat = PointsKernel.quantize( y, scale );
+        int lng = PointsKernel.quantize( x, scale );
+        points.writeSignedPair( lat - plat, lng - plng );
+        plat = lat;
+        plng = lng;
+        levels.writeNumber( level );
+        numWritten++;
+    }
+
+    /**
+     * Encodes the pending vertices after the written prefix without changing any state.
+     */
+    private void writePending( AsciiSink pendingPoints, AsciiSink pendingLevels ){
+        if( windowCount < 2 ){
+            return;
+        }
+        double[] pendingDists = new double[ windowCount ];
+        double absMaxDist = simplifyWindow( pendingDists );
+        int lat = plat;
+        int lng = plng;
+        for( int i = 1; i < windowCount; i++ ){
+            boolean end = i == windowCount - 1;
+            if( pendingDists[i] != 0 || end ){
+                int late5 = PointsKernel.quantize( windowYs[i], scale );
+                int lnge5 = PointsKernel.quantize( windowXs[i], scale );
+                pendingPoints.writeSignedPair( late5 - lat, lnge5 - lng );
+                lat = late5;
+                lng = lnge5;
+                pendingLevels.writeNumber( end ? endpointLevel( absMaxDist )
+                    : settings.getNumLevels() - PolylineEncoder.computeLevel( settings, pendingDists[i] ) - 1 );
+            }
+        }
+    }
+
+    private int endpointLevel( double absMaxDist ){
+        if( settings.isForceEndpoints() ){
+            return settings.getNumLevels() - 1;
+        }
+        return settings.getNumLevels() - PolylineEncoder.computeLevel( settings, absMaxDist ) - 1;
+    }
+}
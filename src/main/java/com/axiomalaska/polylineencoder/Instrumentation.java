@@ -0,0 +1,117 @@
+package com.axiomalaska.polylineencoder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Holds the registered {@link MetricsListener} and the JDK Flight Recorder events.
+ * Callers check {@link EncodeEvent#isEnabled()} and the listener first, and only take
+ * timestamps when one of them wants the result.
+ */
+final class Instrumentation {
+    static volatile MetricsListener listener = MetricsListener.NO_OP;
+
+    private Instrumentation() {
+    }
+
+    static boolean isEnabled( Event event ){
+        return listener != MetricsListener.NO_OP || event.isEnabled();
+    }
+
+    static void encoded( EncodeEvent event, int inputVertices, int outputVertices, long parseNanos, long simplifyNanos, long pointsNanos, long levelsNanos, long pointsBytes, long levelsBytes ){
+        MetricsListener l = listener;
+        if( l != MetricsListener.NO_OP ){
+            l.encoded( new EncodeMetrics( inputVertices, outputVertices, parseNanos, simplifyNanos, pointsNanos, levelsNanos, pointsBytes, levelsBytes ) );
+        }
+        if( event.shouldCommit() ){
+            event.inputVertices = inputVertices;
+            event.outputVertices = outputVertices;
+            event.parseTime = parseNanos;
+            event.simplifyTime = simplifyNanos;
+            event.pointsTime = pointsNanos;
+            event.levelsTime = levelsNanos;
+            event.pointsBytes = pointsBytes;
+            event.levelsBytes = levelsBytes;
+            event.commit();
+        }
+    }
+
+    static void reprojected( ReprojectEvent event, int fromSrid, int toSrid, int numVertices, long lookupNanos, long transformNanos ){
+        MetricsListener l = listener;
+        if( l != MetricsListener.NO_OP ){
+            l.reprojected( fromSrid, toSrid, numVertices, lookupNanos, transformNanos );
+        }
+        if( event.shouldCommit() ){
+            event.fromSrid = fromSrid;
+            event.toSrid = toSrid;
+            event.vertices = numVertices;
+            event.lookupTime = lookupNanos;
+            event.transformTime = transformNanos;
+            event.commit();
+        }
+    }
+
+    @Name( "com.axiomalaska.polylineencoder.Encode" )
+    @Label( "Polyline Encode" )
+    @Category( "Polyline Encoder" )
+    @Description( "Simplification and encoding of one line" )
+    static final class EncodeEvent extends Event {
+        @Label( "Input Vertices" )
+        int inputVertices;
+
+        @Label( "Output Vertices" )
+        int outputVertices;
+
+        @Label( "Parse Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long parseTime;
+
+        @Label( "Simplify Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long simplifyTime;
+
+        @Label( "Points Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long pointsTime;
+
+        @Label( "Levels Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long levelsTime;
+
+        @Label( "Points Size" )
+        @DataAmount
+        long pointsBytes;
+
+        @Label( "Levels Size" )
+        @DataAmount
+        long levelsBytes;
+    }
+
+    @Name( "com.axiomalaska.polylineencoder.Reproject" )
+    @Label( "Geometry Reprojection" )
+    @Category( "Polyline Encoder" )
+    @Description( "Reprojection of one geometry between EPSG codes" )
+    static final class ReprojectEvent extends Event {
+        @Label( "Source SRID" )
+        int fromSrid;
+
+        @Label( "Target SRID" )
+        int toSrid;
+
+        @Label( "Vertices" )
+        int vertices;
+
+        @Label( "Transform Lookup Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long lookupTime;
+
+        @Label( "Transform Time" )
+        @Timespan( Timespan.NANOSECONDS )
+        long transformTime;
+    }
+}
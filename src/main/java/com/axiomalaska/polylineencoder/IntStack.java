@@ -0,0 +1,39 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of primitive ints, used in place of <code>Stack&lt;int[]&gt;</code>
+ * so that pushing a [start, end] range does not allocate.
+ */
+final class IntStack {
+    private int[] values;
+    private int size;
+
+    IntStack() {
+        this( 64 );
+    }
+
+    IntStack( int initialCapacity ) {
+        values = new int[ Math.max( initialCapacity, 2 ) ];
+    }
+
+    void push( int value ) {
+        if( size == values.length ){
+            values = Arrays.copyOf( values, size << 1 );
+        }
+        values[ size++ ] = value;
+    }
+
+    int pop() {
+        return values[ --size ];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Constant time version of {@link PolylineEncoder#computeLevel(PolylineEncoderSettings, double)}.
+ *
+ * The default breaks are verySmall * zoomFactor^(numLevels - i - 1), so the level of a
+ * distance can be estimated from its logarithm in base zoomFactor. The estimate is then
+ * corrected against the breaks themselves, which gives exactly the result of the linear
+ * scan for any non-increasing breaks; other breaks fall back to the scan.
+ */
+final class LevelLookup {
+    private final double[] breaks;
+    private final double verySmall;
+    //1 / ln(zoomFactor), or 0 to scan
+    private final double inverseLogZoomFactor;
+
+    private LevelLookup( double[] breaks, double verySmall, int zoomFactor ) {
+        this.breaks = breaks;
+        this.verySmall = verySmall;
+        this.inverseLogZoomFactor = zoomFactor > 1 && verySmall > 0 && isNonIncreasing( breaks ) ? 1 / Math.log( zoomFactor ) : 0;
+    }
+
+    /**
+     * The lookup reads the settings' breaks array, which must not change while it is used.
+     */
+    static LevelLookup of( PolylineEncoderSettings settings ){
+        return new LevelLookup( settings.getZoomLevelBreaks(), settings.getVerySmall(), settings.getZoomFactor() );
+    }
+
+    int computeLevel( double absMaxDist ){
+        if( !( absMaxDist > verySmall ) ){
+            return 0;
+        }
+        double[] b = breaks;
+        int lev = 0;
+        if( inverseLogZoomFactor != 0 ){
+            int last = b.length - 1;
+            double estimate = Math.ceil( last - Math.log( absMaxDist / verySmall ) * inverseLogZoomFactor );
+            lev = estimate <= 0 ? 0 : estimate >= last ? last : (int) estimate;
+            while( lev > 0 && absMaxDist >= b[ lev - 1 ] ){
+                lev--;
+            }
+        }
+        while( absMaxDist < b[lev] ){
+            lev++;
+        }
+        return lev;
+    }
+
+    private static boolean isNonIncreasing( double[] breaks ){
+        if( breaks == null || breaks.length == 0 ){
+            return false;
+        }
+        for( int i = 0; i < breaks.length; i++ ){
+            if( Double.isNaN( breaks[i] ) || ( i > 0 && breaks[i] > breaks[ i - 1 ] ) ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Receives measurements from {@link PolylineEncoder} and {@link Reprojector}. Register one
+ * with {@link PolylineEncoder#setMetricsListener(MetricsListener)}. Callbacks run on the
+ * encoding thread, so implementations must be thread-safe and quick (e.g. increment
+ * counters or record into histograms).
+ *
+ * While the listener is {@link #NO_OP} and the JFR events are not being recorded, nothing
+ * is timed or allocated for metrics.
+ */
+public interface MetricsListener {
+    MetricsListener NO_OP = new MetricsListener() {
+    };
+
+    /**
+     * Called once per encoded line (once per part for multi-part encodes).
+     */
+    default void encoded( EncodeMetrics metrics ){
+    }
+
+    /**
+     * Called once per reprojected geometry.
+     *
+     * @param lookupNanos time spent obtaining the (usually cached) transform
+     * @param transformNanos time spent transforming coordinates and building the result
+     */
+    default void reprojected( int fromSrid, int toSrid, int numVertices, long lookupNanos, long transformNanos ){
+    }
+}
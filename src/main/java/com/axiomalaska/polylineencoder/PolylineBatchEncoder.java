@@ -0,0 +1,178 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Encodes whole collections of geometries in parallel with
+ * {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings)}.
+ *
+ * Results come back in input order, one {@link EncodeResult} per geometry. A geometry that
+ * cannot be encoded (for example an unsupported type) is reported in its own result and
+ * does not affect the others.
+ *
+ * Work is split by vertex count rather than by number of geometries, so a batch mixing
+ * a few huge geometries with many small ones still spreads evenly across cores. The
+ * settings object is shared by all workers and must not be modified while a batch runs.
+ */
+public final class PolylineBatchEncoder {
+    /** Vertex count below which a range of geometries is encoded on one thread. */
+    static final int SEQUENTIAL_THRESHOLD = 16384;
+
+    private PolylineBatchEncoder() {
+    }
+
+    /**
+     * Encodes on the common fork-join pool with default settings.
+     */
+    public static List<EncodeResult> encode( List<? extends Geometry> geometries ){
+        return encode( geometries, new PolylineEncoderSettings(), ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Encodes on the common fork-join pool.
+     */
+    public static List<EncodeResult> encode( List<? extends Geometry> geometries, PolylineEncoderSettings settings ){
+        return encode( geometries, settings, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Encodes on the given fork-join pool.
+     *
+     * @param geometries geometries to encode (LineStrings or Polygons)
+     * @param settings encoding settings shared by every element
+     * @param pool pool to run on
+     * @return one result per geometry, in input order
+     */
+    public static List<EncodeResult> encode( List<? extends Geometry> geometries, PolylineEncoderSettings settings, ForkJoinPool pool ){
+        int size = geometries.size();
+        Geometry[] input = geometries.toArray( new Geometry[ size ] );
+        EncodeResult[] results = new EncodeResult[ size ];
+        if( size == 0 ){
+            return Arrays.asList( results );
+        }
+
+        long[] cumulativeWeight = new long[ size + 1 ];
+        for( int i = 0; i < size; i++ ){
+            cumulativeWeight[ i + 1 ] = cumulativeWeight[i] + weight( input[i] );
+        }
+
+        pool.invoke( new EncodeRange( input, settings, results, cumulativeWeight, 0, size ) );
+        return Arrays.asList( results );
+    }
+
+    /**
+     * Encodes the elements of a (finite) stream on the given fork-join pool.
+     */
+    public static List<EncodeResult> encode( Stream<? extends Geometry> geometries, PolylineEncoderSettings settings, ForkJoinPool pool ){
+        return encode( geometries.collect( Collectors.toList() ), settings, pool );
+    }
+
+    /**
+     * Encodes the elements of an iterator on any executor. The iterator is consumed on the
+     * calling thread and handed to the executor in chunks of roughly
+     * {@link #SEQUENTIAL_THRESHOLD} vertices.
+     *
+     * @param geometries geometries to encode (LineStrings or Polygons)
+     * @param settings encoding settings shared by every element
+     * @param executor executor to run on
+     * @return one result per geometry, in input order
+     */
+    public static List<EncodeResult> encode( Iterator<? extends Geometry> geometries, PolylineEncoderSettings settings, Executor executor ){
+        List<CompletableFuture<EncodeResult[]>> chunks = new ArrayList<CompletableFuture<EncodeResult[]>>();
+        int index = 0;
+        while( geometries.hasNext() ){
+            List<Geometry> chunk = new ArrayList<Geometry>();
+            long chunkWeight = 0;
+            while( geometries.hasNext() && chunkWeight < SEQUENTIAL_THRESHOLD ){
+                Geometry geometry = geometries.next();
+                chunk.add( geometry );
+                chunkWeight += weight( geometry );
+            }
+            final int firstIndex = index;
+            index += chunk.size();
+            chunks.add( CompletableFuture.supplyAsync( () -> {
+                EncodeResult[] results = new EncodeResult[ chunk.size() ];
+                for( int i = 0; i < results.length; i++ ){
+                    results[i] = encodeOne( firstIndex + i, chunk.get( i ), settings );
+                }
+                return results;
+            }, executor ) );
+        }
+
+        List<EncodeResult> results = new ArrayList<EncodeResult>( index );
+        for( CompletableFuture<EncodeResult[]> chunk : chunks ){
+            results.addAll( Arrays.asList( chunk.join() ) );
+        }
+        return results;
+    }
+
+    static EncodeResult encodeOne( int index, Geometry geometry, PolylineEncoderSettings settings ){
+        try {
+            return EncodeResult.success( index, PolylineEncoder.encode( geometry, settings ) );
+        } catch( UnsupportedGeometryTypeException | RuntimeException e ){
+            return EncodeResult.failure( index, e );
+        }
+    }
+
+    private static long weight( Geometry geometry ){
+        return geometry == null ? 1 : Math.max( geometry.getNumPoints(), 1 );
+    }
+
+    /**
+     * Encodes input[from, to), splitting at the vertex-weighted midpoint until a range
+     * is under the threshold or holds a single geometry.
+     */
+    private static final class EncodeRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Geometry[] input;
+        private final PolylineEncoderSettings settings;
+        private final EncodeResult[] results;
+        private final long[] cumulativeWeight;
+        private final int from;
+        private final int to;
+
+        EncodeRange( Geometry[] input, PolylineEncoderSettings settings, EncodeResult[] results, long[] cumulativeWeight, int from, int to ) {
+            this.input = input;
+            this.settings = settings;
+            this.results = results;
+            this.cumulativeWeight = cumulativeWeight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            long rangeWeight = cumulativeWeight[to] - cumulativeWeight[from];
+            if( to - from == 1 || rangeWeight <= SEQUENTIAL_THRESHOLD ){
+                for( int i = from; i < to; i++ ){
+                    results[i] = encodeOne( i, input[i], settings );
+                }
+                return;
+            }
+
+            long midWeight = cumulativeWeight[from] + rangeWeight / 2;
+            int split = Arrays.binarySearch( cumulativeWeight, from + 1, to, midWeight );
+            if( split < 0 ){
+                split = -split - 1;
+            }
+            split = Math.max( from + 1, Math.min( split, to - 1 ) );
+
+            invokeAll(
+                 new EncodeRange( input, settings, results, cumulativeWeight, from, split )
+                ,new EncodeRange( input, settings, results, cumulativeWeight, split, to )
+            );
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.axiomalaska.polylineencoder;
+
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+/**
+ * Decodes points and levels strings produced by {@link PolylineEncoder}. Coordinates come back
+ * as x (longitude), y (latitude) pairs, matching the ordering of the encoded geometry.
+ *
+ * None of the decode methods create an object per vertex. Callers can decode into their own
+ * buffers, straight into a {@link PackedCoordinateSequence}, or walk the vertices with a
+ * {@link Cursor} or {@link PointVisitor} without ever materializing the full coordinate array.
+ *
+ * Levels are the values written by the encoder (numLevels - 1 for vertices shown at every
+ * zoom, lower values for less significant vertices). Passing a minLevel keeps only vertices
+ * whose level is greater than or equal to it.
+ */
+public final class PolylineDecoder {
+    private static final double E5 = 1e5;
+
+    private PolylineDecoder() {
+    }
+
+    /**
+     * Callback receiving each decoded vertex.
+     */
+    public interface PointVisitor {
+        /**
+         * @param index index of the vertex in the encoded points string
+         * @param x longitude
+         * @param y latitude
+         * @param level level of the vertex, or -1 if no levels string was supplied
+         */
+        void visit( int index, double x, double y, int level );
+    }
+
+    /**
+     * Counts the vertices in an encoded points string without decoding them.
+     *
+     * @param points encoded points string
+     * @return number of vertices
+     */
+    public static int countPoints( CharSequence points ){
+        int terminators = 0;
+        for( int i = 0, n = points.length(); i < n; i++ ){
+            if( points.charAt( i ) - 63 < 0x20 ){
+                terminators++;
+            }
+        }
+        if( ( terminators & 1 ) != 0 ){
+            throw new IllegalArgumentException( "Encoded points string contains an odd number of values" );
+        }
+        return terminators >> 1;
+    }
+
+    /**
+     * Decodes all vertices into an interleaved x/y buffer.
+     *
+     * @param points encoded points string
+     * @param coords output buffer receiving x0, y0, x1, y1, ...
+     * @return number of vertices decoded
+     */
+    public static int decode( CharSequence points, double[] coords ){
+        return decode( points, null, Integer.MIN_VALUE, coords );
+    }
+
+    /**
+     * Decodes all vertices of points encoded with another precision than the default 5
+     * digits, see {@link PolylineEncoderSettings#getPrecision()}.
+     *
+     * @param points encoded points string
+     * @param precision number of decimal digits the points were encoded with
+     * @param coords output buffer receiving x0, y0, x1, y1, ...
+     * @return number of vertices decoded
+     */
+    public static int decode( CharSequence points, int precision, double[] coords ){
+        Cursor cursor = new Cursor( points, null, PointsKernel.scale( precision ) );
+        int count = 0;
+        while( cursor.next() ){
+            checkCapacity( coords.length, count, 2 );
+            coords[ count * 2 ] = cursor.getX();
+            coords[ ( count * 2 ) + 1 ] = cursor.getY();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Decodes the vertices whose level is at least minLevel into an interleaved x/y buffer.
+     *
+     * @param points encoded points string
+     * @param levels encoded levels string
+     * @param minLevel lowest level to keep
+     * @param coords output buffer receiving x0, y0, x1, y1, ...
+     * @return number of vertices written
+     */
+    public static int decode( CharSequence points, CharSequence levels, int minLevel, double[] coords ){
+        Cursor cursor = new Cursor( points, levels );
+        int count = 0;
+        while( cursor.next() ){
+            if( cursor.level >= minLevel ){
+                checkCapacity( coords.length, count, 2 );
+                coords[ count * 2 ] = cursor.getX();
+                coords[ ( count * 2 ) + 1 ] = cursor.getY();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Decodes all vertices into an interleaved buffer of the raw integer (1e5 scaled)
+     * coordinates. No floating point conversion is done.
+     *
+     * @param points encoded points string
+     * @param e5Coords output buffer receiving x0, y0, x1, y1, ... multiplied by 1e5
+     * @return number of vertices decoded
+     */
+    public static int decode( CharSequence points, int[] e5Coords ){
+        Cursor cursor = new Cursor( points, null );
+        int count = 0;
+        while( cursor.next() ){
+            checkCapacity( e5Coords.length, count, 2 );
+            e5Coords[ count * 2 ] = cursor.lnge5;
+            e5Coords[ ( count * 2 ) + 1 ] = cursor.late5;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Decodes an encoded levels string.
+     *
+     * @param levels encoded levels string
+     * @param out output buffer receiving one level per vertex
+     * @return number of levels decoded
+     */
+    public static int decodeLevels( CharSequence levels, int[] out ){
+        int count = 0;
+        int pos = 0;
+        int len = levels.length();
+        while( pos < len ){
+            checkCapacity( out.length, count, 1 );
+            int result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if( pos >= len || shift > 30 ){
+                    throw new IllegalArgumentException( "Truncated or invalid value at position " + pos + " of encoded levels string" );
+                }
+                b = readChar( levels, pos++ );
+                result |= ( b & 0x1f ) << shift;
+                shift += 5;
+            } while( b >= 0x20 );
+            out[ count++ ] = result;
+        }
+        return count;
+    }
+
+    /**
+     * Decodes all vertices straight into a packed coordinate sequence.
+     *
+     * @param points encoded points string
+     * @return two dimensional sequence backed by a single double array
+     */
+    public static PackedCoordinateSequence.Double decodeToSequence( CharSequence points ){
+        double[] coords = new double[ countPoints( points ) * 2 ];
+        decode( points, coords );
+        return new PackedCoordinateSequence.Double( coords, 2, 0 );
+    }
+
+    /**
+     * Decodes the vertices whose level is at least minLevel into a packed coordinate sequence.
+     *
+     * @param points encoded points string
+     * @param levels encoded levels string
+     * @param minLevel lowest level to keep
+     * @return two dimensional sequence backed by a single double array
+     */
+    public static PackedCoordinateSequence.Double decodeToSequence( CharSequence points, CharSequence levels, int minLevel ){
+        double[] coords = new double[ countPoints( points ) * 2 ];
+        int count = decode( points, levels, minLevel, coords );
+        if( count * 2 < coords.length ){
+            double[] trimmed = new double[ count * 2 ];
+            System.arraycopy( coords, 0, trimmed, 0, trimmed.length );
+            coords = trimmed;
+        }
+        return new PackedCoordinateSequence.Double( coords, 2, 0 );
+    }
+
+    /**
+     * Passes every vertex of an encoded polyline to a visitor.
+     *
+     * @param points encoded points string
+     * @param levels encoded levels string, or null
+     * @param visitor receives each vertex
+     * @return number of vertices visited
+     */
+    public static int decode( CharSequence points, CharSequence levels, PointVisitor visitor ){
+        return decode( points, levels, Integer.MIN_VALUE, visitor );
+    }
+
+    /**
+     * Passes the vertices whose level is at least minLevel to a visitor.
+     *
+     * @param points encoded points string
+     * @param levels encoded levels string
+     * @param minLevel lowest level to keep
+     * @param visitor receives each kept vertex
+     * @return number of vertices visited
+     */
+    public static int decode( CharSequence points, CharSequence levels, int minLevel, PointVisitor visitor ){
+        Cursor cursor = new Cursor( points, levels );
+        int count = 0;
+        while( cursor.next() ){
+            if( cursor.level >= minLevel ){
+                visitor.visit( cursor.index, cursor.getX(), cursor.getY(), cursor.level );
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates a cursor over the vertices of an encoded polyline.
+     *
+     * @param points encoded points string
+     * @param levels encoded levels string, or null
+     * @return
+     */
+    public static Cursor cursor( CharSequence points, CharSequence levels ){
+        return new Cursor( points, levels );
+    }
+
+    public static Cursor cursor( EncodedPolyline encodedPolyline ){
+        return new Cursor( encodedPolyline.getPoints(), encodedPolyline.getLevels() );
+    }
+
+    /**
+     * Walks a compact polyline straight from its bytes, without building Strings.
+     */
+    public static Cursor cursor( CompactPolyline compactPolyline ){
+        return new Cursor( compactPolyline.getPointsChars(), compactPolyline.getLevelsChars() );
+    }
+
+    /**
+     * Forward only iterator over the vertices of an encoded polyline. Call {@link #next()}
+     * to advance, then read the current vertex with the getters. Holds only the running
+     * delta state, so arbitrarily long polylines can be walked in constant memory.
+     */
+    public static final class Cursor {
+        private final CharSequence points;
+        private final CharSequence levels;
+        private final int pointsLength;
+        private final int levelsLength;
+        private final double scale;
+        private int pointsPos;
+        private int levelsPos;
+        private int index = -1;
+        private int late5;
+        private int lnge5;
+        private int level = -1;
+
+        private Cursor( CharSequence points, CharSequence levels ) {
+            this( points, levels, E5 );
+        }
+
+        private Cursor( CharSequence points, CharSequence levels, double scale ) {
+            this.points = points;
+            this.levels = levels;
+            this.pointsLength = points.length();
+            this.levelsLength = levels == null ? 0 : levels.length();
+            this.scale = scale;
+        }
+
+        /**
+         * Advances to the next vertex.
+         *
+         * @return false when there are no more vertices
+         */
+        public boolean next(){
+            if( pointsPos >= pointsLength ){
+                if( levelsPos < levelsLength ){
+                    throw new IllegalArgumentException( "Encoded levels string has more values than the points string" );
+                }
+                return false;
+            }
+            late5 += readSignedNumber();
+            if( pointsPos >= pointsLength ){
+                throw new IllegalArgumentException( "Encoded points string ends with a latitude without a longitude" );
+            }
+            lnge5 += readSignedNumber();
+
+            if( levels != null ){
+                if( levelsPos >= levelsLength ){
+                    throw new IllegalArgumentException( "Encoded levels string has fewer values than the points string" );
+                }
+                level = readLevel();
+            }
+            index++;
+            return true;
+        }
+
+        public int getIndex(){
+            return index;
+        }
+
+        public double getX(){
+            return lnge5 / scale;
+        }
+
+        public double getY(){
+            return late5 / scale;
+        }
+
+        /**
+         * @return x multiplied by 1e5, as encoded
+         */
+        public int getXe5(){
+            return lnge5;
+        }
+
+        /**
+         * @return y multiplied by 1e5, as encoded
+         */
+        public int getYe5(){
+            return late5;
+        }
+
+        /**
+         * @return level of the current vertex, or -1 if no levels string was supplied
+         */
+        public int getLevel(){
+            return level;
+        }
+
+        private int readSignedNumber(){
+            int result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if( pointsPos >= pointsLength || shift > 30 ){
+                    throw new IllegalArgumentException( "Truncated or invalid value at position " + pointsPos + " of encoded points string" );
+                }
+                b = readChar( points, pointsPos++ );
+                result |= ( b & 0x1f ) << shift;
+                shift += 5;
+            } while( b >= 0x20 );
+            return ( result & 1 ) != 0 ? ~( result >>> 1 ) : ( result >>> 1 );
+        }
+
+        private int readLevel(){
+            int result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if( levelsPos >= levelsLength || shift > 30 ){
+                    throw new IllegalArgumentException( "Truncated or invalid value at position " + levelsPos + " of encoded levels string" );
+                }
+                b = readChar( levels, levelsPos++ );
+                result |= ( b & 0x1f ) << shift;
+                shift += 5;
+            } while( b >= 0x20 );
+            return result;
+        }
+    }
+
+    private static int readChar( CharSequence s, int pos ){
+        int b = s.charAt( pos ) - 63;
+        if( b < 0 || b > 63 ){
+            throw new IllegalArgumentException( "Invalid character '" + s.charAt( pos ) + "' at position " + pos + " of encoded string" );
+        }
+        return b;
+    }
+
+    private static void checkCapacity( int length, int count, int stride ){
+        if( ( count + 1 ) * stride > length ){
+            throw new IllegalArgumentException( "Output buffer too small, holds " + ( length / stride ) + " values" );
+        }
+    }
+}
@@ -1,19 +1,17 @@
 package com.axiomalaska.polylineencoder;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
-import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.Polygon;
-import org.locationtech.jts.geom.PrecisionModel;
 import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
-import org.locationtech.jts.operation.distance.DistanceOp;
 
 /**
  * Class to apply the Google polyline encoding algorithm to JTS geometries (LineStrings and Polygons). 
@@ -24,11 +22,20 @@ import org.locationtech.jts.operation.distance.DistanceOp;
  * @see http://facstaff.unca.edu/mcmcclur/GoogleMaps/EncodePolyline/
  */
 public class PolylineEncoder {
-    private static final String[] ALLOWED_WKT_TYPES = new String[]{"LINESTRING","POLYGON"};
-    private static final GeometryFactory GEOMETRY_FACTORY_4326 = buildGeometryFactory( 4326 );
-    
-    private static GeometryFactory buildGeometryFactory( int epsg ){
-        return new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), epsg );
+    static final String[] ALLOWED_WKT_TYPES = new String[]{"LINESTRING","POLYGON"};
+    private static final String[] ALLOWED_MULTI_PART_TYPES = new String[]{"LINESTRING","POLYGON","MULTILINESTRING","MULTIPOLYGON","GEOMETRYCOLLECTION"};
+
+    /**
+     * Registers the listener that receives vertex counts, phase timings and output sizes
+     * of every encode and reprojection. Pass {@link MetricsListener#NO_OP} (the default)
+     * to stop measuring.
+     */
+    public static void setMetricsListener( MetricsListener listener ){
+        Instrumentation.listener = listener == null ? MetricsListener.NO_OP : listener;
+    }
+
+    public static MetricsListener getMetricsListener(){
+        return Instrumentation.listener;
     }
 
     /**
@@ -39,7 +46,7 @@ public class PolylineEncoder {
      * @throws ParseException 
      */
     public static EncodedPolyline encode( String wkt ) throws UnsupportedGeometryTypeException, ParseException {
-        return encode( WktUtil.wktToGeom(wkt), new PolylineEncoderSettings() );
+        return encodeWkt( wkt, new PolylineEncoderSettings() );
     }
 
     /**
@@ -50,7 +57,59 @@ public class PolylineEncoder {
      * @throws ParseException 
      */
     public static EncodedPolyline encode( String wkt, int epsg ) throws UnsupportedGeometryTypeException, ParseException {
-        return encode( WktUtil.wktToGeom(wkt, epsg), new PolylineEncoderSettings() );
+        return encodeWkt( wkt, new PolylineEncoderSettings() );
+    }
+
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding, reading coordinates straight from
+     * WKT (or EWKT) without building a JTS geometry. Produces the same output as parsing
+     * with WKTReader and calling {@link #encode(Geometry, PolylineEncoderSettings)}.
+     *
+     * @param wkt LINESTRING or POLYGON WKT, optionally with Z/M ordinates (ignored)
+     * @param settings encoding settings
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     * @throws ParseException
+     */
+    public static EncodedPolyline encodeWkt( CharSequence wkt, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, ParseException {
+        EncoderScratch scratch = new EncoderScratch( wkt.length() / 24 );
+        long start = Instrumentation.isEnabled( new Instrumentation.EncodeEvent() ) ? System.nanoTime() : 0;
+        int numPoints = WktCoordinateReader.read( wkt, scratch );
+        return encode( scratch, numPoints, settings, start == 0 ? 0 : System.nanoTime() - start );
+    }
+
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding, reading coordinates straight from
+     * WKB (ISO or PostGIS EWKB, either byte order) without building a JTS geometry.
+     * Produces the same output as parsing with WKBReader and calling
+     * {@link #encode(Geometry, PolylineEncoderSettings)}.
+     *
+     * @param wkb LineString or Polygon WKB
+     * @param settings encoding settings
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     * @throws ParseException
+     */
+    public static EncodedPolyline encodeWkb( byte[] wkb, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, ParseException {
+        return encodeWkb( wkb, 0, wkb.length, settings );
+    }
+
+    /**
+     * Like {@link #encodeWkb(byte[], PolylineEncoderSettings)} for WKB stored in wkb[offset, offset + length).
+     */
+    public static EncodedPolyline encodeWkb( byte[] wkb, int offset, int length, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, ParseException {
+        EncoderScratch scratch = new EncoderScratch( length / 16 );
+        long start = Instrumentation.isEnabled( new Instrumentation.EncodeEvent() ) ? System.nanoTime() : 0;
+        int numPoints = WkbCoordinateReader.read( wkb, offset, length, scratch );
+        return encode( scratch, numPoints, settings, start == 0 ? 0 : System.nanoTime() - start );
+    }
+
+    /**
+     * Like {@link #encodeWkb(byte[], PolylineEncoderSettings)} for hex encoded WKB, the
+     * default text form of PostGIS geometry columns.
+     */
+    public static EncodedPolyline encodeWkbHex( CharSequence hex, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, ParseException {
+        return encodeWkb( WkbCoordinateReader.hexToBytes( hex ), settings );
     }
     
     
@@ -72,143 +131,471 @@ public class PolylineEncoder {
      * @throws UnsupportedGeometryTypeException
      */
     public static EncodedPolyline encode( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
-        LineString line = getLineToEncode( geometry );
-        int i, maxLoc = 0;
-        Stack<int[]> stack = new Stack<int[]>();
-        double[] dists = new double[ line.getNumPoints() ];
-        double maxDist, absMaxDist = 0.0, temp = 0.0;
-        int[] current;
-        String encodedPoints, encodedLevels;
-
-        if( line.getNumPoints() > 2) {
-            int[] stackVal = new int[] { 0, ( line.getNumPoints() - 1) };
-            stack.push(stackVal);
-
-            while (stack.size() > 0) {
-                current = stack.pop();
-                maxDist = 0;
-
-                for (i = current[0] + 1; i < current[1]; i++) {
-                    temp = PolylineEncoder.distance(
-                         line.getPointN( i )
-                        ,line.getPointN( current[0] )
-                        ,line.getPointN( current[1] )
-                    );
-                    if (temp > maxDist) {
-                        maxDist = temp;
-                        maxLoc = i;
-                        if (maxDist > absMaxDist) {
-                            absMaxDist = maxDist;
-                        }
-                    }
-                }
-                if (maxDist > settings.getVerySmall() ) {
-                    dists[maxLoc] = maxDist;
-                    int[] stackValCurMax = { current[0], maxLoc };
-                    stack.push(stackValCurMax);
-                    int[] stackValMaxCur = { maxLoc, current[1] };
-                    stack.push(stackValMaxCur);
-                }
-            }
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        AsciiSink.Builder points = new AsciiSink.Builder( seq.size() );
+        AsciiSink.Builder levels = new AsciiSink.Builder( seq.size() / 2 );
+        encode( seq, settings, points, levels );
+        return toEncodedPolyline( points, levels );
+    }
+
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding, over packed coordinate arrays.
+     * Produces the same output as {@link #encode(Geometry, PolylineEncoderSettings)}
+     * for a line with the same coordinates.
+     *
+     * @param xs x ordinates (longitude)
+     * @param ys y ordinates (latitude)
+     * @param numPoints number of coordinates to encode from xs and ys
+     * @param settings encoding settings
+     * @return
+     */
+    public static EncodedPolyline encode( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings ) {
+        AsciiSink.Builder points = new AsciiSink.Builder( numPoints );
+        AsciiSink.Builder levels = new AsciiSink.Builder( numPoints / 2 );
+        encode( xs, ys, numPoints, settings, points, levels );
+        return toEncodedPolyline( points, levels );
+    }
+
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding, measuring distances in Web Mercator
+     * (EPSG:3857) meters so that verySmall, the zoom level breaks and the prefilter
+     * distance are given in meters. The projection is computed inline; no intermediate
+     * geometry is built and the encoded points are the original longitudes and latitudes.
+     *
+     * @param geometry LineString or Polygon in longitude/latitude (EPSG:4326, or SRID 0), or
+     * in EPSG:3857, in which case the encoded points are unprojected
+     * @param settings encoding settings, distances in meters
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     */
+    public static EncodedPolyline encodeWebMercator( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        EncoderScratch scratch = new EncoderScratch( seq.size() );
+        int numPoints = scratch.load( seq );
+        //longitude/latitude for the encoded points, Web Mercator for the distances
+        double[] convertedXs = new double[ numPoints ];
+        double[] convertedYs = new double[ numPoints ];
+        if( geometry.getSRID() == WebMercator.SRID ){
+            WebMercator.inverse( scratch.xs, scratch.ys, numPoints, convertedXs, convertedYs );
+            return encodeProjected( convertedXs, convertedYs, scratch.xs, scratch.ys, numPoints, settings );
         }
+        WebMercator.forward( scratch.xs, scratch.ys, numPoints, convertedXs, convertedYs );
+        return encodeProjected( scratch.xs, scratch.ys, convertedXs, convertedYs, numPoints, settings );
+    }
 
-        EncodedPolyline encodedPolyline = new EncodedPolyline();
-        
-        encodedPoints = PolylineEncoder.createEncodings( line, dists );
-        encodedPolyline.setPoints( encodedPoints );
-        
-        encodedLevels = PolylineEncoder.encodeLevels( settings, line, dists, absMaxDist );
-        encodedPolyline.setLevels( encodedLevels );
+    /**
+     * Like {@link #encodeWebMercator(Geometry, PolylineEncoderSettings)} for packed longitude
+     * and latitude arrays.
+     */
+    public static EncodedPolyline encodeWebMercator( double[] lngs, double[] lats, int numPoints, PolylineEncoderSettings settings ) {
+        double[] xs = new double[ numPoints ];
+        double[] ys = new double[ numPoints ];
+        WebMercator.forward( lngs, lats, numPoints, xs, ys );
+        return encodeProjected( lngs, lats, xs, ys, numPoints, settings );
+    }
 
-        return encodedPolyline;
+    /**
+     * Encodes lngs/lats, simplifying with the distances between the same vertices in
+     * projected coordinates.
+     */
+    static EncodedPolyline encodeProjected( double[] lngs, double[] lats, double[] projectedXs, double[] projectedYs, int numPoints, PolylineEncoderSettings settings ) {
+        AsciiSink.Builder points = new AsciiSink.Builder( numPoints );
+        AsciiSink.Builder levels = new AsciiSink.Builder( numPoints / 2 );
+        encode( lngs, lats, projectedXs, projectedYs, numPoints, settings, LevelLookup.of( settings ), new double[ numPoints ], new IntStack(), points, levels, 0 );
+        return toEncodedPolyline( points, levels );
     }
 
     /**
-     * distance(p0, p1, p2) computes the distance between the point p0 and the
-     * segment [p1,p2]. This could probably be replaced with something that is a
-     * bit more numerically stable.
-     * 
-     * @param point
-     * @param point2
-     * @param point3
+     * Douglas-Peucker algorithm, adapted for encoding, returning the compact byte[] backed
+     * result. Same characters as {@link #encode(Geometry, PolylineEncoderSettings)}.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @param settings encoding settings
      * @return
+     * @throws UnsupportedGeometryTypeException
      */
-    private static double distance(Point point, Point point2, Point point3) {
-        LineString line = GEOMETRY_FACTORY_4326.createLineString( new Coordinate[]{
-            point2.getCoordinate()
-           ,point3.getCoordinate()           
-        });
-        return DistanceOp.distance( point, line );
+    public static CompactPolyline encodeCompact( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        AsciiSink.Builder points = new AsciiSink.Builder( seq.size() );
+        AsciiSink.Builder levels = new AsciiSink.Builder( seq.size() / 2 );
+        encode( seq, settings, points, levels );
+        return CompactPolyline.of( points, levels );
     }
 
-    private static int floor1e5(double coordinate) {
-        return (int) Math.floor(coordinate * 1e5);
+    /**
+     * Like {@link #encode(double[], double[], int, PolylineEncoderSettings)}, returning the
+     * compact byte[] backed result.
+     */
+    public static CompactPolyline encodeCompact( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings ) {
+        AsciiSink.Builder points = new AsciiSink.Builder( numPoints );
+        AsciiSink.Builder levels = new AsciiSink.Builder( numPoints / 2 );
+        encode( xs, ys, numPoints, settings, points, levels );
+        return CompactPolyline.of( points, levels );
     }
 
-    private static String encodeSignedNumber(int num) {
-        int sgn_num = num << 1;
-        if (num < 0) {
-            sgn_num = ~(sgn_num);
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding. Streams the points and levels strings
+     * into the given Appendables (a Writer, StringBuilder, ...) instead of building Strings.
+     * Writers receive bulk char[] writes.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @param settings encoding settings
+     * @param points receives the encoded points
+     * @param levels receives the encoded levels, may be null if they are not needed
+     * @throws UnsupportedGeometryTypeException
+     * @throws IOException if writing to points or levels fails
+     */
+    public static void encode( Geometry geometry, PolylineEncoderSettings settings, Appendable points, Appendable levels ) throws UnsupportedGeometryTypeException, IOException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        try {
+            encode( seq, settings, new AsciiSink.ForAppendable( points ), levels == null ? null : new AsciiSink.ForAppendable( levels ) );
+        } catch( UncheckedIOException e ){
+            throw e.getCause();
         }
-        return (encodeNumber(sgn_num));
     }
 
-    private static String encodeNumber(int num) {
-        StringBuffer encodeString = new StringBuffer();
+    /**
+     * Douglas-Peucker algorithm, adapted for encoding. Writes the points and levels strings
+     * as ASCII bytes into the given buffers, starting at and advancing their positions.
+     * To encode into a byte[], wrap it with {@link ByteBuffer#wrap(byte[])}; heap buffers
+     * are written in place.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @param settings encoding settings
+     * @param points receives the encoded points
+     * @param levels receives the encoded levels, may be null if they are not needed
+     * @throws UnsupportedGeometryTypeException
+     * @throws BufferOverflowException if a buffer has too little space remaining
+     */
+    public static void encode( Geometry geometry, PolylineEncoderSettings settings, ByteBuffer points, ByteBuffer levels ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        encode( seq, settings, AsciiSink.ForByteBuffer.create( points ), levels == null ? null : AsciiSink.ForByteBuffer.create( levels ) );
+    }
+
+    /**
+     * Encodes every part of a geometry in one pass: each LineString, and the exterior and
+     * interior rings of each Polygon, of a LineString, Polygon, MultiLineString,
+     * MultiPolygon or (nested) GeometryCollection. Each part is encoded exactly as
+     * {@link #encode(Geometry, PolylineEncoderSettings)} would encode it on its own.
+     * Empty parts are skipped.
+     *
+     * @param geometry JTS geometry
+     * @param settings encoding settings
+     * @return all parts, sharing one points and one levels String
+     * @throws UnsupportedGeometryTypeException if the geometry contains points
+     */
+    public static EncodedMultiPolyline encodeParts( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        EncoderScratch scratch = new EncoderScratch( 256 );
+        AsciiSink.Builder points = new AsciiSink.Builder( geometry.getNumPoints() );
+        AsciiSink.Builder levels = new AsciiSink.Builder( geometry.getNumPoints() / 2 );
+        EncodedMultiPolyline.Builder parts = new EncodedMultiPolyline.Builder();
+        encodeParts( geometry, settings, scratch, points, levels, parts );
+        return parts.build( points.toString(), levels.toString() );
+    }
+
+    /**
+     * Encodes every part of a geometry with default settings.
+     *
+     * @see #encodeParts(Geometry, PolylineEncoderSettings)
+     */
+    public static EncodedMultiPolyline encodeParts( Geometry geometry ) throws UnsupportedGeometryTypeException {
+        return encodeParts( geometry, new PolylineEncoderSettings() );
+    }
 
-        while (num >= 0x20) {
-            int nextValue = (0x20 | (num & 0x1f)) + 63;
-            encodeString.append((char) (nextValue));
-            num >>= 5;
+    /**
+     * Encodes only what is visible of a geometry in a viewport, at one zoom level. Every
+     * LineString and ring is clipped to the box before it is simplified, so parts outside
+     * the viewport cost next to nothing. Vertices below the zoom's break in
+     * {@link PolylineEncoderSettings#getZoomLevelBreaks()} are dropped during
+     * simplification instead of being encoded at a level the client would hide; the kept
+     * vertices get the same levels as in a full encode.
+     *
+     * A LineString crossing the box edges falls apart into one part per visible piece.
+     * A Polygon ring stays one closed ring, running along the box edges where it was cut;
+     * rings entirely outside the box are dropped.
+     *
+     * @param geometry LineString, Polygon, or a multi-geometry or collection of them
+     * @param minX west edge of the viewport, in the geometry's coordinates
+     * @param minY south edge
+     * @param maxX east edge
+     * @param maxY north edge
+     * @param zoom zoom level the viewport is shown at, 0 for the most simplified
+     * @param settings encoding settings
+     * @return the visible parts, which may be none
+     * @throws UnsupportedGeometryTypeException if the geometry contains points
+     */
+    public static EncodedMultiPolyline encodeClipped( Geometry geometry, double minX, double minY, double maxX, double maxY, int zoom, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        if( zoom < 0 ){
+            throw new IllegalArgumentException( "zoom must not be negative, was " + zoom );
+        }
+        if( !( minX <= maxX && minY <= maxY ) ){
+            throw new IllegalArgumentException( "Invalid box [" + minX + ", " + minY + ", " + maxX + ", " + maxY + "]" );
         }
+        PolylineEncoderSettings zoomSettings = ImmutablePolylineEncoderSettings.copy( settings );
+        zoomSettings.setVerySmall( Math.max( settings.getVerySmall(), settings.getZoomLevelBreaks()[ Math.min( zoom, settings.getNumLevels() - 1 ) ] ) );
+        zoomSettings.setZoomLevelBreaks( settings.getZoomLevelBreaks() );
+
+        EncoderScratch scratch = new EncoderScratch( 256 );
+        AsciiSink.Builder points = new AsciiSink.Builder( 1024 );
+        AsciiSink.Builder levels = new AsciiSink.Builder( 256 );
+        EncodedMultiPolyline.Builder parts = new EncodedMultiPolyline.Builder();
+        encodeClipped( geometry, new BoxClipper( minX, minY, maxX, maxY ), zoomSettings, LevelLookup.of( settings ), scratch, points, levels, parts );
+        return parts.build( points.toString(), levels.toString() );
+    }
+
+    /**
+     * Encodes only what is visible of a longitude/latitude geometry in one Web Mercator
+     * tile, like {@link #encodeClipped(Geometry, double, double, double, double, int, PolylineEncoderSettings)}
+     * with the tile's bounds and zoom.
+     *
+     * @param geometry geometry in longitude/latitude (EPSG:4326)
+     * @param zoom tile zoom, 0 to 30
+     * @param tileX tile column, from 0 at 180 degrees west
+     * @param tileY tile row, from 0 at the north edge
+     * @param settings encoding settings
+     * @return the visible parts, which may be none
+     * @throws UnsupportedGeometryTypeException if the geometry contains points
+     */
+    public static EncodedMultiPolyline encodeTile( Geometry geometry, int zoom, int tileX, int tileY, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        if( zoom < 0 || zoom > 30 ){
+            throw new IllegalArgumentException( "zoom must be between 0 and 30, was " + zoom );
+        }
+        int numTiles = 1 << zoom;
+        if( tileX < 0 || tileX >= numTiles || tileY < 0 || tileY >= numTiles ){
+            throw new IllegalArgumentException( "No tile " + zoom + "/" + tileX + "/" + tileY );
+        }
+        return encodeClipped( geometry, WebMercator.tileLongitude( tileX, zoom ), WebMercator.tileLatitude( tileY + 1, zoom ),
+            WebMercator.tileLongitude( tileX + 1, zoom ), WebMercator.tileLatitude( tileY, zoom ), zoom, settings );
+    }
 
-        num += 63;
-        encodeString.append((char) (num));
+    private static void encodeClipped( Geometry geometry, BoxClipper clipper, PolylineEncoderSettings settings, LevelLookup levelLookup, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels, EncodedMultiPolyline.Builder parts ) throws UnsupportedGeometryTypeException {
+        if( geometry instanceof LineString ){
+            encodeClipped( ( (LineString) geometry ).getCoordinateSequence(), false, 0, clipper, settings, levelLookup, scratch, points, levels, parts );
+            parts.endGeometry();
+        } else if( geometry instanceof Polygon ){
+            Polygon polygon = (Polygon) geometry;
+            encodeClipped( polygon.getExteriorRing().getCoordinateSequence(), true, 0, clipper, settings, levelLookup, scratch, points, levels, parts );
+            for( int i = 0, n = polygon.getNumInteriorRing(); i < n; i++ ){
+                encodeClipped( polygon.getInteriorRingN( i ).getCoordinateSequence(), true, i + 1, clipper, settings, levelLookup, scratch, points, levels, parts );
+            }
+            parts.endGeometry();
+        } else if( geometry instanceof GeometryCollection && !( geometry instanceof MultiPoint ) ){
+            for( int i = 0, n = geometry.getNumGeometries(); i < n; i++ ){
+                encodeClipped( geometry.getGeometryN( i ), clipper, settings, levelLookup, scratch, points, levels, parts );
+            }
+        } else {
+            throw new UnsupportedGeometryTypeException( geometry.getGeometryType(), ALLOWED_MULTI_PART_TYPES );
+        }
+    }
 
-        return encodeString.toString();
+    private static void encodeClipped( CoordinateSequence seq, boolean ring, int ringIndex, BoxClipper clipper, PolylineEncoderSettings settings, LevelLookup levelLookup, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels, EncodedMultiPolyline.Builder parts ){
+        int numPoints = scratch.load( seq );
+        if( numPoints == 0 ){
+            return;
+        }
+        if( clipper.contains( scratch.xs, scratch.ys, numPoints ) ){
+            encode( scratch.xs, scratch.ys, numPoints, settings, levelLookup, scratch.dists, scratch.stack, points, levels, 0 );
+            parts.endPart( ringIndex, points.length(), levels.length() );
+        } else if( ring ){
+            int clipped = clipper.clipRing( scratch.xs, scratch.ys, numPoints );
+            if( clipped > 0 ){
+                encodeClippedPart( clipper, 0, clipped, ringIndex, settings, levelLookup, scratch, points, levels, parts );
+            }
+        } else {
+            int numPieces = clipper.clipLine( scratch.xs, scratch.ys, numPoints );
+            for( int i = 0; i < numPieces; i++ ){
+                int start = i == 0 ? 0 : clipper.pieceEnds[ i - 1 ];
+                encodeClippedPart( clipper, start, clipper.pieceEnds[i], ringIndex, settings, levelLookup, scratch, points, levels, parts );
+            }
+        }
     }
 
     /**
-     * Now we can use the previous function to march down the list of points and
-     * encode the levels. Like createEncodings, we ignore points whose distance
-     * (in dists) is undefined.
+     * Encodes vertices [start, end) of the clipper's result as one part.
      */
-    private static String encodeLevels( PolylineEncoderSettings settings, LineString line, double[] dists, double absMaxDist){
-        StringBuffer encodedLevels = new StringBuffer();
+    private static void encodeClippedPart( BoxClipper clipper, int start, int end, int ringIndex, PolylineEncoderSettings settings, LevelLookup levelLookup, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels, EncodedMultiPolyline.Builder parts ){
+        int numPoints = end - start;
+        scratch.ensureCapacity( numPoints );
+        System.arraycopy( clipper.xs, start, scratch.xs, 0, numPoints );
+        System.arraycopy( clipper.ys, start, scratch.ys, 0, numPoints );
+        encode( scratch.xs, scratch.ys, numPoints, settings, levelLookup, scratch.clearDists( numPoints ), scratch.stack, points, levels, 0 );
+        parts.endPart( ringIndex, points.length(), levels.length() );
+    }
 
-        List<Double> validDists = new ArrayList<Double>();
-        for( int k = 0, kn = dists.length; k < kn; k++ ){
-            if( dists[k] > 0 ){
-                double ok = dists[k];
-                validDists.add( ok );
+    private static void encodeParts( Geometry geometry, PolylineEncoderSettings settings, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels, EncodedMultiPolyline.Builder parts ) throws UnsupportedGeometryTypeException {
+        if( geometry instanceof LineString ){
+            encodePart( ( (LineString) geometry ).getCoordinateSequence(), 0, settings, scratch, points, levels, parts );
+            parts.endGeometry();
+        } else if( geometry instanceof Polygon ){
+            Polygon polygon = (Polygon) geometry;
+            encodePart( polygon.getExteriorRing().getCoordinateSequence(), 0, settings, scratch, points, levels, parts );
+            for( int i = 0, n = polygon.getNumInteriorRing(); i < n; i++ ){
+                encodePart( polygon.getInteriorRingN( i ).getCoordinateSequence(), i + 1, settings, scratch, points, levels, parts );
             }
+            parts.endGeometry();
+        } else if( geometry instanceof GeometryCollection && !( geometry instanceof MultiPoint ) ){
+            for( int i = 0, n = geometry.getNumGeometries(); i < n; i++ ){
+                encodeParts( geometry.getGeometryN( i ), settings, scratch, points, levels, parts );
+            }
+        } else {
+            throw new UnsupportedGeometryTypeException( geometry.getGeometryType(), ALLOWED_MULTI_PART_TYPES );
         }
-        
-        @SuppressWarnings("unused")
-        int ok = 0;
-        
+    }
+
+    private static void encodePart( CoordinateSequence seq, int ringIndex, PolylineEncoderSettings settings, EncoderScratch scratch, AsciiSink.Builder points, AsciiSink.Builder levels, EncodedMultiPolyline.Builder parts ){
+        if( seq.size() == 0 ){
+            return;
+        }
+        int numPoints = scratch.load( seq );
+        encode( scratch.xs, scratch.ys, numPoints, settings, scratch.dists, scratch.stack, points, levels );
+        parts.endPart( ringIndex, points.length(), levels.length() );
+    }
+
+    private static EncodedPolyline encode( EncoderScratch scratch, int numPoints, PolylineEncoderSettings settings, long parseNanos ){
+        AsciiSink.Builder points = new AsciiSink.Builder( numPoints );
+        AsciiSink.Builder levels = new AsciiSink.Builder( numPoints / 2 );
+        encode( scratch.xs, scratch.ys, numPoints, settings, scratch.clearDists( numPoints ), scratch.stack, points, levels, parseNanos );
+        return toEncodedPolyline( points, levels );
+    }
+
+    private static void encode( CoordinateSequence seq, PolylineEncoderSettings settings, AsciiSink points, AsciiSink levels ) {
+        EncoderScratch scratch = new EncoderScratch( seq.size() );
+        int numPoints = scratch.load( seq );
+        encode( scratch.xs, scratch.ys, numPoints, settings, scratch.dists, scratch.stack, points, levels );
+    }
+
+    private static void encode( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings, AsciiSink points, AsciiSink levels ) {
+        encode( xs, ys, numPoints, settings, new double[ numPoints ], new IntStack(), points, levels );
+    }
+
+    private static void encode( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings, double[] dists, IntStack stack, AsciiSink points, AsciiSink levels ) {
+        encode( xs, ys, numPoints, settings, dists, stack, points, levels, 0 );
+    }
+
+    /**
+     * Core of every encode: simplifies, then writes points and levels. Phases are timed
+     * only when a metrics listener or the JFR encode event is enabled.
+     *
+     * @param dists scratch of at least numPoints zeroes
+     * @param stack scratch stack
+     * @param parseNanos time the caller spent parsing the input, for metrics
+     */
+    private static void encode( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings, double[] dists, IntStack stack, AsciiSink points, AsciiSink levels, long parseNanos ) {
+        encode( xs, ys, numPoints, settings, LevelLookup.of( settings ), dists, stack, points, levels, parseNanos );
+    }
+
+    /**
+     * @param levelLookup level computation for the settings
+     */
+    static void encode( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings, LevelLookup levelLookup, double[] dists, IntStack stack, AsciiSink points, AsciiSink levels, long parseNanos ) {
+        encode( xs, ys, xs, ys, numPoints, settings, levelLookup, dists, stack, points, levels, parseNanos );
+    }
+
+    /**
+     * @param simplifyXs x ordinates the prefilter and simplification measure distances in
+     * (xs itself, or xs projected)
+     * @param simplifyYs y ordinates the prefilter and simplification measure distances in
+     */
+    static void encode( double[] xs, double[] ys, double[] simplifyXs, double[] simplifyYs, int numPoints, PolylineEncoderSettings settings, LevelLookup levelLookup, double[] dists, IntStack stack, AsciiSink points, AsciiSink levels, long parseNanos ) {
+        Instrumentation.EncodeEvent event = new Instrumentation.EncodeEvent();
+        boolean measured = Instrumentation.isEnabled( event );
+        long start = 0;
+        if( measured ){
+            event.begin();
+            start = System.nanoTime();
+        }
+        long pointsStart = points.bytesWritten();
+        long levelsStart = levels == null ? 0 : levels.bytesWritten();
+        int inputVertices = numPoints;
+
+        if( settings.getPrefilterDistance() >= 0 ){
+            double[] filteredXs = new double[ numPoints ];
+            double[] filteredYs = new double[ numPoints ];
+            if( simplifyXs == xs && simplifyYs == ys ){
+                numPoints = RadialDistanceFilter.filter( xs, ys, numPoints, settings.getPrefilterDistance(), filteredXs, filteredYs, null );
+                xs = filteredXs;
+                ys = filteredYs;
+            } else {
+                int[] keptIndexes = new int[ numPoints ];
+                numPoints = RadialDistanceFilter.filter( simplifyXs, simplifyYs, numPoints, settings.getPrefilterDistance(), filteredXs, filteredYs, keptIndexes );
+                double[] keptXs = new double[ numPoints ];
+                double[] keptYs = new double[ numPoints ];
+                for( int i = 0; i < numPoints; i++ ){
+                    keptXs[i] = xs[ keptIndexes[i] ];
+                    keptYs[i] = ys[ keptIndexes[i] ];
+                }
+                xs = keptXs;
+                ys = keptYs;
+            }
+            simplifyXs = filteredXs;
+            simplifyYs = filteredYs;
+        }
+        double absMaxDist = simplify( simplifyXs, simplifyYs, numPoints, settings, dists, stack );
+        long simplified = measured ? System.nanoTime() : 0;
+
+        int outputVertices = PointsKernel.writeRetained( xs, ys, numPoints, dists, PointsKernel.scale( settings.getPrecision() ), points );
+        points.finish();
+        long pointsDone = measured ? System.nanoTime() : 0;
+        if( levels != null ){
+            PolylineEncoder.encodeLevels( settings, levelLookup, numPoints, dists, absMaxDist, levels );
+            levels.finish();
+        }
+
+        if( measured ){
+            Instrumentation.encoded( event, inputVertices, outputVertices, parseNanos, simplified - start, pointsDone - simplified, System.nanoTime() - pointsDone,
+                points.bytesWritten() - pointsStart, levels == null ? 0 : levels.bytesWritten() - levelsStart );
+        }
+    }
+
+    /**
+     * Runs the configured simplification, filling dists.
+     *
+     * @return the largest vertex significance
+     */
+    static double simplify( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings, double[] dists, IntStack stack ){
+        if( settings.getSimplificationStrategy() == SimplificationStrategy.VISVALINGAM_WHYATT ){
+            return VisvalingamWhyatt.simplify( xs, ys, numPoints, settings.getVerySmall(), dists );
+        }
+        int parallelThreshold = settings.getParallelThreshold();
+        if( parallelThreshold > 0 && numPoints > parallelThreshold ){
+            return DouglasPeucker.simplifyParallel( xs, ys, numPoints, settings.getVerySmall(), dists, parallelThreshold );
+        }
+        return DouglasPeucker.simplify( xs, ys, numPoints, settings.getVerySmall(), dists, stack );
+    }
+
+    static EncodedPolyline toEncodedPolyline( AsciiSink.Builder points, AsciiSink.Builder levels ){
+        EncodedPolyline encodedPolyline = new EncodedPolyline();
+        encodedPolyline.setPoints( points.toString() );
+        encodedPolyline.setLevels( levels.toString() );
+        return encodedPolyline;
+    }
+
+    /**
+     * Now we can use the previous function to march down the list of points and
+     * encode the levels. Like createEncodings, we ignore points whose distance
+     * (in dists) is undefined.
+     */
+    private static void encodeLevels( PolylineEncoderSettings settings, LevelLookup levelLookup, int numPoints, double[] dists, double absMaxDist, AsciiSink encodedLevels){
         //start point
         if ( settings.isForceEndpoints() ) {
-            encodedLevels.append( encodeNumber( settings.getNumLevels() - 1 ) );
+            encodedLevels.writeNumber( settings.getNumLevels() - 1 );
         } else {
-            encodedLevels.append( encodeNumber( settings.getNumLevels() - PolylineEncoder.computeLevel( settings, absMaxDist ) - 1 ) );
+            encodedLevels.writeNumber( settings.getNumLevels() - levelLookup.computeLevel( absMaxDist ) - 1 );
         }
         
         //middle points        
-        for ( int i = 1, n = line.getNumPoints(); i < n - 1; i++) {
+        for ( int i = 1; i < numPoints - 1; i++) {
             if( dists[i] != 0){
-                encodedLevels.append( encodeNumber( settings.getNumLevels() - PolylineEncoder.computeLevel( settings, dists[i] ) - 1 ) );
+                encodedLevels.writeNumber( settings.getNumLevels() - levelLookup.computeLevel( dists[i] ) - 1 );
             }
         }
         
         //end point
         if( settings.isForceEndpoints() ){
-            encodedLevels.append(encodeNumber( settings.getNumLevels() - 1));
+            encodedLevels.writeNumber( settings.getNumLevels() - 1);
         } else {
-            encodedLevels.append(encodeNumber( settings.getNumLevels() - PolylineEncoder.computeLevel( settings, absMaxDist) - 1));
+            encodedLevels.writeNumber( settings.getNumLevels() - levelLookup.computeLevel( absMaxDist) - 1);
         }
-        
-        return encodedLevels.toString();
     }
 
     /**
@@ -217,7 +604,7 @@ public class PolylineEncoder {
      * terms of a logarithm, but this approach makes it a bit easier to ensure
      * that the level is not too large.
      */
-    private static int computeLevel( PolylineEncoderSettings settings, double absMaxDist) {
+    static int computeLevel( PolylineEncoderSettings settings, double absMaxDist) {
         int lev = 0;
         if (absMaxDist > settings.getVerySmall() ){
             while( absMaxDist < settings.getZoomLevelBreaks()[lev] ) {
@@ -228,36 +615,25 @@ public class PolylineEncoder {
         return lev;
     }
 
-    private static String createEncodings( LineString line, double[] dists) {
-        StringBuffer encodedPoints = new StringBuffer();
-        
-        int plat = 0;
-        int plng = 0;
-        
-        for (int i = 0, n = line.getNumPoints(); i < n; i++) {
-            if( dists[i] != 0 || i == 0 || i == n - 1) {
-                Point point = line.getPointN( i );
-
-                int lnge5 = floor1e5( point.getX() );
-                int late5 = floor1e5( point.getY() );                
-
-                int dlat = late5 - plat;
-                int dlng = lnge5 - plng;
-
-                plat = late5;
-                plng = lnge5;
-
-                encodedPoints.append(encodeSignedNumber(dlat));
-                encodedPoints.append(encodeSignedNumber(dlng));
-
-            }
-        }
-        return encodedPoints.toString();
-    }
-        
     public static EncodedPolyline dumbEncodeFromWkt( String wkt ) throws UnsupportedGeometryTypeException, ParseException {
-        Geometry geometry = new WKTReader().read( wkt );
-        return dumbEncode( geometry );
+        EncoderScratch scratch = new EncoderScratch( wkt.length() / 24 );
+        int numPoints = WktCoordinateReader.read( wkt, scratch );
+        return dumbEncode( scratch.xs, scratch.ys, numPoints, new PolylineEncoderSettings().getNumLevels() - 1, 1 );
+    }
+
+    /**
+     * Encodes all points of LineString or Polygon WKB like {@link #dumbEncode(Geometry)},
+     * reading coordinates straight from the WKB without building a JTS geometry.
+     *
+     * @param wkb LineString or Polygon WKB (ISO or PostGIS EWKB, either byte order)
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     * @throws ParseException
+     */
+    public static EncodedPolyline dumbEncodeFromWkb( byte[] wkb ) throws UnsupportedGeometryTypeException, ParseException {
+        EncoderScratch scratch = new EncoderScratch( wkb.length / 16 );
+        int numPoints = WkbCoordinateReader.read( wkb, 0, wkb.length, scratch );
+        return dumbEncode( scratch.xs, scratch.ys, numPoints, new PolylineEncoderSettings().getNumLevels() - 1, 1 );
     }
 
     
@@ -290,39 +666,92 @@ public class PolylineEncoder {
      * @throws UnsupportedGeometryTypeException
      */
     public static EncodedPolyline dumbEncode( Geometry geometry, int level, int step) throws UnsupportedGeometryTypeException {
-        LineString line = getLineToEncode( geometry );
-
-        StringBuffer encodedPoints = new StringBuffer();
-        StringBuffer encodedLevels = new StringBuffer();
-
-        int plat = 0;
-        int plng = 0;
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        EncoderScratch scratch = new EncoderScratch( seq.size() );
+        return dumbEncode( scratch.xs, scratch.ys, scratch.load( seq ), level, step );
+    }
 
-        for (int i = 0, n = line.getNumPoints(); i < n; i += step) {
-            Point point = (Point) line.getPointN( i );
+    private static EncodedPolyline dumbEncode( double[] xs, double[] ys, int numPoints, int level, int step ){
+        int numEncoded = ( numPoints + step - 1 ) / step;
+        AsciiSink.Builder encodedPoints = new AsciiSink.Builder( numEncoded * 4 );
+        AsciiSink.Builder encodedLevels = new AsciiSink.Builder( numEncoded );
+        dumbEncode( xs, ys, numPoints, level, step, encodedPoints, encodedLevels );
+        return toEncodedPolyline( encodedPoints, encodedLevels );
+    }
 
-            int lnge5 = floor1e5( point.getX() );
-            int late5 = floor1e5( point.getY() );
+    /**
+     * Encodes all points in a JTS geometry like {@link #dumbEncode(Geometry, int, int)},
+     * streaming the points and levels strings into the given Appendables.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @param level Level for which to encode the points (usually the lowest zoom level).
+     * @param step Step size to use when moving through points (use 1 to include all points)
+     * @param points receives the encoded points
+     * @param levels receives the encoded levels, may be null if they are not needed
+     * @throws UnsupportedGeometryTypeException
+     * @throws IOException if writing to points or levels fails
+     */
+    public static void dumbEncode( Geometry geometry, int level, int step, Appendable points, Appendable levels ) throws UnsupportedGeometryTypeException, IOException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        try {
+            dumbEncode( seq, level, step, new AsciiSink.ForAppendable( points ), levels == null ? null : new AsciiSink.ForAppendable( levels ) );
+        } catch( UncheckedIOException e ){
+            throw e.getCause();
+        }
+    }
 
-            int dlat = late5 - plat;
-            int dlng = lnge5 - plng;
+    /**
+     * Encodes all points in a JTS geometry like {@link #dumbEncode(Geometry, int, int)},
+     * writing the points and levels strings as ASCII bytes into the given buffers.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @param level Level for which to encode the points (usually the lowest zoom level).
+     * @param step Step size to use when moving through points (use 1 to include all points)
+     * @param points receives the encoded points
+     * @param levels receives the encoded levels, may be null if they are not needed
+     * @throws UnsupportedGeometryTypeException
+     * @throws BufferOverflowException if a buffer has too little space remaining
+     */
+    public static void dumbEncode( Geometry geometry, int level, int step, ByteBuffer points, ByteBuffer levels ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = getLineToEncode( geometry ).getCoordinateSequence();
+        dumbEncode( seq, level, step, AsciiSink.ForByteBuffer.create( points ), levels == null ? null : AsciiSink.ForByteBuffer.create( levels ) );
+    }
 
-            plat = late5;
-            plng = lnge5;
+    private static void dumbEncode( CoordinateSequence seq, int level, int step, AsciiSink encodedPoints, AsciiSink encodedLevels ) {
+        EncoderScratch scratch = new EncoderScratch( seq.size() );
+        dumbEncode( scratch.xs, scratch.ys, scratch.load( seq ), level, step, encodedPoints, encodedLevels );
+    }
 
-            encodedPoints.append( encodeSignedNumber(dlat) ).append( encodeSignedNumber(dlng) );
-            encodedLevels.append( encodeNumber(level) );
+    static void dumbEncode( double[] xs, double[] ys, int numPoints, int level, int step, AsciiSink encodedPoints, AsciiSink encodedLevels ) {
+        PointsKernel.writeEvery( xs, ys, numPoints, step, 1e5, encodedPoints );
+        encodedPoints.finish();
+        if( encodedLevels != null ){
+            for( int i = 0; i < numPoints; i += step ){
+                encodedLevels.writeNumber( level );
+            }
+            encodedLevels.finish();
         }
-
-        EncodedPolyline encodedPolyline = new EncodedPolyline();
-        encodedPolyline.setPoints( encodedPoints.toString() );
-        encodedPolyline.setLevels( encodedLevels.toString() );
-
-        return encodedPolyline;
     }
  
        
-    private static LineString getLineToEncode( Geometry geometry ) throws UnsupportedGeometryTypeException{
+    /**
+     * Applies the checks JTS makes when building the LineString or exterior LinearRing,
+     * so the WKT/WKB fast paths reject the same input as the JTS route.
+     */
+    static void checkLineToEncode( double[] xs, double[] ys, int numPoints, boolean ring ){
+        if( ring ){
+            if( numPoints > 0 && ( xs[0] != xs[ numPoints - 1 ] || ys[0] != ys[ numPoints - 1 ] ) ){
+                throw new IllegalArgumentException( "Points of LinearRing do not form a closed linestring" );
+            }
+            if( numPoints > 0 && numPoints < 4 ){
+                throw new IllegalArgumentException( "Invalid number of points in LinearRing (found " + numPoints + " - must be 0 or >= 4)" );
+            }
+        } else if( numPoints == 1 ){
+            throw new IllegalArgumentException( "Invalid number of points in LineString (found 1 - must be 0 or >= 2)" );
+        }
+    }
+
+    static LineString getLineToEncode( Geometry geometry ) throws UnsupportedGeometryTypeException{
         LineString line = null;
         if( geometry.getGeometryType().toUpperCase().equals("LINESTRING") ){
             line = (LineString) geometry;
@@ -0,0 +1,172 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Optional cache in front of {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings)}
+ * for servers that encode the same geometries over and over. Entries are keyed by a 128 bit
+ * fingerprint of the coordinates being encoded plus the settings values that affect the
+ * output, and evicted least recently used first once the cache is over its entry count or
+ * byte bound. Safe for concurrent use.
+ *
+ * Fingerprinting reads every coordinate once, which is far cheaper than simplifying and
+ * encoding but not free; the cache only pays off when geometries repeat.
+ */
+public final class PolylineEncoderCache {
+    private final BoundedCache<Key, EncodedPolyline> cache;
+
+    private PolylineEncoderCache( BoundedCache<Key, EncodedPolyline> cache ) {
+        this.cache = cache;
+    }
+
+    /**
+     * Cache holding at most maxEntries encoded polylines.
+     */
+    public static PolylineEncoderCache withMaxEntries( long maxEntries ){
+        return new PolylineEncoderCache( new BoundedCache<Key, EncodedPolyline>( maxEntries ) );
+    }
+
+    /**
+     * Cache holding encoded polylines whose points and levels strings add up to at most
+     * maxBytes characters (encoded polylines are ASCII, one byte per character).
+     */
+    public static PolylineEncoderCache withMaxBytes( long maxBytes ){
+        return new PolylineEncoderCache( new BoundedCache<Key, EncodedPolyline>( maxBytes, PolylineEncoderCache::byteSize ) );
+    }
+
+    /**
+     * Encodes with default settings, or returns the cached encoding.
+     */
+    public EncodedPolyline encode( Geometry geometry ) throws UnsupportedGeometryTypeException {
+        return encode( geometry, new PolylineEncoderSettings() );
+    }
+
+    /**
+     * Same result as {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings)}, from
+     * the cache when an identical line was encoded with equal settings before. Every call
+     * returns a new EncodedPolyline, so callers may modify it.
+     */
+    public EncodedPolyline encode( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        Key key = new Key( PolylineEncoder.getLineToEncode( geometry ).getCoordinateSequence(), settings );
+        EncodedPolyline cached = cache.get( key );
+        if( cached == null ){
+            cached = PolylineEncoder.encode( geometry, settings );
+            cache.put( key, copy( cached ) );
+            return cached;
+        }
+        return copy( cached );
+    }
+
+    /**
+     * Changes the entry count or byte bound, evicting as needed.
+     */
+    public void setMaxSize( long maxSize ){
+        cache.setMaxWeight( maxSize );
+    }
+
+    public void clear(){
+        cache.clear();
+    }
+
+    /**
+     * @return hit, miss and eviction counters; weight is in bytes for caches created with
+     * {@link #withMaxBytes(long)}
+     */
+    public CacheStats getStats(){
+        return cache.stats();
+    }
+
+    private static EncodedPolyline copy( EncodedPolyline encodedPolyline ){
+        EncodedPolyline copy = new EncodedPolyline();
+        copy.setPoints( encodedPolyline.getPoints() );
+        copy.setLevels( encodedPolyline.getLevels() );
+        return copy;
+    }
+
+    private static long byteSize( EncodedPolyline encodedPolyline ){
+        return encodedPolyline.getPoints().length() + encodedPolyline.getLevels().length();
+    }
+
+    /**
+     * Coordinate fingerprint plus a snapshot of the output-affecting settings. Two
+     * independently seeded 64 bit hashes make an accidental collision between different
+     * lines vanishingly unlikely.
+     */
+    private static final class Key {
+        private final int numPoints;
+        private final long hash1;
+        private final long hash2;
+        private final int numLevels;
+        private final int zoomFactor;
+        private final double verySmall;
+        private final boolean forceEndpoints;
+        private final SimplificationStrategy simplificationStrategy;
+        private final double prefilterDistance;
+        private final int precision;
+        private final double[] zoomLevelBreaks;
+        private final int hashCode;
+
+        Key( CoordinateSequence seq, PolylineEncoderSettings settings ) {
+            numPoints = seq.size();
+            long h1 = 0x9E3779B97F4A7C15L;
+            long h2 = 0xC2B2AE3D27D4EB4FL;
+            for( int i = 0; i < numPoints; i++ ){
+                long x = Double.doubleToLongBits( seq.getX( i ) );
+                long y = Double.doubleToLongBits( seq.getY( i ) );
+                h1 = mix( h1 ^ x ) * 31 + y;
+                h2 = mix( h2 + y ) ^ Long.rotateLeft( x, 29 );
+            }
+            hash1 = mix( h1 ^ numPoints );
+            hash2 = mix( h2 + numPoints );
+            numLevels = settings.getNumLevels();
+            zoomFactor = settings.getZoomFactor();
+            verySmall = settings.getVerySmall();
+            forceEndpoints = settings.isForceEndpoints();
+            simplificationStrategy = settings.getSimplificationStrategy();
+            prefilterDistance = settings.getPrefilterDistance();
+            precision = settings.getPrecision();
+            zoomLevelBreaks = settings.getZoomLevelBreaks() == null ? null : settings.getZoomLevelBreaks().clone();
+            hashCode = ( (int) ( hash1 ^ ( hash1 >>> 32 ) ) * 31 + precision ) * 31 + Arrays.hashCode( zoomLevelBreaks );
+        }
+
+        /** MurmurHash3 fmix64 finalizer. */
+        private static long mix( long h ){
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93fe1ec53b9L;
+            h ^= h >>> 33;
+            return h;
+        }
+
+        @Override
+        public int hashCode(){
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals( Object o ){
+            if( this == o ){
+                return true;
+            }
+            if( !( o instanceof Key ) ){
+                return false;
+            }
+            Key other = (Key) o;
+            return numPoints == other.numPoints
+                && hash1 == other.hash1
+                && hash2 == other.hash2
+                && numLevels == other.numLevels
+                && zoomFactor == other.zoomFactor
+                && Double.compare( verySmall, other.verySmall ) == 0
+                && forceEndpoints == other.forceEndpoints
+                && simplificationStrategy == other.simplificationStrategy
+                && Double.compare( prefilterDistance, other.prefilterDistance ) == 0
+                && precision == other.precision
+                && Arrays.equals( zoomLevelBreaks, other.zoomLevelBreaks );
+        }
+    }
+}
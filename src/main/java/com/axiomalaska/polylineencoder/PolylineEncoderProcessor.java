@@ -0,0 +1,347 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * {@link Flow.Processor} stage that encodes a stream of geometries or WKT strings, for
+ * feeding encodes from database cursors or message queues without collecting the input
+ * into a list first.
+ *
+ * Items are encoded on the given executor, at most parallelism at a time. At most
+ * maxInFlight items are requested from upstream that have not yet been delivered
+ * downstream, so a slow subscriber holds back the publisher and memory stays bounded
+ * however long the stream is. Results are {@link EncodeResult}s whose index is the
+ * position of the item in the stream; a failed item is reported in its own result, as in
+ * {@link PolylineBatchEncoder}. In ordered mode results are published in input order,
+ * otherwise as soon as each one completes.
+ *
+ * An error from upstream is passed on after the results of the items already received.
+ * The processor accepts one subscriber, and the settings must not be modified while it
+ * runs.
+ *
+ * @param <T> item type, Geometry or CharSequence (WKT)
+ */
+public final class PolylineEncoderProcessor<T> implements Flow.Processor<T, EncodeResult> {
+    private final ItemEncoder<T> itemEncoder;
+    private final PolylineEncoderSettings settings;
+    private final Executor executor;
+    private final int parallelism;
+    private final int maxInFlight;
+    private final boolean ordered;
+
+    private final Object lock = new Object();
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super EncodeResult> downstream;
+    private boolean downstreamReady;
+    private long demand;
+    private final ArrayDeque<Pending<T>> waiting = new ArrayDeque<Pending<T>>();
+    private long received;
+    private int inFlight;
+    private int running;
+    //completed results: a ring indexed by position in ordered mode, a queue otherwise
+    private final EncodeResult[] ring;
+    private long nextToEmit;
+    private final ArrayDeque<EncodeResult> completed;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+    private boolean cancelled;
+    private boolean terminated;
+    private boolean draining;
+    private boolean missed;
+
+    private PolylineEncoderProcessor( ItemEncoder<T> itemEncoder, PolylineEncoderSettings settings, Executor executor, int parallelism, int maxInFlight, boolean ordered ) {
+        if( parallelism < 1 ){
+            throw new IllegalArgumentException( "parallelism must be positive, was " + parallelism );
+        }
+        if( maxInFlight < parallelism ){
+            throw new IllegalArgumentException( "maxInFlight must be at least parallelism (" + parallelism + "), was " + maxInFlight );
+        }
+        this.itemEncoder = itemEncoder;
+        this.settings = settings;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        this.ring = ordered ? new EncodeResult[ maxInFlight ] : null;
+        this.completed = ordered ? null : new ArrayDeque<EncodeResult>();
+    }
+
+    /**
+     * Ordered processor for geometries on the common fork-join pool, with parallelism set to
+     * the pool's and up to four items in flight per worker.
+     */
+    public static PolylineEncoderProcessor<Geometry> forGeometries( PolylineEncoderSettings settings ){
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return forGeometries( settings, ForkJoinPool.commonPool(), parallelism, parallelism * 4, true );
+    }
+
+    /**
+     * @param settings encoding settings shared by every item
+     * @param executor executor the encodes run on
+     * @param parallelism maximum number of items encoded at once
+     * @param maxInFlight maximum number of items requested but not yet published, at least
+     * parallelism
+     * @param ordered whether results are published in input order
+     */
+    public static PolylineEncoderProcessor<Geometry> forGeometries( PolylineEncoderSettings settings, Executor executor, int parallelism, int maxInFlight, boolean ordered ){
+        return new PolylineEncoderProcessor<Geometry>( PolylineEncoder::encode, settings, executor, parallelism, maxInFlight, ordered );
+    }
+
+    /**
+     * Ordered processor for LineString or Polygon WKT on the common fork-join pool, see
+     * {@link #forGeometries(PolylineEncoderSettings)}.
+     */
+    public static PolylineEncoderProcessor<CharSequence> forWkt( PolylineEncoderSettings settings ){
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return forWkt( settings, ForkJoinPool.commonPool(), parallelism, parallelism * 4, true );
+    }
+
+    /**
+     * Processor for LineString or Polygon WKT, parsed with
+     * {@link PolylineEncoder#encodeWkt(CharSequence, PolylineEncoderSettings)}. Parameters
+     * as for {@link #forGeometries(PolylineEncoderSettings, Executor, int, int, boolean)}.
+     */
+    public static PolylineEncoderProcessor<CharSequence> forWkt( PolylineEncoderSettings settings, Executor executor, int parallelism, int maxInFlight, boolean ordered ){
+        return new PolylineEncoderProcessor<CharSequence>( PolylineEncoder::encodeWkt, settings, executor, parallelism, maxInFlight, ordered );
+    }
+
+    @Override
+    public void onSubscribe( Flow.Subscription subscription ){
+        synchronized( lock ){
+            if( upstream != null || cancelled ){
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        subscription.request( maxInFlight );
+    }
+
+    @Override
+    public void onNext( T item ){
+        Flow.Subscription overflowed = null;
+        synchronized( lock ){
+            if( upstreamDone || cancelled ){
+                return;
+            }
+            if( inFlight == maxInFlight ){
+                upstreamDone = true;
+                upstreamError = new IllegalStateException( "received more items than requested" );
+                overflowed = upstream;
+            } else {
+                waiting.add( new Pending<T>( received++, item ) );
+                inFlight++;
+            }
+        }
+        if( overflowed != null ){
+            overflowed.cancel();
+        }
+        drain();
+    }
+
+    @Override
+    public void onError( Throwable throwable ){
+        synchronized( lock ){
+            if( upstreamDone ){
+                return;
+            }
+            upstreamDone = true;
+            upstreamError = throwable;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete(){
+        synchronized( lock ){
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void subscribe( Flow.Subscriber<? super EncodeResult> subscriber ){
+        synchronized( lock ){
+            if( downstream != null ){
+                subscriber.onSubscribe( new Flow.Subscription() {
+                    public void request( long n ){
+                    }
+                    public void cancel(){
+                    }
+                });
+                subscriber.onError( new IllegalStateException( "only one subscriber is supported" ) );
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe( new Flow.Subscription() {
+            public void request( long n ){
+                if( n <= 0 ){
+                    fail( new IllegalArgumentException( "request must be positive, was " + n ) );
+                    return;
+                }
+                synchronized( lock ){
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                drain();
+            }
+
+            public void cancel(){
+                Flow.Subscription s;
+                synchronized( lock ){
+                    cancelled = true;
+                    s = upstream;
+                }
+                if( s != null ){
+                    s.cancel();
+                }
+            }
+        });
+        synchronized( lock ){
+            downstreamReady = true;
+        }
+        drain();
+    }
+
+    private void fail( Throwable error ){
+        Flow.Subscription s;
+        synchronized( lock ){
+            if( upstreamDone && upstreamError != null ){
+                return;
+            }
+            upstreamDone = true;
+            upstreamError = error;
+            s = upstream;
+        }
+        if( s != null ){
+            s.cancel();
+        }
+        drain();
+    }
+
+    /**
+     * Starts encodes and publishes results until nothing more can be done. Only one thread
+     * drains at a time; others record that they missed and leave it to that thread, which
+     * keeps onNext calls serialized and never made while holding the lock.
+     */
+    private void drain(){
+        synchronized( lock ){
+            if( draining ){
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+        for(;;){
+            Pending<T> start = null;
+            EncodeResult emit = null;
+            Flow.Subscription replenish = null;
+            boolean terminate = false;
+            Throwable error = null;
+            synchronized( lock ){
+                if( cancelled ){
+                    waiting.clear();
+                    if( completed != null ){
+                        completed.clear();
+                    }
+                    draining = false;
+                    return;
+                }
+                if( running < parallelism && !waiting.isEmpty() ){
+                    start = waiting.poll();
+                    running++;
+                } else if( downstreamReady && demand > 0 && ( emit = pollCompleted() ) != null ){
+                    demand--;
+                    inFlight--;
+                    replenish = upstreamDone ? null : upstream;
+                } else if( downstreamReady && upstreamDone && inFlight == 0 && !terminated ){
+                    terminated = true;
+                    terminate = true;
+                    error = upstreamError;
+                } else if( missed ){
+                    missed = false;
+                    continue;
+                } else {
+                    draining = false;
+                    return;
+                }
+            }
+            if( start != null ){
+                execute( start );
+            } else if( emit != null ){
+                downstream.onNext( emit );
+                if( replenish != null ){
+                    replenish.request( 1 );
+                }
+            } else if( terminate ){
+                if( error != null ){
+                    downstream.onError( error );
+                } else {
+                    downstream.onComplete();
+                }
+            }
+        }
+    }
+
+    private EncodeResult pollCompleted(){
+        if( !ordered ){
+            return completed.poll();
+        }
+        int slot = (int) ( nextToEmit % maxInFlight );
+        EncodeResult result = ring[ slot ];
+        if( result != null ){
+            ring[ slot ] = null;
+            nextToEmit++;
+        }
+        return result;
+    }
+
+    private void execute( Pending<T> pending ){
+        try {
+            executor.execute( () -> complete( pending.position, encode( pending ) ) );
+        } catch( RejectedExecutionException e ){
+            complete( pending.position, EncodeResult.failure( pending.position, e ) );
+        }
+    }
+
+    private EncodeResult encode( Pending<T> pending ){
+        long index = pending.position;
+        try {
+            return EncodeResult.success( index, itemEncoder.encode( pending.item, settings ) );
+        } catch( Exception e ){
+            return EncodeResult.failure( index, e );
+        }
+    }
+
+    private void complete( long position, EncodeResult result ){
+        synchronized( lock ){
+            running--;
+            if( ordered ){
+                ring[ (int) ( position % maxInFlight ) ] = result;
+            } else {
+                completed.add( result );
+            }
+        }
+        drain();
+    }
+
+    private interface ItemEncoder<T> {
+        EncodedPolyline encode( T item, PolylineEncoderSettings settings ) throws Exception;
+    }
+
+    private static final class Pending<T> {
+        final long position;
+        final T item;
+
+        Pending( long position, T item ) {
+            this.position = position;
+            this.item = item;
+        }
+    }
+}
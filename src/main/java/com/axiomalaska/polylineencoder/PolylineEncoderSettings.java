@@ -6,6 +6,10 @@ public class PolylineEncoderSettings {
     private double verySmall = 0.00001;
     private boolean forceEndpoints = true;
     private double[] zoomLevelBreaks;
+    private int parallelThreshold = 0;
+    private SimplificationStrategy simplificationStrategy = SimplificationStrategy.DOUGLAS_PEUCKER;
+    private double prefilterDistance = -1;
+    private int precision = 5;
 
     public PolylineEncoderSettings(int numLevels, int zoomFactor, double verySmall, boolean forceEndpoints) {
         this.numLevels = numLevels;
@@ -31,24 +35,36 @@ public class PolylineEncoderSettings {
         return numLevels;
     }
 
+    /**
+     * Also recomputes the zoom level breaks, replacing any set with {@link #setZoomLevelBreaks(double[])}.
+     */
     public void setNumLevels(int numLevels) {
         this.numLevels = numLevels;
+        initZoomLevelBreaks();
     }
 
     public int getZoomFactor() {
         return zoomFactor;
     }
 
+    /**
+     * Recomputes the zoom level breaks, like {@link #setNumLevels(int)}.
+     */
     public void setZoomFactor(int zoomFactor) {
         this.zoomFactor = zoomFactor;
+        initZoomLevelBreaks();
     }
 
     public double getVerySmall() {
         return verySmall;
     }
 
+    /**
+     * Recomputes the zoom level breaks, like {@link #setNumLevels(int)}.
+     */
     public void setVerySmall(double verySmall) {
         this.verySmall = verySmall;
+        initZoomLevelBreaks();
     }
 
     public boolean isForceEndpoints() {
@@ -59,6 +75,56 @@ public class PolylineEncoderSettings {
         this.forceEndpoints = forceEndpoints;
     }
 
+    /**
+     * Lines with more points than this are simplified with fork-join parallelism, splitting
+     * ranges longer than this into separate tasks. The result is identical to the sequential
+     * algorithm. 0 (the default) always simplifies sequentially.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Algorithm choosing the encoded vertices and their levels, Douglas-Peucker by default.
+     */
+    public SimplificationStrategy getSimplificationStrategy() {
+        return simplificationStrategy;
+    }
+
+    public void setSimplificationStrategy(SimplificationStrategy simplificationStrategy) {
+        this.simplificationStrategy = simplificationStrategy;
+    }
+
+    /**
+     * Before simplifying, vertices at this distance or closer to the previous kept vertex
+     * are dropped in one linear pass. 0 drops only repeated points; negative (the default)
+     * disables the prefilter.
+     */
+    public double getPrefilterDistance() {
+        return prefilterDistance;
+    }
+
+    public void setPrefilterDistance(double prefilterDistance) {
+        this.prefilterDistance = prefilterDistance;
+    }
+
+    /**
+     * Number of decimal digits the points are encoded with: 5 (the default) as in
+     * Google's format, or 6 as used by OSRM and Valhalla. Decode with the same precision,
+     * see {@link PolylineDecoder#decode(CharSequence, int, double[])}.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
     public double[] getZoomLevelBreaks() {
         return zoomLevelBreaks;
     }
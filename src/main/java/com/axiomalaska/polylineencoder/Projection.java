@@ -0,0 +1,256 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Map projection from geographic longitude/latitude in degrees, computed in plain Java.
+ * Both directions work in place on interleaved x/y pairs, x being longitude or easting.
+ */
+abstract class Projection {
+    static final double RADIANS = Math.PI / 180;
+    static final double DEGREES = 180 / Math.PI;
+
+    /**
+     * Projects numPoints longitude/latitude pairs starting at coords[offset].
+     */
+    abstract void forward( double[] coords, int offset, int numPoints );
+
+    /**
+     * Unprojects numPoints easting/northing pairs starting at coords[offset].
+     */
+    abstract void inverse( double[] coords, int offset, int numPoints );
+
+    /**
+     * @return first eccentricity of an ellipsoid with this flattening
+     */
+    static double eccentricity( double flattening ){
+        return Math.sqrt( flattening * ( 2 - flattening ) );
+    }
+
+    /**
+     * Longitude difference in radians, wrapped into [-pi, pi].
+     */
+    static double wrapLongitude( double lambda ){
+        if( lambda > Math.PI || lambda < -Math.PI ){
+            lambda -= 2 * Math.PI * Math.floor( ( lambda + Math.PI ) / ( 2 * Math.PI ) );
+        }
+        return lambda;
+    }
+
+    /**
+     * Spherical Web Mercator, see {@link WebMercator}. Unlike the encoder, latitudes are
+     * not clamped, so results match GeoTools up to the poles.
+     */
+    static final class Mercator extends Projection {
+        @Override
+        void forward( double[] coords, int offset, int numPoints ){
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                double lng = coords[i];
+                coords[i] = WebMercator.x( lng );
+                coords[ i + 1 ] = WebMercator.unclampedY( coords[ i + 1 ] );
+            }
+        }
+
+        @Override
+        void inverse( double[] coords, int offset, int numPoints ){
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                coords[i] = WebMercator.longitude( coords[i] );
+                coords[ i + 1 ] = WebMercator.latitude( coords[ i + 1 ] );
+            }
+        }
+    }
+
+    /**
+     * Ellipsoidal Transverse Mercator (as used by UTM) with the Krueger series to sixth
+     * order in the third flattening, accurate to well under a millimeter within a few
+     * thousand kilometers of the central meridian.
+     */
+    static final class TransverseMercator extends Projection {
+        private final double e;
+        private final double oneMinusE2;
+        private final double scaledA;
+        private final double[] alpha;
+        private final double[] beta;
+        private final double centralMeridian;
+        private final double falseEasting;
+        private final double falseNorthing;
+
+        TransverseMercator( double a, double flattening, double scale, double centralMeridian, double falseEasting, double falseNorthing ) {
+            this.e = eccentricity( flattening );
+            this.oneMinusE2 = 1 - e * e;
+            double n = flattening / ( 2 - flattening );
+            double n2 = n * n;
+            double n3 = n2 * n;
+            double n4 = n3 * n;
+            double n5 = n4 * n;
+            double n6 = n5 * n;
+            this.scaledA = scale * a / ( 1 + n ) * ( 1 + n2 / 4 + n4 / 64 + n6 / 256 );
+            this.alpha = new double[]{
+                n / 2 - 2 * n2 / 3 + 5 * n3 / 16 + 41 * n4 / 180 - 127 * n5 / 288 + 7891 * n6 / 37800,
+                13 * n2 / 48 - 3 * n3 / 5 + 557 * n4 / 1440 + 281 * n5 / 630 - 1983433 * n6 / 1935360,
+                61 * n3 / 240 - 103 * n4 / 140 + 15061 * n5 / 26880 + 167603 * n6 / 181440,
+                49561 * n4 / 161280 - 179 * n5 / 168 + 6601661 * n6 / 7257600,
+                34729 * n5 / 80640 - 3418889 * n6 / 1995840,
+                212378941 * n6 / 319334400
+            };
+            this.beta = new double[]{
+                n / 2 - 2 * n2 / 3 + 37 * n3 / 96 - n4 / 360 - 81 * n5 / 512 + 96199 * n6 / 604800,
+                n2 / 48 + n3 / 15 - 437 * n4 / 1440 + 46 * n5 / 105 - 1118711 * n6 / 3870720,
+                17 * n3 / 480 - 37 * n4 / 840 - 209 * n5 / 4480 + 5569 * n6 / 90720,
+                4397 * n4 / 161280 - 11 * n5 / 504 - 830251 * n6 / 7257600,
+                4583 * n5 / 161280 - 108847 * n6 / 3991680,
+                20648693 * n6 / 638668800
+            };
+            this.centralMeridian = centralMeridian * RADIANS;
+            this.falseEasting = falseEasting;
+            this.falseNorthing = falseNorthing;
+        }
+
+        @Override
+        void forward( double[] coords, int offset, int numPoints ){
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                double lambda = wrapLongitude( coords[i] * RADIANS - centralMeridian );
+                double phi = coords[ i + 1 ] * RADIANS;
+                double tau = Math.tan( phi );
+                double sigma = Math.sinh( e * atanh( e * tau / Math.hypot( 1, tau ) ) );
+                double tauPrime = tau * Math.hypot( 1, sigma ) - sigma * Math.hypot( 1, tau );
+                double cosLambda = Math.cos( lambda );
+                double xiPrime = Math.atan2( tauPrime, cosLambda );
+                double etaPrime = asinh( Math.sin( lambda ) / Math.hypot( tauPrime, cosLambda ) );
+                double xi = xiPrime;
+                double eta = etaPrime;
+                for( int j = 1; j <= 6; j++ ){
+                    xi += alpha[ j - 1 ] * Math.sin( 2 * j * xiPrime ) * Math.cosh( 2 * j * etaPrime );
+                    eta += alpha[ j - 1 ] * Math.cos( 2 * j * xiPrime ) * Math.sinh( 2 * j * etaPrime );
+                }
+                coords[i] = falseEasting + scaledA * eta;
+                coords[ i + 1 ] = falseNorthing + scaledA * xi;
+            }
+        }
+
+        @Override
+        void inverse( double[] coords, int offset, int numPoints ){
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                double eta = ( coords[i] - falseEasting ) / scaledA;
+                double xi = ( coords[ i + 1 ] - falseNorthing ) / scaledA;
+                double xiPrime = xi;
+                double etaPrime = eta;
+                for( int j = 1; j <= 6; j++ ){
+                    xiPrime -= beta[ j - 1 ] * Math.sin( 2 * j * xi ) * Math.cosh( 2 * j * eta );
+                    etaPrime -= beta[ j - 1 ] * Math.cos( 2 * j * xi ) * Math.sinh( 2 * j * eta );
+                }
+                double sinhEtaPrime = Math.sinh( etaPrime );
+                double cosXiPrime = Math.cos( xiPrime );
+                double tauPrime = Math.sin( xiPrime ) / Math.hypot( sinhEtaPrime, cosXiPrime );
+
+                //Newton's method for tau = tan(phi)
+                double tau = tauPrime;
+                for( int iteration = 0; iteration < 10; iteration++ ){
+                    double sigma = Math.sinh( e * atanh( e * tau / Math.hypot( 1, tau ) ) );
+                    double tauI = tau * Math.hypot( 1, sigma ) - sigma * Math.hypot( 1, tau );
+                    double delta = ( tauPrime - tauI ) / Math.hypot( 1, tauI )
+                        * ( 1 + oneMinusE2 * tau * tau ) / ( oneMinusE2 * Math.hypot( 1, tau ) );
+                    tau += delta;
+                    if( Math.abs( delta ) < 1e-12 ){
+                        break;
+                    }
+                }
+                coords[i] = ( centralMeridian + Math.atan2( sinhEtaPrime, cosXiPrime ) ) * DEGREES;
+                coords[ i + 1 ] = Math.atan( tau ) * DEGREES;
+            }
+        }
+    }
+
+    /**
+     * Ellipsoidal Albers Equal-Area Conic with two standard parallels (Snyder, Map
+     * Projections: A Working Manual, p. 101).
+     */
+    static final class AlbersEqualArea extends Projection {
+        private final double a;
+        private final double e;
+        private final double e2;
+        private final double n;
+        private final double c;
+        private final double rho0;
+        private final double centralMeridian;
+        private final double falseEasting;
+        private final double falseNorthing;
+
+        AlbersEqualArea( double a, double flattening, double standardParallel1, double standardParallel2, double latitudeOfOrigin, double centralMeridian, double falseEasting, double falseNorthing ) {
+            this.a = a;
+            this.e = eccentricity( flattening );
+            this.e2 = e * e;
+            double phi1 = standardParallel1 * RADIANS;
+            double phi2 = standardParallel2 * RADIANS;
+            double m1 = m( phi1 );
+            double m2 = m( phi2 );
+            double q1 = q( phi1 );
+            double q2 = q( phi2 );
+            this.n = ( m1 * m1 - m2 * m2 ) / ( q2 - q1 );
+            this.c = m1 * m1 + n * q1;
+            this.rho0 = a * Math.sqrt( c - n * q( latitudeOfOrigin * RADIANS ) ) / n;
+            this.centralMeridian = centralMeridian * RADIANS;
+            this.falseEasting = falseEasting;
+            this.falseNorthing = falseNorthing;
+        }
+
+        private double m( double phi ){
+            double sinPhi = Math.sin( phi );
+            return Math.cos( phi ) / Math.sqrt( 1 - e2 * sinPhi * sinPhi );
+        }
+
+        private double q( double phi ){
+            double sinPhi = Math.sin( phi );
+            double eSinPhi = e * sinPhi;
+            return ( 1 - e2 ) * ( sinPhi / ( 1 - eSinPhi * eSinPhi ) - Math.log( ( 1 - eSinPhi ) / ( 1 + eSinPhi ) ) / ( 2 * e ) );
+        }
+
+        @Override
+        void forward( double[] coords, int offset, int numPoints ){
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                double theta = n * wrapLongitude( coords[i] * RADIANS - centralMeridian );
+                double rho = a * Math.sqrt( c - n * q( coords[ i + 1 ] * RADIANS ) ) / n;
+                coords[i] = falseEasting + rho * Math.sin( theta );
+                coords[ i + 1 ] = falseNorthing + rho0 - rho * Math.cos( theta );
+            }
+        }
+
+        @Override
+        void inverse( double[] coords, int offset, int numPoints ){
+            double qPole = q( Math.PI / 2 );
+            for( int i = offset, end = offset + numPoints * 2; i < end; i += 2 ){
+                double x = coords[i] - falseEasting;
+                double y = rho0 - ( coords[ i + 1 ] - falseNorthing );
+                double rho = Math.hypot( x, y );
+                double theta = n < 0 ? Math.atan2( -x, -y ) : Math.atan2( x, y );
+                double qValue = ( c - rho * rho * n * n / ( a * a ) ) / n;
+
+                double phi;
+                if( Math.abs( Math.abs( qValue ) - qPole ) < 1e-12 ){
+                    phi = Math.copySign( Math.PI / 2, qValue );
+                } else {
+                    phi = Math.asin( Math.max( -1, Math.min( 1, qValue / 2 ) ) );
+                    for( int iteration = 0; iteration < 15; iteration++ ){
+                        double sinPhi = Math.sin( phi );
+                        double eSinPhi = e * sinPhi;
+                        double oneMinus = 1 - eSinPhi * eSinPhi;
+                        double delta = oneMinus * oneMinus / ( 2 * Math.cos( phi ) )
+                            * ( qValue / ( 1 - e2 ) - sinPhi / oneMinus + Math.log( ( 1 - eSinPhi ) / ( 1 + eSinPhi ) ) / ( 2 * e ) );
+                        phi += delta;
+                        if( Math.abs( delta ) < 1e-12 ){
+                            break;
+                        }
+                    }
+                }
+                coords[i] = ( centralMeridian + theta / n ) * DEGREES;
+                coords[ i + 1 ] = phi * DEGREES;
+            }
+        }
+    }
+
+    private static double atanh( double x ){
+        return 0.5 * Math.log( ( 1 + x ) / ( 1 - x ) );
+    }
+
+    private static double asinh( double x ){
+        return Math.copySign( Math.log( Math.abs( x ) + Math.sqrt( x * x + 1 ) ), x );
+    }
+}
@@ -0,0 +1,49 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Linear prefilter run before simplification: drops every vertex within a given distance
+ * of the last vertex kept, which removes repeated points and collapses the dense clusters
+ * GPS tracks produce while stationary. The first and last vertices are always kept.
+ */
+final class RadialDistanceFilter {
+    private RadialDistanceFilter() {
+    }
+
+    /**
+     * Copies the vertices to keep into outXs/outYs, which may be xs/ys themselves.
+     *
+     * @param tolerance vertices at this distance or closer to the last kept vertex are dropped;
+     * 0 drops only repeated points
+     * @param keptIndexes if not null, receives the index in xs/ys of each kept vertex
+     * @return number of vertices kept
+     */
+    static int filter( double[] xs, double[] ys, int numPoints, double tolerance, double[] outXs, double[] outYs, int[] keptIndexes ){
+        if( numPoints == 0 ){
+            return 0;
+        }
+        double toleranceSq = tolerance * tolerance;
+        double lastX = xs[0];
+        double lastY = ys[0];
+        outXs[0] = lastX;
+        outYs[0] = lastY;
+        if( keptIndexes != null ){
+            keptIndexes[0] = 0;
+        }
+        int kept = 1;
+        for( int i = 1; i < numPoints; i++ ){
+            double dx = xs[i] - lastX;
+            double dy = ys[i] - lastY;
+            if( dx * dx + dy * dy > toleranceSq || i == numPoints - 1 ){
+                lastX = xs[i];
+                lastY = ys[i];
+                outXs[ kept ] = lastX;
+                outYs[ kept ] = lastY;
+                if( keptIndexes != null ){
+                    keptIndexes[ kept ] = i;
+                }
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
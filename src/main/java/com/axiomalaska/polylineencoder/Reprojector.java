@@ -1,6 +1,11 @@
 package com.axiomalaska.polylineencoder;
 
-import org.geotools.geometry.DirectPosition2D;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.operation.DefaultCoordinateOperationFactory;
 import org.opengis.geometry.MismatchedDimensionException;
@@ -16,101 +21,492 @@ import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
-import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 
+/**
+ * Reprojects JTS geometries between EPSG coordinate reference systems.
+ *
+ * Reprojections between the systems in {@link BuiltInCrs} are computed in plain Java and
+ * never touch GeoTools, so services that only use those do not pay for booting the EPSG
+ * database. For any other SRID the GeoTools factory is loaded on first use. As with
+ * GeoTools, geographic coordinates are latitude first unless the system property
+ * {@value #FORCE_XY_PROPERTY} is true.
+ *
+ * Decoded CRSs and the MathTransforms between them are cached, so only the first
+ * reprojection between two SRIDs pays for the EPSG database lookup. The transform cache
+ * is bounded (LRU, {@value #DEFAULT_TRANSFORM_CACHE_SIZE} pairs by default); call
+ * {@link #warmUp(int...)} at start up to move the initial lookups out of the first request,
+ * or {@link #preloadEpsgDatabase()} to boot the EPSG database before it is needed.
+ */
 public class Reprojector {   
+    public static final int DEFAULT_TRANSFORM_CACHE_SIZE = 64;
+    public static final String FORCE_XY_PROPERTY = "org.geotools.referencing.forceXY";
+    private static final int WGS84_SRID = 4326;
+    private static final boolean LONGITUDE_FIRST = Boolean.getBoolean( FORCE_XY_PROPERTY );
+    private static final String[] REPROJECTABLE_TYPES = new String[]{"POINT","LINESTRING","LINEARRING","POLYGON","MULTIPOINT","MULTILINESTRING","MULTIPOLYGON","GEOMETRYCOLLECTION"};
+
+    private static final BoundedCache<Long, MathTransform> TRANSFORMS = new BoundedCache<Long, MathTransform>( DEFAULT_TRANSFORM_CACHE_SIZE );
+    private static final ConcurrentMap<Integer, CoordinateReferenceSystem> CRS_BY_SRID = new ConcurrentHashMap<Integer, CoordinateReferenceSystem>();
+
     public static Geometry reproject( String wkt, int fromSrid, int toSrid) throws MismatchedDimensionException, NoSuchAuthorityCodeException, FactoryException, UnsupportedGeometryTypeException, TransformException, ParseException{
         return reproject( WktUtil.wktToGeom( wkt, fromSrid ), toSrid );
     }
     
     public static Geometry reproject( Geometry geom, int toSrid) throws NoSuchAuthorityCodeException, FactoryException, UnsupportedGeometryTypeException, MismatchedDimensionException, TransformException{
-        DefaultCoordinateOperationFactory trFactory = new DefaultCoordinateOperationFactory();
-
-        CoordinateReferenceSystem sourceCS = CRS.decode("EPSG:" + geom.getSRID() );
-        CoordinateReferenceSystem targetCS = CRS.decode("EPSG:" + toSrid );
-        CoordinateOperation tr = trFactory.createOperation(sourceCS, targetCS);
-        MathTransform mtrans = tr.getMathTransform();
-        
-        Geometry newGeom = null;
-        GeometryFactory geomFactory = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), toSrid );
-        switch( getGeometryType( geom ) ){
-            case POINT:
-                Point point = (Point) geom;
-                DirectPosition2D point2d = new DirectPosition2D( point.getX(), point.getY() );               
-                mtrans.transform( point2d, point2d ); 
-                newGeom = geomFactory.createPoint( new Coordinate( point2d.getX(), point2d.getY() ) );
-                break;
-            case LINESTRING: 
-                newGeom = reprojectLineString( geomFactory, mtrans, (LineString) geom );
-                break;
-            case POLYGON:
-                Polygon polygon = (Polygon) geom;
-                LinearRing shell = lineStringToLinearRing( reprojectLineString( geomFactory, mtrans, polygon.getExteriorRing() ) );
-                int numHoles = polygon.getNumInteriorRing();
-                LinearRing[] holes = new LinearRing[ numHoles ];
-                for( int i = 0; i < numHoles; i++ ){
-                    holes[i] = lineStringToLinearRing( reprojectLineString( geomFactory, mtrans, polygon.getInteriorRingN(i) ) );
-                }                
-                newGeom = geomFactory.createPolygon(shell, holes);
-                break;
-        }
-        
+        return reproject( geom, toSrid, 0 );
+    }
+
+    /**
+     * Reprojects a geometry of any type. All of its coordinates (every ring and every part
+     * of a multi-geometry) are packed into one array and transformed with a single batched
+     * call, and the result is built on {@link PackedCoordinateSequence}s without creating
+     * an object per vertex. Only x and y are kept.
+     *
+     * @param geom geometry with its SRID set
+     * @param toSrid target EPSG code
+     * @param parallelThreshold geometries with more vertices than this are transformed in
+     * chunks of at most this many vertices on the common fork-join pool; 0 transforms on the
+     * calling thread
+     * @return
+     */
+    public static Geometry reproject( Geometry geom, int toSrid, int parallelThreshold ) throws NoSuchAuthorityCodeException, FactoryException, UnsupportedGeometryTypeException, MismatchedDimensionException, TransformException{
+        Instrumentation.ReprojectEvent event = new Instrumentation.ReprojectEvent();
+        boolean measured = Instrumentation.isEnabled( event );
+        long start = 0;
+        if( measured ){
+            event.begin();
+            start = System.nanoTime();
+        }
+        PointTransform mtrans = getPointTransform( geom.getSRID(), toSrid );
+        long lookedUp = measured ? System.nanoTime() : 0;
+
+        int numPoints = geom.getNumPoints();
+        double[] coords = new double[ numPoints * 2 ];
+        pack( geom, coords, 0 );
+        transform( mtrans, coords, numPoints, parallelThreshold );
+        Geometry newGeom = unpack( geom, coords, new int[ 1 ], GeometryFactories.forSrid( toSrid ) );
+
+        if( measured ){
+            Instrumentation.reprojected( event, geom.getSRID(), toSrid, numPoints, lookedUp - start, System.nanoTime() - lookedUp );
+        }
         return newGeom;
     }
-    
-    private static LinearRing lineStringToLinearRing( LineString lineString ){
-        GeometryFactory geomFactory = new GeometryFactory( lineString.getPrecisionModel(), lineString.getSRID() );
-        Coordinate[] newCoords = null;
-        if( !lineString.getStartPoint().equals( lineString.getEndPoint() ) ){
-            newCoords = new Coordinate[ lineString.getNumPoints() + 1 ];
-            for( int i = 0, len = lineString.getNumPoints(); i < len; i++ ){
-                newCoords[i] = lineString.getCoordinateN(i);
-            }
-            newCoords[ lineString.getNumPoints() ] = lineString.getCoordinateN(0);
-        } else {
-            newCoords = lineString.getCoordinates();
+
+    /**
+     * Encodes a LineString or Polygon with the simplification distances measured in another
+     * coordinate reference system, such as a projection in meters, and the encoded points in
+     * longitude/latitude (EPSG:4326). Coordinates are transformed in bulk with the cached
+     * transforms into packed arrays, without building intermediate geometries.
+     * Web Mercator (EPSG:3857) from or to EPSG:4326 is computed inline without GeoTools,
+     * see {@link PolylineEncoder#encodeWebMercator(Geometry, PolylineEncoderSettings)}, and
+     * the other {@link BuiltInCrs} systems without the EPSG database. Geographic
+     * coordinates are always read longitude first, whatever the axis order of the
+     * EPSG definition or {@value #FORCE_XY_PROPERTY}.
+     *
+     * @param geom geometry with its SRID set
+     * @param simplifySrid EPSG code of the system distances are measured in
+     * @param settings encoding settings, distances in units of simplifySrid
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     * @throws NoSuchAuthorityCodeException if either code is unknown
+     * @throws FactoryException if a transform cannot be created
+     * @throws TransformException if a coordinate cannot be transformed
+     */
+    public static EncodedPolyline encodeProjected( Geometry geom, int simplifySrid, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, NoSuchAuthorityCodeException, FactoryException, TransformException{
+        int srid = geom.getSRID();
+        if( simplifySrid == WebMercator.SRID && ( srid == WGS84_SRID || srid == WebMercator.SRID ) ){
+            return PolylineEncoder.encodeWebMercator( geom, settings );
+        }
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geom ).getCoordinateSequence();
+        int numPoints = seq.size();
+        double[] coords = new double[ numPoints * 2 ];
+        pack( seq, coords, 0 );
+        double[] lngLats = transform( coords, numPoints, srid, WGS84_SRID );
+        double[] projected = transform( coords, numPoints, srid, simplifySrid );
+
+        double[] lngs = new double[ numPoints ];
+        double[] lats = new double[ numPoints ];
+        double[] projectedXs = new double[ numPoints ];
+        double[] projectedYs = new double[ numPoints ];
+        for( int i = 0; i < numPoints; i++ ){
+            lngs[i] = lngLats[ i * 2 ];
+            lats[i] = lngLats[ ( i * 2 ) + 1 ];
+            projectedXs[i] = projected[ i * 2 ];
+            projectedYs[i] = projected[ ( i * 2 ) + 1 ];
         }
-        return geomFactory.createLinearRing( newCoords );
+        return PolylineEncoder.encodeProjected( lngs, lats, projectedXs, projectedYs, numPoints, settings );
     }
-    
-    private static LineString reprojectLineString( GeometryFactory geomFactory, MathTransform mtrans, LineString lineString ) throws TransformException{
-        int numPoints = lineString.getNumPoints();
-        double points[] = new double[ numPoints * 2 ];
+
+    /**
+     * Like {@link #encodeProjected(Geometry, int, PolylineEncoderSettings)} with a transform
+     * the caller already holds.
+     *
+     * @param geom LineString or Polygon in longitude/latitude
+     * @param toProjected transform from the geometry's coordinates to the system distances
+     * are measured in
+     */
+    public static EncodedPolyline encodeProjected( Geometry geom, MathTransform toProjected, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, TransformException{
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geom ).getCoordinateSequence();
+        int numPoints = seq.size();
+        double[] lngs = new double[ numPoints ];
+        double[] lats = new double[ numPoints ];
+        double[] projected = new double[ numPoints * 2 ];
         for( int i = 0; i < numPoints; i++ ){
-            points[ i * 2 ] = lineString.getPointN( i ).getX();
-            points[ ( i * 2 ) + 1 ] = lineString.getPointN( i ).getY();
+            lngs[i] = seq.getX( i );
+            lats[i] = seq.getY( i );
+            projected[ i * 2 ] = lngs[i];
+            projected[ ( i * 2 ) + 1 ] = lats[i];
         }
-        
-        mtrans.transform( points, 0, points, 0, numPoints );
-        
-        Coordinate[] newCoordinates = new Coordinate[ numPoints ];
+        toProjected.transform( projected, 0, projected, 0, numPoints );
+        double[] projectedXs = new double[ numPoints ];
+        double[] projectedYs = new double[ numPoints ];
         for( int i = 0; i < numPoints; i++ ){
-            newCoordinates[i] = new Coordinate( points[i], points[i + 1] );
+            projectedXs[i] = projected[ i * 2 ];
+            projectedYs[i] = projected[ ( i * 2 ) + 1 ];
         }
-        return geomFactory.createLineString( newCoordinates );        
+        return PolylineEncoder.encodeProjected( lngs, lats, projectedXs, projectedYs, numPoints, settings );
     }
-    
-    private static GeometryType getGeometryType( Geometry geom ) throws UnsupportedGeometryTypeException{
-        String geomType = geom.getGeometryType().toUpperCase();
-        String[] validTypes = new String[ GeometryType.values().length ];
-        
-        int i = 0;
-        for( GeometryType geoType : GeometryType.values() ){
-            if( geomType.equals( geoType.toString() ) ){
-                return geoType; 
+
+    /**
+     * @return interleaved coordinates, east/longitude first, transformed from fromSrid to
+     * toSrid, or coords itself if they are the same system
+     */
+    private static double[] transform( double[] coords, int numPoints, int fromSrid, int toSrid ) throws NoSuchAuthorityCodeException, FactoryException, TransformException{
+        if( fromSrid == toSrid ){
+            return coords;
+        }
+        double[] transformed = new double[ numPoints * 2 ];
+        System.arraycopy( coords, 0, transformed, 0, numPoints * 2 );
+        BuiltInCrs.Transform builtIn = BuiltInCrs.find( fromSrid, toSrid );
+        if( builtIn != null ){
+            builtIn.transform( transformed, 0, numPoints );
+        } else {
+            // GeoTools follows the EPSG axis order, e.g. latitude first for EPSG:4326
+            if( isNorthEast( fromSrid ) ){
+                swapOrdinates( transformed, 0, numPoints );
+            }
+            getMathTransform( fromSrid, toSrid ).transform( transformed, 0, transformed, 0, numPoints );
+            if( isNorthEast( toSrid ) ){
+                swapOrdinates( transformed, 0, numPoints );
             }
-            validTypes[ i++ ] = geoType.toString();
         }
-        throw new UnsupportedGeometryTypeException( geomType, validTypes );
+        return transformed;
+    }
+
+    private static boolean isNorthEast( int srid ) throws NoSuchAuthorityCodeException, FactoryException{
+        return CRS.getAxisOrder( getCoordinateReferenceSystem( srid ) ) == CRS.AxisOrder.NORTH_EAST;
+    }
+
+    /**
+     * @return the built in transform between two EPSG codes in this class's axis order, or
+     * the GeoTools one if either is not built in
+     */
+    private static PointTransform getPointTransform( int fromSrid, int toSrid ) throws NoSuchAuthorityCodeException, FactoryException{
+        BuiltInCrs.Transform builtIn = BuiltInCrs.find( fromSrid, toSrid );
+        if( builtIn == null ){
+            MathTransform mtrans = getMathTransform( fromSrid, toSrid );
+            return ( coords, offset, numPoints ) -> mtrans.transform( coords, offset * 2, coords, offset * 2, numPoints );
+        }
+        boolean swapIn = !LONGITUDE_FIRST && BuiltInCrs.isGeographic( fromSrid );
+        boolean swapOut = !LONGITUDE_FIRST && BuiltInCrs.isGeographic( toSrid );
+        return ( coords, offset, numPoints ) -> {
+            if( swapIn ){
+                swapOrdinates( coords, offset, numPoints );
+            }
+            builtIn.transform( coords, offset, numPoints );
+            if( swapOut ){
+                swapOrdinates( coords, offset, numPoints );
+            }
+        };
+    }
+
+    private static void swapOrdinates( double[] coords, int offset, int numPoints ){
+        for( int i = offset * 2, end = ( offset + numPoints ) * 2; i < end; i += 2 ){
+            double x = coords[i];
+            coords[i] = coords[ i + 1 ];
+            coords[ i + 1 ] = x;
+        }
+    }
+
+    /**
+     * Returns the (cached) transform between two EPSG codes. MathTransforms are immutable
+     * and may be shared between threads.
+     *
+     * @param fromSrid source EPSG code
+     * @param toSrid target EPSG code
+     * @return
+     * @throws NoSuchAuthorityCodeException if either code is unknown
+     * @throws FactoryException if no operation between the two systems can be created
+     */
+    public static MathTransform getMathTransform( int fromSrid, int toSrid ) throws NoSuchAuthorityCodeException, FactoryException{
+        Long key = ( (long) fromSrid << 32 ) | ( toSrid & 0xffffffffL );
+        MathTransform mtrans = TRANSFORMS.get( key );
+        if( mtrans == null ){
+            DefaultCoordinateOperationFactory trFactory = new DefaultCoordinateOperationFactory();
+            CoordinateOperation tr = trFactory.createOperation( getCoordinateReferenceSystem( fromSrid ), getCoordinateReferenceSystem( toSrid ) );
+            mtrans = tr.getMathTransform();
+            TRANSFORMS.put( key, mtrans );
+        }
+        return mtrans;
+    }
+
+    /**
+     * Returns the (cached) coordinate reference system for an EPSG code.
+     */
+    public static CoordinateReferenceSystem getCoordinateReferenceSystem( int srid ) throws NoSuchAuthorityCodeException, FactoryException{
+        CoordinateReferenceSystem crs = CRS_BY_SRID.get( srid );
+        if( crs == null ){
+            crs = CRS.decode( "EPSG:" + srid );
+            CoordinateReferenceSystem existing = CRS_BY_SRID.putIfAbsent( srid, crs );
+            if( existing != null ){
+                crs = existing;
+            }
+        }
+        return crs;
+    }
+
+    /**
+     * Uses crs for an SRID instead of decoding it from the EPSG database, e.g. a system
+     * parsed with {@link CRS#parseWKT(String)} under an SRID of the application's own.
+     * Register before the first reprojection involving srid; transforms already cached
+     * for it are kept. {@link #clearCaches()} drops registered systems too.
+     */
+    public static void registerCoordinateReferenceSystem( int srid, CoordinateReferenceSystem crs ){
+        CRS_BY_SRID.put( srid, crs );
+    }
+
+    /**
+     * Prepares the transforms between every pair of the given EPSG codes, so that later
+     * reprojections between these systems skip the EPSG database entirely. Pairs of
+     * {@link BuiltInCrs} systems are set up without GeoTools; only the others decode
+     * their systems from the EPSG database. Intended to be called once at application
+     * start up.
+     *
+     * @param srids EPSG codes used by the application
+     * @throws NoSuchAuthorityCodeException if a code is unknown
+     * @throws FactoryException if a transform cannot be created
+     */
+    public static void warmUp( int... srids ) throws NoSuchAuthorityCodeException, FactoryException{
+        for( int fromSrid : srids ){
+            for( int toSrid : srids ){
+                if( BuiltInCrs.find( fromSrid, toSrid ) == null ){
+                    getMathTransform( fromSrid, toSrid );
+                }
+            }
+        }
+    }
+
+    /**
+     * Boots the GeoTools EPSG database now rather than on the first reprojection that
+     * needs a system missing from {@link BuiltInCrs}, for services that would rather pay
+     * for it at start up.
+     *
+     * @throws FactoryException if the EPSG database cannot be loaded
+     */
+    public static void preloadEpsgDatabase() throws FactoryException{
+        getCoordinateReferenceSystem( WGS84_SRID );
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the transform cache
+     */
+    public static CacheStats getTransformCacheStats(){
+        return TRANSFORMS.stats();
+    }
+
+    /**
+     * Changes the number of (fromSrid, toSrid) transforms kept, evicting the least recently
+     * used ones if the cache is currently larger.
+     */
+    public static void setTransformCacheSize( int maxEntries ){
+        TRANSFORMS.setMaxWeight( maxEntries );
+    }
+
+    /**
+     * Drops all cached transforms and coordinate reference systems.
+     */
+    public static void clearCaches(){
+        TRANSFORMS.clear();
+        CRS_BY_SRID.clear();
+    }
+
+    /**
+     * Copies the x/y ordinates of every vertex of geom into coords, starting at vertex offset.
+     *
+     * @return the vertex offset after geom
+     */
+    private static int pack( Geometry geom, double[] coords, int offset ) throws UnsupportedGeometryTypeException{
+        if( geom instanceof Point ){
+            return pack( ( (Point) geom ).getCoordinateSequence(), coords, offset );
+        } else if( geom instanceof LineString ){
+            return pack( ( (LineString) geom ).getCoordinateSequence(), coords, offset );
+        } else if( geom instanceof Polygon ){
+            Polygon polygon = (Polygon) geom;
+            offset = pack( polygon.getExteriorRing().getCoordinateSequence(), coords, offset );
+            for( int i = 0, n = polygon.getNumInteriorRing(); i < n; i++ ){
+                offset = pack( polygon.getInteriorRingN( i ).getCoordinateSequence(), coords, offset );
+            }
+            return offset;
+        } else if( geom instanceof GeometryCollection ){
+            for( int i = 0, n = geom.getNumGeometries(); i < n; i++ ){
+                offset = pack( geom.getGeometryN( i ), coords, offset );
+            }
+            return offset;
+        }
+        throw new UnsupportedGeometryTypeException( geom.getGeometryType(), REPROJECTABLE_TYPES );
+    }
+
+    private static int pack( CoordinateSequence seq, double[] coords, int offset ){
+        int numPoints = seq.size();
+        if( seq instanceof PackedCoordinateSequence.Double && seq.getDimension() == 2 ){
+            System.arraycopy( ( (PackedCoordinateSequence.Double) seq ).getRawCoordinates(), 0, coords, offset * 2, numPoints * 2 );
+        } else {
+            for( int i = 0; i < numPoints; i++ ){
+                coords[ ( offset + i ) * 2 ] = seq.getX( i );
+                coords[ ( offset + i ) * 2 + 1 ] = seq.getY( i );
+            }
+        }
+        return offset + numPoints;
+    }
+
+    /**
+     * Rebuilds geom with the vertices in coords, starting at vertex offset[0] and advancing it.
+     */
+    private static Geometry unpack( Geometry geom, double[] coords, int[] offset, GeometryFactory geomFactory ){
+        if( geom instanceof Point ){
+            return geomFactory.createPoint( unpack( coords, offset, geom.getNumPoints(), false ) );
+        } else if( geom instanceof LinearRing ){
+            return geomFactory.createLinearRing( unpack( coords, offset, geom.getNumPoints(), true ) );
+        } else if( geom instanceof LineString ){
+            return geomFactory.createLineString( unpack( coords, offset, geom.getNumPoints(), false ) );
+        } else if( geom instanceof Polygon ){
+            Polygon polygon = (Polygon) geom;
+            LinearRing shell = geomFactory.createLinearRing( unpack( coords, offset, polygon.getExteriorRing().getNumPoints(), true ) );
+            LinearRing[] holes = new LinearRing[ polygon.getNumInteriorRing() ];
+            for( int i = 0; i < holes.length; i++ ){
+                holes[i] = geomFactory.createLinearRing( unpack( coords, offset, polygon.getInteriorRingN( i ).getNumPoints(), true ) );
+            }
+            return geomFactory.createPolygon( shell, holes );
+        }
+        Geometry[] parts = new Geometry[ geom.getNumGeometries() ];
+        for( int i = 0; i < parts.length; i++ ){
+            parts[i] = unpack( geom.getGeometryN( i ), coords, offset, geomFactory );
+        }
+        if( geom instanceof MultiPoint ){
+            return geomFactory.createMultiPoint( Arrays.copyOf( parts, parts.length, Point[].class ) );
+        } else if( geom instanceof MultiLineString ){
+            return geomFactory.createMultiLineString( Arrays.copyOf( parts, parts.length, LineString[].class ) );
+        } else if( geom instanceof MultiPolygon ){
+            return geomFactory.createMultiPolygon( Arrays.copyOf( parts, parts.length, Polygon[].class ) );
+        }
+        return geomFactory.createGeometryCollection( parts );
+    }
+
+    /**
+     * @param closeRing append the first vertex if the transformed ring does not end on it
+     */
+    private static CoordinateSequence unpack( double[] coords, int[] offset, int numPoints, boolean closeRing ){
+        int from = offset[0] * 2;
+        offset[0] += numPoints;
+        boolean close = closeRing && numPoints > 0
+            && ( coords[ from ] != coords[ from + ( numPoints - 1 ) * 2 ] || coords[ from + 1 ] != coords[ from + ( numPoints - 1 ) * 2 + 1 ] );
+        double[] packed = Arrays.copyOfRange( coords, from, from + ( close ? numPoints + 1 : numPoints ) * 2 );
+        if( close ){
+            packed[ numPoints * 2 ] = coords[ from ];
+            packed[ numPoints * 2 + 1 ] = coords[ from + 1 ];
+        }
+        return new PackedCoordinateSequence.Double( packed, 2, 0 );
+    }
+
+    /**
+     * Transforms numPoints interleaved x/y pairs in place, splitting them across the common
+     * fork-join pool when there are more than parallelThreshold.
+     */
+    private static void transform( PointTransform mtrans, double[] coords, int numPoints, int parallelThreshold ) throws TransformException{
+        if( parallelThreshold <= 0 || numPoints <= parallelThreshold ){
+            mtrans.transform( coords, 0, numPoints );
+            return;
+        }
+        try {
+            ForkJoinPool.commonPool().invoke( new TransformRange( mtrans, coords, 0, numPoints, parallelThreshold ) );
+        } catch( TransformFailure e ){
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Transforms vertices [from, to) of coords, halving the range until it is under the threshold.
+     */
+    private static final class TransformRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PointTransform mtrans;
+        private final double[] coords;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        TransformRange( PointTransform mtrans, double[] coords, int from, int to, int threshold ) {
+            this.mtrans = mtrans;
+            this.coords = coords;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if( to - from <= threshold ){
+                try {
+                    mtrans.transform( coords, from, to - from );
+                } catch( TransformException e ){
+                    throw new TransformFailure( e );
+                }
+                return;
+            }
+            int split = ( from + to ) >>> 1;
+            invokeAll(
+                 new TransformRange( mtrans, coords, from, split, threshold )
+                ,new TransformRange( mtrans, coords, split, to, threshold )
+            );
+        }
+    }
+
+    /**
+     * Transforms numPoints interleaved x/y pairs in place, starting at vertex offset.
+     */
+    private interface PointTransform {
+        void transform( double[] coords, int offset, int numPoints ) throws TransformException;
+    }
+
+    /**
+     * Carries a TransformException out of a fork-join task.
+     */
+    private static final class TransformFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TransformFailure( TransformException cause ) {
+            super( cause );
+        }
+
+        @Override
+        public synchronized TransformException getCause() {
+            return (TransformException) super.getCause();
+        }
     }
 
     public static Geometry swapOrdinates( Geometry geom ){
-        GeometryFactory geomFactory = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), geom.getSRID() );
+        GeometryFactory geomFactory = GeometryFactories.forSrid( geom.getSRID() );
         Point oldPoint = (Point) geom;
         return geomFactory.createPoint( new Coordinate( oldPoint.getY(), oldPoint.getX() ) );        
     }
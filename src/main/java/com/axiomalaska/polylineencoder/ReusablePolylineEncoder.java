@@ -0,0 +1,172 @@
+package com.axiomalaska.polylineencoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Encoder bound to one {@link ImmutablePolylineEncoderSettings}, for services that encode
+ * many lines with the same settings. Produces the same output as the static
+ * {@link PolylineEncoder} methods, but keeps per-thread working arrays and output buffers
+ * that grow to the largest line seen, so a warmed up thread only allocates the result,
+ * and computes levels in constant time.
+ *
+ * Instances are thread-safe and meant to be shared. Buffers grown past
+ * {@link #MAX_RETAINED_POINTS} points are dropped after the encode, so one huge line does
+ * not pin its memory to a thread.
+ */
+public final class ReusablePolylineEncoder {
+    /** Largest line whose working arrays are kept for reuse. */
+    public static final int MAX_RETAINED_POINTS = 1 << 18;
+
+    private final ImmutablePolylineEncoderSettings settings;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial( Scratch::new );
+
+    public ReusablePolylineEncoder( ImmutablePolylineEncoderSettings settings ) {
+        this.settings = settings;
+    }
+
+    /**
+     * Creates an encoder with default settings.
+     */
+    public ReusablePolylineEncoder() {
+        this( ImmutablePolylineEncoderSettings.DEFAULT );
+    }
+
+    public ImmutablePolylineEncoderSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings)}.
+     *
+     * @param geometry JTS geometry (LineString or Polygon)
+     * @return
+     * @throws UnsupportedGeometryTypeException
+     */
+    public EncodedPolyline encode( Geometry geometry ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geometry ).getCoordinateSequence();
+        Scratch s = acquire();
+        try {
+            int numPoints = s.coords.load( seq );
+            encode( s, numPoints, 0 );
+            return PolylineEncoder.toEncodedPolyline( s.points, s.levels );
+        } finally {
+            release( s );
+        }
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encode(double[], double[], int, PolylineEncoderSettings)}.
+     */
+    public EncodedPolyline encode( double[] xs, double[] ys, int numPoints ){
+        Scratch s = acquire();
+        try {
+            s.coords.ensureCapacity( numPoints );
+            System.arraycopy( xs, 0, s.coords.xs, 0, numPoints );
+            System.arraycopy( ys, 0, s.coords.ys, 0, numPoints );
+            encode( s, numPoints, 0 );
+            return PolylineEncoder.toEncodedPolyline( s.points, s.levels );
+        } finally {
+            release( s );
+        }
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encodeCompact(Geometry, PolylineEncoderSettings)}.
+     */
+    public CompactPolyline encodeCompact( Geometry geometry ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geometry ).getCoordinateSequence();
+        Scratch s = acquire();
+        try {
+            int numPoints = s.coords.load( seq );
+            encode( s, numPoints, 0 );
+            return CompactPolyline.of( s.points, s.levels );
+        } finally {
+            release( s );
+        }
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encodeWkt(CharSequence, PolylineEncoderSettings)}.
+     */
+    public EncodedPolyline encodeWkt( CharSequence wkt ) throws UnsupportedGeometryTypeException, ParseException {
+        Scratch s = acquire();
+        try {
+            long start = Instrumentation.isEnabled( new Instrumentation.EncodeEvent() ) ? System.nanoTime() : 0;
+            int numPoints = WktCoordinateReader.read( wkt, s.coords );
+            encode( s, numPoints, start == 0 ? 0 : System.nanoTime() - start );
+            return PolylineEncoder.toEncodedPolyline( s.points, s.levels );
+        } finally {
+            release( s );
+        }
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encodeWkb(byte[], PolylineEncoderSettings)}.
+     */
+    public EncodedPolyline encodeWkb( byte[] wkb ) throws UnsupportedGeometryTypeException, ParseException {
+        Scratch s = acquire();
+        try {
+            long start = Instrumentation.isEnabled( new Instrumentation.EncodeEvent() ) ? System.nanoTime() : 0;
+            int numPoints = WkbCoordinateReader.read( wkb, 0, wkb.length, s.coords );
+            encode( s, numPoints, start == 0 ? 0 : System.nanoTime() - start );
+            return PolylineEncoder.toEncodedPolyline( s.points, s.levels );
+        } finally {
+            release( s );
+        }
+    }
+
+    /**
+     * Same as {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings, Appendable, Appendable)}.
+     */
+    public void encode( Geometry geometry, Appendable points, Appendable levels ) throws UnsupportedGeometryTypeException, IOException {
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geometry ).getCoordinateSequence();
+        Scratch s = acquire();
+        try {
+            int numPoints = s.coords.load( seq );
+            PolylineEncoder.encode( s.coords.xs, s.coords.ys, numPoints, settings.settings(), settings.levelLookup(), s.coords.dists, s.coords.stack,
+                new AsciiSink.ForAppendable( points ), levels == null ? null : new AsciiSink.ForAppendable( levels ), 0 );
+        } catch( UncheckedIOException e ){
+            throw e.getCause();
+        } finally {
+            release( s );
+        }
+    }
+
+    private void encode( Scratch s, int numPoints, long parseNanos ){
+        s.points.clear();
+        s.levels.clear();
+        PolylineEncoder.encode( s.coords.xs, s.coords.ys, numPoints, settings.settings(), settings.levelLookup(), s.coords.clearDists( numPoints ), s.coords.stack, s.points, s.levels, parseNanos );
+    }
+
+    /**
+     * @return this thread's scratch, or a new one if it is in use further up the stack
+     * (a metrics listener encoding from its callback)
+     */
+    private Scratch acquire(){
+        Scratch s = scratch.get();
+        if( s.inUse ){
+            return new Scratch();
+        }
+        s.inUse = true;
+        return s;
+    }
+
+    private void release( Scratch s ){
+        s.inUse = false;
+        if( s.coords.xs.length > MAX_RETAINED_POINTS && s == scratch.get() ){
+            scratch.remove();
+        }
+    }
+
+    private static final class Scratch {
+        final EncoderScratch coords = new EncoderScratch( 256 );
+        final AsciiSink.Builder points = new AsciiSink.Builder( 1024 );
+        final AsciiSink.Builder levels = new AsciiSink.Builder( 256 );
+        boolean inUse;
+    }
+}
@@ -0,0 +1,256 @@
+package com.axiomalaska.polylineencoder;
+
+import java.util.Arrays;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+/**
+ * Result of one simplification pass over a line (using the settings' strategy and
+ * prefilter), kept so that the line can be served at any level or tolerance without
+ * simplifying again. Holds the vertices the encoder retains, each with its significance
+ * (for Douglas-Peucker, the distance from the segment it was split from) and encoded
+ * level, sorted by significance. A query takes the matching prefix of that order, so its
+ * cost depends on the size of the result (O(k log k) for k vertices), not of the line.
+ *
+ * Levels mean the same as in the encoded levels string: {@code encode(0)} returns exactly
+ * {@link PolylineEncoder#encode(Geometry, PolylineEncoderSettings)}'s output, and
+ * {@code encode(minLevel)} the vertices a client showing only levels >= minLevel would draw.
+ * Instances are immutable and may be shared between threads.
+ */
+public final class SimplificationIndex {
+    private final int numPoints;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] vertexIndexes;
+    private final double[] significance;
+    private final int[] levels;
+    private final double scale;
+    /** positions into the arrays above, most significant first */
+    private final int[] order;
+    /** levelCounts[l] = number of retained vertices with level >= l */
+    private final int[] levelCounts;
+
+    private SimplificationIndex( int numPoints, double[] xs, double[] ys, int[] vertexIndexes, double[] significance, int[] levels, int numLevels, double scale ) {
+        this.numPoints = numPoints;
+        this.scale = scale;
+        this.xs = xs;
+        this.ys = ys;
+        this.vertexIndexes = vertexIndexes;
+        this.significance = significance;
+        this.levels = levels;
+        this.order = sortBySignificance( significance );
+        this.levelCounts = new int[ numLevels + 1 ];
+        for( int level : levels ){
+            levelCounts[ Math.max( 0, Math.min( level, numLevels ) ) ]++;
+        }
+        for( int l = numLevels - 1; l >= 0; l-- ){
+            levelCounts[l] += levelCounts[ l + 1 ];
+        }
+    }
+
+    /**
+     * Simplifies the line the encoder would use (a LineString, or a Polygon's exterior ring).
+     */
+    public static SimplificationIndex build( Geometry geometry, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException {
+        CoordinateSequence seq = PolylineEncoder.getLineToEncode( geometry ).getCoordinateSequence();
+        EncoderScratch scratch = new EncoderScratch( seq.size() );
+        int numPoints = scratch.load( seq );
+        return build( scratch.xs, scratch.ys, numPoints, settings );
+    }
+
+    /**
+     * Simplifies the first numPoints coordinates of xs (longitude) and ys (latitude).
+     */
+    public static SimplificationIndex build( double[] xs, double[] ys, int numPoints, PolylineEncoderSettings settings ){
+        int originalNumPoints = numPoints;
+        int[] originalIndexes = null;
+        if( settings.getPrefilterDistance() >= 0 ){
+            double[] filteredXs = new double[ numPoints ];
+            double[] filteredYs = new double[ numPoints ];
+            originalIndexes = new int[ numPoints ];
+            numPoints = RadialDistanceFilter.filter( xs, ys, numPoints, settings.getPrefilterDistance(), filteredXs, filteredYs, originalIndexes );
+            xs = filteredXs;
+            ys = filteredYs;
+        }
+        double[] dists = new double[ numPoints ];
+        double absMaxDist = PolylineEncoder.simplify( xs, ys, numPoints, settings, dists, new IntStack() );
+
+        int numRetained = 0;
+        for( int i = 0; i < numPoints; i++ ){
+            if( dists[i] != 0 || i == 0 || i == numPoints - 1 ){
+                numRetained++;
+            }
+        }
+
+        int numLevels = settings.getNumLevels();
+        int endpointLevel = settings.isForceEndpoints() ? numLevels - 1 : numLevels - PolylineEncoder.computeLevel( settings, absMaxDist ) - 1;
+        double[] rxs = new double[ numRetained ];
+        double[] rys = new double[ numRetained ];
+        int[] vertexIndexes = new int[ numRetained ];
+        double[] significance = new double[ numRetained ];
+        int[] levels = new int[ numRetained ];
+        int r = 0;
+        for( int i = 0; i < numPoints; i++ ){
+            boolean endpoint = i == 0 || i == numPoints - 1;
+            if( dists[i] != 0 || endpoint ){
+                rxs[r] = xs[i];
+                rys[r] = ys[i];
+                vertexIndexes[r] = originalIndexes == null ? i : originalIndexes[i];
+                significance[r] = endpoint ? Double.POSITIVE_INFINITY : dists[i];
+                levels[r] = endpoint ? endpointLevel : numLevels - PolylineEncoder.computeLevel( settings, dists[i] ) - 1;
+                r++;
+            }
+        }
+        return new SimplificationIndex( originalNumPoints, rxs, rys, vertexIndexes, significance, levels, numLevels, PointsKernel.scale( settings.getPrecision() ) );
+    }
+
+    /**
+     * @return number of points in the original line
+     */
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    /**
+     * @return number of vertices kept by the simplification (all levels)
+     */
+    public int getNumRetained() {
+        return vertexIndexes.length;
+    }
+
+    /**
+     * @return indexes into the original line of the vertices with level >= minLevel, ascending
+     */
+    public int[] getVertexIndexes( int minLevel ){
+        return toVertexIndexes( positionsForLevel( minLevel ) );
+    }
+
+    /**
+     * @return indexes into the original line of the endpoints and the vertices at least
+     * tolerance away from their DP segment, ascending
+     */
+    public int[] getVertexIndexesForTolerance( double tolerance ){
+        return toVertexIndexes( positionsForTolerance( tolerance ) );
+    }
+
+    /**
+     * @return the vertices with level >= minLevel
+     */
+    public CoordinateSequence getCoordinates( int minLevel ){
+        return toSequence( positionsForLevel( minLevel ) );
+    }
+
+    public CoordinateSequence getCoordinatesForTolerance( double tolerance ){
+        return toSequence( positionsForTolerance( tolerance ) );
+    }
+
+    /**
+     * Encodes the vertices with level >= minLevel, with their levels.
+     */
+    public EncodedPolyline encode( int minLevel ){
+        return encode( positionsForLevel( minLevel ) );
+    }
+
+    /**
+     * Encodes the endpoints and the vertices at least tolerance away from their DP segment.
+     */
+    public EncodedPolyline encodeForTolerance( double tolerance ){
+        return encode( positionsForTolerance( tolerance ) );
+    }
+
+    private int[] positionsForLevel( int minLevel ){
+        int count = levelCounts[ Math.max( 0, Math.min( minLevel, levelCounts.length - 1 ) ) ];
+        return sortedPrefix( count );
+    }
+
+    private int[] positionsForTolerance( double tolerance ){
+        // first position in order whose significance is below the tolerance
+        int lo = 0;
+        int hi = order.length;
+        while( lo < hi ){
+            int mid = ( lo + hi ) >>> 1;
+            if( significance[ order[ mid ] ] >= tolerance ){
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return sortedPrefix( lo );
+    }
+
+    private int[] sortedPrefix( int count ){
+        int[] positions = Arrays.copyOf( order, count );
+        Arrays.sort( positions );
+        return positions;
+    }
+
+    private int[] toVertexIndexes( int[] positions ){
+        int[] indexes = new int[ positions.length ];
+        for( int i = 0; i < positions.length; i++ ){
+            indexes[i] = vertexIndexes[ positions[i] ];
+        }
+        return indexes;
+    }
+
+    private CoordinateSequence toSequence( int[] positions ){
+        double[] coords = new double[ positions.length * 2 ];
+        for( int i = 0; i < positions.length; i++ ){
+            coords[ i * 2 ] = xs[ positions[i] ];
+            coords[ i * 2 + 1 ] = ys[ positions[i] ];
+        }
+        return new PackedCoordinateSequence.Double( coords, 2, 0 );
+    }
+
+    private EncodedPolyline encode( int[] positions ){
+        AsciiSink.Builder points = new AsciiSink.Builder( positions.length * 4 );
+        AsciiSink.Builder encodedLevels = new AsciiSink.Builder( positions.length );
+        int plat = 0;
+        int plng = 0;
+        for( int p : positions ){
+            int lng = PointsKernel.quantize( xs[p], scale );
+            int lat = PointsKernel.quantize( ys[p], scale );
+            points.writeSignedPair( lat - plat, lng - plng );
+            plat = lat;
+            plng = lng;
+            encodedLevels.writeNumber( levels[p] );
+        }
+        EncodedPolyline encodedPolyline = new EncodedPolyline();
+        encodedPolyline.setPoints( points.toString() );
+        encodedPolyline.setLevels( encodedLevels.toString() );
+        return encodedPolyline;
+    }
+
+    /**
+     * Positions 0..n-1 ordered by descending significance (stable merge sort).
+     */
+    private static int[] sortBySignificance( double[] significance ){
+        int n = significance.length;
+        int[] order = new int[ n ];
+        for( int i = 0; i < n; i++ ){
+            order[i] = i;
+        }
+        int[] tmp = new int[ n ];
+        for( int width = 1; width < n; width <<= 1 ){
+            for( int lo = 0; lo < n - width; lo += width << 1 ){
+                int mid = lo + width;
+                int hi = Math.min( lo + ( width << 1 ), n );
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while( i < mid && j < hi ){
+                    tmp[ k++ ] = significance[ order[j] ] > significance[ order[i] ] ? order[ j++ ] : order[ i++ ];
+                }
+                while( i < mid ){
+                    tmp[ k++ ] = order[ i++ ];
+                }
+                while( j < hi ){
+                    tmp[ k++ ] = order[ j++ ];
+                }
+                System.arraycopy( tmp, lo, order, lo, hi - lo );
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,20 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Line simplification algorithm used to choose the encoded vertices and their levels.
+ */
+public enum SimplificationStrategy {
+    /**
+     * Douglas-Peucker, the original algorithm. A vertex's significance is its distance from
+     * the segment it was split from. O(n log n) typically, O(n^2) worst case.
+     */
+    DOUGLAS_PEUCKER,
+
+    /**
+     * Visvalingam-Whyatt: repeatedly removes the vertex forming the smallest triangle with
+     * its neighbours, using a heap, in O(n log n) for any input. A vertex's significance is
+     * its distance from the segment joining its neighbours when it was removed, so levels
+     * keep the same meaning as with Douglas-Peucker.
+     */
+    VISVALINGAM_WHYATT
+}
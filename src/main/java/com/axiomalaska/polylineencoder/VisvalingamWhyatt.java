@@ -0,0 +1,159 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Heap based Visvalingam-Whyatt simplification over packed coordinate arrays, filling the
+ * same per-vertex distance array as {@link DouglasPeucker#simplify}.
+ */
+final class VisvalingamWhyatt {
+    private VisvalingamWhyatt() {
+    }
+
+    /**
+     * Eliminates interior vertices smallest effective area first; an effective area is
+     * never less than that of a vertex eliminated before it. Each vertex records its
+     * distance from the segment joining its neighbours at the time it is eliminated, the
+     * same measure Douglas-Peucker records, so levels keep their meaning. Vertices whose
+     * distance is not above verySmall keep 0 and are not encoded, like in Douglas-Peucker.
+     *
+     * @param dists receives the distances, must hold numPoints zeroes
+     * @return the largest recorded distance
+     */
+    static double simplify( double[] xs, double[] ys, int numPoints, double verySmall, double[] dists ){
+        if( numPoints <= 2 ){
+            return 0;
+        }
+        int[] prev = new int[ numPoints ];
+        int[] next = new int[ numPoints ];
+        double[] areas = new double[ numPoints ];
+        for( int i = 0; i < numPoints; i++ ){
+            prev[i] = i - 1;
+            next[i] = i + 1;
+        }
+
+        Heap heap = new Heap( numPoints, areas );
+        for( int i = 1; i < numPoints - 1; i++ ){
+            areas[i] = area( xs, ys, i - 1, i, i + 1 );
+            heap.add( i );
+        }
+
+        double maxArea = 0;
+        double maxDist = 0;
+        while( !heap.isEmpty() ){
+            int i = heap.poll();
+            int p = prev[i];
+            int n = next[i];
+            maxArea = Math.max( maxArea, areas[i] );
+            double dist = DouglasPeucker.distance( xs[i], ys[i], xs[p], ys[p], xs[n], ys[n] );
+            if( dist > verySmall ){
+                dists[i] = dist;
+                maxDist = Math.max( maxDist, dist );
+            }
+
+            next[p] = n;
+            prev[n] = p;
+            if( p > 0 ){
+                areas[p] = Math.max( area( xs, ys, prev[p], p, n ), maxArea );
+                heap.update( p );
+            }
+            if( n < numPoints - 1 ){
+                areas[n] = Math.max( area( xs, ys, p, n, next[n] ), maxArea );
+                heap.update( n );
+            }
+        }
+        return maxDist;
+    }
+
+    private static double area( double[] xs, double[] ys, int a, int b, int c ){
+        return Math.abs( ( xs[b] - xs[a] ) * ( ys[c] - ys[a] ) - ( xs[c] - xs[a] ) * ( ys[b] - ys[a] ) ) * 0.5;
+    }
+
+    /**
+     * Indexed binary min-heap of vertex indexes keyed by area, ties broken by lower index
+     * so results do not depend on insertion order.
+     */
+    private static final class Heap {
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] keys;
+        private int size;
+
+        Heap( int capacity, double[] keys ) {
+            this.heap = new int[ capacity ];
+            this.positions = new int[ capacity ];
+            this.keys = keys;
+        }
+
+        boolean isEmpty(){
+            return size == 0;
+        }
+
+        void add( int vertex ){
+            heap[ size ] = vertex;
+            positions[ vertex ] = size;
+            siftUp( size++ );
+        }
+
+        int poll(){
+            int top = heap[0];
+            size--;
+            if( size > 0 ){
+                heap[0] = heap[ size ];
+                positions[ heap[0] ] = 0;
+                siftDown( 0 );
+            }
+            positions[ top ] = -1;
+            return top;
+        }
+
+        /**
+         * Restores heap order after the key of a vertex still in the heap changed.
+         */
+        void update( int vertex ){
+            int pos = positions[ vertex ];
+            if( pos >= 0 ){
+                siftUp( pos );
+                siftDown( positions[ vertex ] );
+            }
+        }
+
+        private boolean less( int a, int b ){
+            return keys[a] < keys[b] || ( keys[a] == keys[b] && a < b );
+        }
+
+        private void siftUp( int pos ){
+            int vertex = heap[ pos ];
+            while( pos > 0 ){
+                int parent = ( pos - 1 ) >>> 1;
+                if( !less( vertex, heap[ parent ] ) ){
+                    break;
+                }
+                heap[ pos ] = heap[ parent ];
+                positions[ heap[ pos ] ] = pos;
+                pos = parent;
+            }
+            heap[ pos ] = vertex;
+            positions[ vertex ] = pos;
+        }
+
+        private void siftDown( int pos ){
+            int vertex = heap[ pos ];
+            while( true ){
+                int child = ( pos << 1 ) + 1;
+                if( child >= size ){
+                    break;
+                }
+                if( child + 1 < size && less( heap[ child + 1 ], heap[ child ] ) ){
+                    child++;
+                }
+                if( !less( heap[ child ], vertex ) ){
+                    break;
+                }
+                heap[ pos ] = heap[ child ];
+                positions[ heap[ pos ] ] = pos;
+                pos = child;
+            }
+            heap[ pos ] = vertex;
+            positions[ vertex ] = pos;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.axiomalaska.polylineencoder;
+
+/**
+ * Spherical Web Mercator (EPSG:3857) projection of WGS84 longitude/latitude (EPSG:4326),
+ * inlined so that lines can be simplified in meters without a GeoTools transform.
+ * For encoding and tile math, latitudes beyond the projection's +/-85.0511 degree limit
+ * are clamped to it; {@link #unclampedY(double)} is the plain formula for reprojection.
+ */
+final class WebMercator {
+    static final int SRID = 3857;
+    static final double EARTH_RADIUS = 6378137.0;
+    static final double MAX_LATITUDE = 85.0511287798066;
+
+    private static final double RADIANS = Math.PI / 180;
+    private static final double DEGREES = 180 / Math.PI;
+
+    private WebMercator() {
+    }
+
+    /**
+     * Projects numPoints longitude/latitude pairs into outXs/outYs, which may be the inputs.
+     */
+    static void forward( double[] lngs, double[] lats, int numPoints, double[] outXs, double[] outYs ){
+        for( int i = 0; i < numPoints; i++ ){
+            outXs[i] = x( lngs[i] );
+            outYs[i] = y( lats[i] );
+        }
+    }
+
+    /**
+     * Unprojects numPoints Web Mercator coordinates into outLngs/outLats, which may be the inputs.
+     */
+    static void inverse( double[] xs, double[] ys, int numPoints, double[] outLngs, double[] outLats ){
+        for( int i = 0; i < numPoints; i++ ){
+            outLngs[i] = longitude( xs[i] );
+            outLats[i] = latitude( ys[i] );
+        }
+    }
+
+    static double x( double lng ){
+        return EARTH_RADIUS * lng * RADIANS;
+    }
+
+    static double y( double lat ){
+        lat = Math.max( -MAX_LATITUDE, Math.min( MAX_LATITUDE, lat ) );
+        return EARTH_RADIUS * Math.log( Math.tan( Math.PI / 4 + lat * RADIANS / 2 ) );
+    }
+
+    /**
+     * Northing without the latitude clamp, as GeoTools computes it: infinite at the poles.
+     */
+    static double unclampedY( double lat ){
+        if( Math.abs( lat ) == 90 ){
+            return Math.copySign( Double.POSITIVE_INFINITY, lat );
+        }
+        return EARTH_RADIUS * Math.log( Math.tan( Math.PI / 4 + lat * RADIANS / 2 ) );
+    }
+
+    static double longitude( double x ){
+        return x / EARTH_RADIUS * DEGREES;
+    }
+
+    static double latitude( double y ){
+        return ( 2 * Math.atan( Math.exp( y / EARTH_RADIUS ) ) - Math.PI / 2 ) * DEGREES;
+    }
+
+    /**
+     * @return longitude of the west edge of column tileX of the tile grid at zoom
+     */
+    static double tileLongitude( int tileX, int zoom ){
+        return tileX * 360.0 / ( 1L << zoom ) - 180;
+    }
+
+    /**
+     * @return latitude of the north edge of row tileY of the tile grid at zoom (rows
+     * counted from the north, as in z/x/y tile URLs)
+     */
+    static double tileLatitude( int tileY, int zoom ){
+        return Math.atan( Math.sinh( Math.PI * ( 1 - 2.0 * tileY / ( 1L << zoom ) ) ) ) * DEGREES;
+    }
+}
@@ -0,0 +1,177 @@
+package com.axiomalaska.polylineencoder;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Reads the coordinates of the line the encoder would use (a LineString, or the exterior
+ * ring of a Polygon) from WKB straight into packed x/y arrays, without building JTS
+ * geometries. Understands both byte orders, ISO (1000/2000/3000 type offsets) and
+ * PostGIS EWKB (Z/M/SRID flags) dimension encodings; extra ordinates are ignored.
+ * Interior rings are skipped, but must fit in the input and be closed like the exterior
+ * ring.
+ */
+final class WkbCoordinateReader {
+    private static final int WKB_LINESTRING = 2;
+    private static final int WKB_POLYGON = 3;
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+
+    private WkbCoordinateReader() {
+    }
+
+    /**
+     * Reads the line to encode into scratch.xs/scratch.ys.
+     *
+     * @return number of points read
+     */
+    static int read( byte[] wkb, int offset, int length, EncoderScratch scratch ) throws ParseException, UnsupportedGeometryTypeException {
+        ByteBuffer buf = ByteBuffer.wrap( wkb, offset, length );
+        try {
+            return read( buf, scratch );
+        } catch( BufferUnderflowException e ){
+            throw new ParseException( "Unexpected end of WKB at byte " + ( buf.position() - offset ) );
+        }
+    }
+
+    private static int read( ByteBuffer buf, EncoderScratch scratch ) throws ParseException, UnsupportedGeometryTypeException {
+        byte byteOrder = buf.get();
+        if( byteOrder == 0 ){
+            buf.order( ByteOrder.BIG_ENDIAN );
+        } else if( byteOrder == 1 ){
+            buf.order( ByteOrder.LITTLE_ENDIAN );
+        } else {
+            throw new ParseException( "Unknown WKB byte order " + byteOrder );
+        }
+
+        int typeWord = buf.getInt();
+        int dimension = 2;
+        if( ( typeWord & EWKB_Z ) != 0 ){
+            dimension++;
+        }
+        if( ( typeWord & EWKB_M ) != 0 ){
+            dimension++;
+        }
+        if( ( typeWord & EWKB_SRID ) != 0 ){
+            buf.getInt();
+        }
+        int isoType = typeWord & 0xffff;
+        int geometryType = isoType % 1000;
+        switch( isoType / 1000 ){
+            case 0:
+                break;
+            case 1:
+            case 2:
+                dimension++;
+                break;
+            case 3:
+                dimension += 2;
+                break;
+            default:
+                throw new ParseException( "Unknown WKB geometry type " + isoType );
+        }
+
+        boolean polygon = geometryType == WKB_POLYGON;
+        int numRings = 0;
+        if( polygon ){
+            numRings = readCount( buf );
+            if( numRings == 0 ){
+                return 0;
+            }
+        } else if( geometryType != WKB_LINESTRING ){
+            throw new UnsupportedGeometryTypeException( typeName( geometryType ), PolylineEncoder.ALLOWED_WKT_TYPES );
+        }
+
+        int numPoints = readCount( buf );
+        checkRemaining( buf, numPoints, dimension );
+        scratch.ensureCapacity( numPoints );
+        double[] xs = scratch.xs;
+        double[] ys = scratch.ys;
+        int skip = ( dimension - 2 ) * 8;
+        for( int i = 0; i < numPoints; i++ ){
+            xs[i] = buf.getDouble();
+            ys[i] = buf.getDouble();
+            if( skip != 0 ){
+                buf.position( buf.position() + skip );
+            }
+        }
+        PolylineEncoder.checkLineToEncode( xs, ys, numPoints, polygon );
+        for( int ring = 1; ring < numRings; ring++ ){
+            checkInteriorRing( buf, dimension );
+        }
+        return numPoints;
+    }
+
+    /**
+     * Skips an interior ring, checking only its size and its first and last points.
+     */
+    private static void checkInteriorRing( ByteBuffer buf, int dimension ) throws ParseException {
+        int numPoints = readCount( buf );
+        checkRemaining( buf, numPoints, dimension );
+        if( numPoints == 0 ){
+            return;
+        }
+        int start = buf.position();
+        double firstX = buf.getDouble( start );
+        double firstY = buf.getDouble( start + 8 );
+        int last = start + ( numPoints - 1 ) * dimension * 8;
+        double lastX = buf.getDouble( last );
+        double lastY = buf.getDouble( last + 8 );
+        buf.position( start + numPoints * dimension * 8 );
+        if( firstX != lastX || firstY != lastY ){
+            throw new IllegalArgumentException( "Points of LinearRing do not form a closed linestring" );
+        }
+        if( numPoints < 4 ){
+            throw new IllegalArgumentException( "Invalid number of points in LinearRing (found " + numPoints + " - must be 0 or >= 4)" );
+        }
+    }
+
+    private static void checkRemaining( ByteBuffer buf, int numPoints, int dimension ) throws ParseException {
+        if( (long) numPoints * dimension * 8 > buf.remaining() ){
+            throw new ParseException( "WKB declares " + numPoints + " points but only " + buf.remaining() + " bytes remain" );
+        }
+    }
+
+    private static int readCount( ByteBuffer buf ) throws ParseException {
+        int count = buf.getInt();
+        if( count < 0 ){
+            throw new ParseException( "Invalid WKB element count " + count );
+        }
+        return count;
+    }
+
+    private static String typeName( int geometryType ){
+        switch( geometryType ){
+            case 1: return "POINT";
+            case 4: return "MULTIPOINT";
+            case 5: return "MULTILINESTRING";
+            case 6: return "MULTIPOLYGON";
+            case 7: return "GEOMETRYCOLLECTION";
+            default: return "WKB type " + geometryType;
+        }
+    }
+
+    /**
+     * Decodes hex encoded WKB, as returned by PostGIS for geometry columns.
+     */
+    static byte[] hexToBytes( CharSequence hex ) throws ParseException {
+        int length = hex.length();
+        if( ( length & 1 ) != 0 ){
+            throw new ParseException( "Hex WKB has an odd number of digits" );
+        }
+        byte[] bytes = new byte[ length >> 1 ];
+        for( int i = 0; i < bytes.length; i++ ){
+            int hi = Character.digit( hex.charAt( i << 1 ), 16 );
+            int lo = Character.digit( hex.charAt( ( i << 1 ) + 1 ), 16 );
+            if( hi < 0 || lo < 0 ){
+                throw new ParseException( "Invalid hex digit in WKB at position " + ( i << 1 ) );
+            }
+            bytes[i] = (byte) ( ( hi << 4 ) | lo );
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,345 @@
+package com.axiomalaska.polylineencoder;
+
+import org.locationtech.jts.io.ParseException;
+
+/**
+ * Single pass WKT tokenizer that reads the coordinates of the line the encoder would use
+ * (a LINESTRING, or the exterior ring of a POLYGON) straight into packed x/y arrays,
+ * without building JTS geometries.
+ *
+ * Numbers are parsed to exactly the doubles WKTReader produces: short mantissas take
+ * an exact fast path, everything else goes through Double.parseDouble like WKTReader.
+ * An optional EWKT "SRID=n;" prefix and Z/M/ZM tags are accepted; like WKTReader, up
+ * to three ordinates per vertex (four with ZM) are accepted and all but x and y ignored,
+ * and numbers must end at whitespace, ',' or ')'. Interior rings are tokenized and
+ * checked like the exterior ring, but not stored.
+ */
+final class WktCoordinateReader {
+    static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /** Largest number of significant digits that always fits exactly in a double mantissa. */
+    static final int MAX_EXACT_DIGITS = 15;
+
+    private final CharSequence wkt;
+    private final int length;
+    private int pos;
+    /** ordinates allowed per vertex */
+    private int maxOrdinates = 3;
+
+    private WktCoordinateReader( CharSequence wkt ) {
+        this.wkt = wkt;
+        this.length = wkt.length();
+    }
+
+    /**
+     * Reads the line to encode into scratch.xs/scratch.ys.
+     *
+     * @return number of points read
+     */
+    static int read( CharSequence wkt, EncoderScratch scratch ) throws ParseException, UnsupportedGeometryTypeException {
+        return new WktCoordinateReader( wkt ).read( scratch );
+    }
+
+    private int read( EncoderScratch scratch ) throws ParseException, UnsupportedGeometryTypeException {
+        skipWhitespace();
+        if( regionMatches( "SRID=" ) ){
+            while( pos < length && wkt.charAt( pos ) != ';' ){
+                pos++;
+            }
+            expect( ';' );
+            skipWhitespace();
+        }
+
+        String type = readWord();
+        boolean polygon;
+        if( type.equals( "LINESTRING" ) ){
+            polygon = false;
+        } else if( type.equals( "POLYGON" ) ){
+            polygon = true;
+        } else {
+            throw new UnsupportedGeometryTypeException( type, PolylineEncoder.ALLOWED_WKT_TYPES );
+        }
+
+        skipWhitespace();
+        if( pos < length && Character.isLetter( wkt.charAt( pos ) ) ){
+            String tag = readWord();
+            if( tag.equals( "EMPTY" ) ){
+                return 0;
+            }
+            if( !tag.equals( "Z" ) && !tag.equals( "M" ) && !tag.equals( "ZM" ) ){
+                throw parseError( "Expected Z, M, ZM, EMPTY or '(' but found " + tag );
+            }
+            if( tag.equals( "ZM" ) ){
+                maxOrdinates = 4;
+            }
+            skipWhitespace();
+            if( regionMatchesWord( "EMPTY" ) ){
+                return 0;
+            }
+        }
+
+        expect( '(' );
+        if( polygon ){
+            skipWhitespace();
+            if( regionMatchesWord( "EMPTY" ) ){
+                return 0;
+            }
+            expect( '(' );
+        }
+        int numPoints = readCoordinates( scratch );
+        PolylineEncoder.checkLineToEncode( scratch.xs, scratch.ys, numPoints, polygon );
+        if( polygon ){
+            while( readSeparator() ){
+                skipWhitespace();
+                if( !regionMatchesWord( "EMPTY" ) ){
+                    expect( '(' );
+                    checkInteriorRing();
+                }
+            }
+        }
+        return numPoints;
+    }
+
+    /**
+     * Reads "x y [z [m]], ..." up to and including the closing parenthesis.
+     */
+    private int readCoordinates( EncoderScratch scratch ) throws ParseException {
+        int numPoints = 0;
+        do {
+            scratch.ensureCapacity( numPoints + 1 );
+            scratch.xs[ numPoints ] = readNumber();
+            scratch.ys[ numPoints ] = readNumber();
+            numPoints++;
+            skipExtraOrdinates();
+        } while( readSeparator() );
+        return numPoints;
+    }
+
+    /**
+     * Reads an interior ring up to and including its closing parenthesis, checking it
+     * like the exterior ring without storing it.
+     */
+    private void checkInteriorRing() throws ParseException {
+        double firstX = readNumber();
+        double firstY = readNumber();
+        double lastX = firstX;
+        double lastY = firstY;
+        int numPoints = 1;
+        skipExtraOrdinates();
+        while( readSeparator() ){
+            lastX = readNumber();
+            lastY = readNumber();
+            numPoints++;
+            skipExtraOrdinates();
+        }
+        if( firstX != lastX || firstY != lastY ){
+            throw new IllegalArgumentException( "Points of LinearRing do not form a closed linestring" );
+        }
+        if( numPoints < 4 ){
+            throw new IllegalArgumentException( "Invalid number of points in LinearRing (found " + numPoints + " - must be 0 or >= 4)" );
+        }
+    }
+
+    private void skipExtraOrdinates() throws ParseException {
+        skipWhitespace();
+        for( int ordinates = 2; pos < length && isNumberStart( wkt.charAt( pos ) ); ordinates++ ){
+            if( ordinates == maxOrdinates ){
+                throw parseError( "Expected ',' or ')' but found '" + wkt.charAt( pos ) + "'" );
+            }
+            readNumber();
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * Consumes the ',' or ')' after an element of a list.
+     *
+     * @return true for ',', false for ')'
+     */
+    private boolean readSeparator() throws ParseException {
+        skipWhitespace();
+        if( pos >= length ){
+            throw parseError( "Unexpected end of WKT" );
+        }
+        char c = wkt.charAt( pos++ );
+        if( c == ')' ){
+            return false;
+        }
+        if( c != ',' ){
+            throw parseError( "Expected ',' or ')' but found '" + c + "'" );
+        }
+        return true;
+    }
+
+    private double readNumber() throws ParseException {
+        skipWhitespace();
+        int start = pos;
+        if( regionMatches( "NAN" ) ){
+            pos += 3;
+            checkNumberEnd( start );
+            return Double.NaN;
+        }
+
+        boolean negative = false;
+        if( pos < length && ( wkt.charAt( pos ) == '-' || wkt.charAt( pos ) == '+' ) ){
+            negative = wkt.charAt( pos ) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        int numDigits = 0;
+        boolean fraction = false;
+        for( ; pos < length; pos++ ){
+            char c = wkt.charAt( pos );
+            if( c >= '0' && c <= '9' ){
+                numDigits++;
+                if( mantissa != 0 || c != '0' ){
+                    significantDigits++;
+                }
+                if( significantDigits <= MAX_EXACT_DIGITS ){
+                    mantissa = mantissa * 10 + ( c - '0' );
+                    if( fraction ){
+                        scale--;
+                    }
+                }
+            } else if( c == '.' && !fraction ){
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if( numDigits == 0 ){
+            throw parseError( "Expected a number" );
+        }
+
+        int exp = 0;
+        if( pos < length && ( wkt.charAt( pos ) == 'e' || wkt.charAt( pos ) == 'E' ) ){
+            pos++;
+            boolean negativeExp = false;
+            if( pos < length && ( wkt.charAt( pos ) == '-' || wkt.charAt( pos ) == '+' ) ){
+                negativeExp = wkt.charAt( pos ) == '-';
+                pos++;
+            }
+            int expDigits = 0;
+            while( pos < length && wkt.charAt( pos ) >= '0' && wkt.charAt( pos ) <= '9' ){
+                if( exp < 100000 ){
+                    exp = exp * 10 + ( wkt.charAt( pos ) - '0' );
+                }
+                pos++;
+                expDigits++;
+            }
+            if( expDigits == 0 ){
+                throw parseError( "Malformed exponent" );
+            }
+            if( negativeExp ){
+                exp = -exp;
+            }
+        }
+        checkNumberEnd( start );
+
+        if( significantDigits <= MAX_EXACT_DIGITS ){
+            // mantissa < 10^15 < 2^53 and 10^|e| <= 10^22 are exact doubles, so one
+            // multiplication or division gives the correctly rounded value
+            int e = scale + exp;
+            double value;
+            if( mantissa == 0 ){
+                value = 0.0;
+            } else if( e >= 0 && e < POWERS_OF_TEN.length ){
+                value = mantissa * POWERS_OF_TEN[e];
+            } else if( e < 0 && -e < POWERS_OF_TEN.length ){
+                value = mantissa / POWERS_OF_TEN[-e];
+            } else {
+                return parseSlow( start );
+            }
+            return negative ? -value : value;
+        }
+        return parseSlow( start );
+    }
+
+    /**
+     * Rejects numbers followed by anything but whitespace, ',' or ')', such as 1.2.3 or 1-2.
+     */
+    private void checkNumberEnd( int start ) throws ParseException {
+        if( pos == length ){
+            return;
+        }
+        char c = wkt.charAt( pos );
+        if( c == ',' || c == ')' || Character.isWhitespace( c ) ){
+            return;
+        }
+        int end = pos;
+        while( end < length && wkt.charAt( end ) != ',' && wkt.charAt( end ) != ')' && !Character.isWhitespace( wkt.charAt( end ) ) ){
+            end++;
+        }
+        pos = start;
+        throw parseError( "Invalid number " + wkt.subSequence( start, end ) );
+    }
+
+    private double parseSlow( int start ) throws ParseException {
+        try {
+            return Double.parseDouble( wkt.subSequence( start, pos ).toString() );
+        } catch( NumberFormatException e ){
+            throw parseError( "Invalid number " + wkt.subSequence( start, pos ) );
+        }
+    }
+
+    private String readWord() throws ParseException {
+        int start = pos;
+        while( pos < length && Character.isLetter( wkt.charAt( pos ) ) ){
+            pos++;
+        }
+        if( start == pos ){
+            throw parseError( "Expected a geometry type" );
+        }
+        return wkt.subSequence( start, pos ).toString().toUpperCase();
+    }
+
+    private void expect( char expected ) throws ParseException {
+        skipWhitespace();
+        if( pos >= length || wkt.charAt( pos ) != expected ){
+            throw parseError( "Expected '" + expected + "'" );
+        }
+        pos++;
+    }
+
+    private void skipWhitespace(){
+        while( pos < length && Character.isWhitespace( wkt.charAt( pos ) ) ){
+            pos++;
+        }
+    }
+
+    /**
+     * Case insensitive match of an upper case string at the current position.
+     */
+    private boolean regionMatches( String s ){
+        if( pos + s.length() > length ){
+            return false;
+        }
+        for( int i = 0; i < s.length(); i++ ){
+            if( Character.toUpperCase( wkt.charAt( pos + i ) ) != s.charAt( i ) ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionMatchesWord( String word ){
+        if( regionMatches( word ) ){
+            pos += word.length();
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isNumberStart( char c ){
+        return ( c >= '0' && c <= '9' ) || c == '-' || c == '+' || c == '.' || c == 'N' || c == 'n';
+    }
+
+    private ParseException parseError( String message ){
+        return new ParseException( message + " at position " + pos + " of WKT" );
+    }
+}
@@ -1,8 +1,6 @@
 package com.axiomalaska.polylineencoder;
 
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.PrecisionModel;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 
@@ -12,7 +10,6 @@ public class WktUtil {
     }
     
     public static Geometry wktToGeom( String wkt, int epsg ) throws ParseException{ 
-        GeometryFactory geomFactory = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), epsg );
-        return new WKTReader( geomFactory ).read( wkt );
+        return new WKTReader( GeometryFactories.forSrid( epsg ) ).read( wkt );
     }    
 }
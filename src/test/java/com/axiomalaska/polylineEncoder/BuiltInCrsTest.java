@@ -0,0 +1,86 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.BuiltInCrs;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class BuiltInCrsTest extends TestCase {
+    private Polygon testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testKnownPoints(){
+        // projection origins
+        double[] coords = new double[]{ -154, 50, 15, 0, 15, -10, -105, 0 };
+        BuiltInCrs.transform( 4326, 3338, coords, 0, 1 );
+        BuiltInCrs.transform( 4326, 32633, coords, 1, 1 );
+        BuiltInCrs.transform( 4326, 32733, coords, 2, 1 );
+        BuiltInCrs.transform( 4269, 26913, coords, 3, 1 );
+        assertEquals( 0, coords[0], 0.001 );
+        assertEquals( 0, coords[1], 0.001 );
+        assertEquals( 500000, coords[2], 0.001 );
+        assertEquals( 0, coords[3], 0.001 );
+        assertEquals( 500000, coords[4], 0.001 );
+        assertTrue( coords[5] < 10000000 && coords[5] > 8800000 );
+        assertEquals( 500000, coords[6], 0.001 );
+        assertEquals( 0, coords[7], 0.001 );
+
+        // Anchorage
+        double[] anchorage = new double[]{ -149.9, 61.2 };
+        BuiltInCrs.transform( 4326, 3338, anchorage, 0, 1 );
+        assertEquals( 219490.51, anchorage[0], 0.01 );
+        assertEquals( 1253281.98, anchorage[1], 0.01 );
+
+        assertTrue( BuiltInCrs.isSupported( 32760 ) );
+        assertFalse( BuiltInCrs.isSupported( 32761 ) );
+        assertFalse( BuiltInCrs.isSupported( 2163 ) );
+        try {
+            BuiltInCrs.transform( 4326, 2163, coords, 0, 1 );
+            fail( "EPSG:2163 is not built in" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+
+    public void testRoundTrip(){
+        Coordinate[] ring = testPolygon.getExteriorRing().getCoordinates();
+        double[] lngLats = new double[ ring.length * 2 ];
+        for( int i = 0; i < ring.length; i++ ){
+            lngLats[ i * 2 ] = ring[i].x;
+            lngLats[ i * 2 + 1 ] = ring[i].y;
+        }
+        int zone = (int) Math.floor( ( ring[0].x + 180 ) / 6 ) + 1;
+        for( int srid : new int[]{ 3857, 3338, 32600 + zone, 26900 + zone, 32700 + zone } ){
+            double[] coords = lngLats.clone();
+            BuiltInCrs.transform( 4326, srid, coords, 0, ring.length );
+            assertTrue( coords[0] != lngLats[0] );
+            BuiltInCrs.transform( srid, 4326, coords, 0, ring.length );
+            for( int i = 0; i < coords.length; i++ ){
+                assertEquals( lngLats[i], coords[i], 1e-9 );
+            }
+        }
+    }
+
+    public void testMercatorNotClampedNearPoles(){
+        // same as GeoTools: no clamp at the Web Mercator tile limit of 85.0511
+        double[] coords = new double[]{ -150, 89, 30, -89, 0, 86, 0, 90 };
+        BuiltInCrs.transform( 4326, 3857, coords, 0, 4 );
+        assertEquals( 30240971.958, coords[1], 0.001 );
+        assertEquals( -30240971.958, coords[3], 0.001 );
+        assertTrue( coords[5] > 20037508.343 );
+        assertEquals( Double.POSITIVE_INFINITY, coords[7] );
+
+        BuiltInCrs.transform( 3857, 4326, coords, 0, 3 );
+        assertEquals( -150, coords[0], 1e-9 );
+        assertEquals( 89, coords[1], 1e-9 );
+        assertEquals( 30, coords[2], 1e-9 );
+        assertEquals( -89, coords[3], 1e-9 );
+        assertEquals( 86, coords[5], 1e-9 );
+    }
+}
@@ -0,0 +1,111 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.axiomalaska.polylineencoder.BulkFileEncoder;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.ImmutablePolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.io.WKTWriter;
+
+import junit.framework.TestCase;
+
+public class BulkFileEncoderTest extends TestCase {
+    private Geometry polygon;
+
+    protected void setUp() throws ParseException, IOException{
+        polygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testSameAsEncode() throws IOException, ParseException, UnsupportedGeometryTypeException{
+        Geometry line = new WKTReader().read( "LINESTRING (-149.9 61.2, -149.85 61.25, -149.8 61.3, -149.7 61.2)" );
+        String polygonWkt = new WKTWriter().write( polygon );
+        String lineHex = WKBWriter.toHex( new WKBWriter().write( line ) );
+
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        settings.setPrecision( 6 );
+        EncodedPolyline encodedPolygon = PolylineEncoder.encode( polygon, settings );
+        EncodedPolyline encodedLine = PolylineEncoder.encode( line, settings );
+        String polygonOut = encodedPolygon.getPoints() + "\t" + encodedPolygon.getLevels();
+        String lineOut = encodedLine.getPoints() + "\t" + encodedLine.getLevels();
+
+        // enough copies of the polygon to span several chunks
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for( int i = 0; i < 60; i++ ){
+            input.append( i ).append( '\t' ).append( polygonWkt ).append( '\n' );
+            expected.append( i ).append( '\t' ).append( polygonOut ).append( '\n' );
+            input.append( lineHex ).append( "\r\n" );
+            expected.append( lineOut ).append( '\n' );
+            input.append( "\n" );
+            expected.append( "\t\n" );
+            input.append( "id\t" ).append( i % 2 == 0 ? "POINT (1 2)" : "LINESTRING (1 2, 3" ).append( '\n' );
+            expected.append( "id\t\t\n" );
+        }
+        input.append( "last\tSRID=4326;" ).append( new WKTWriter().write( line ) );
+        expected.append( "last\t" ).append( lineOut ).append( '\n' );
+
+        Path in = Files.createTempFile( "geometries", ".txt" );
+        Path out = Files.createTempFile( "encoded", ".txt" );
+        try {
+            Files.write( in, input.toString().getBytes( StandardCharsets.US_ASCII ) );
+            for( int threads = 1; threads <= 3; threads++ ){
+                BulkFileEncoder.Summary summary = BulkFileEncoder.encode( in, out, ImmutablePolylineEncoderSettings.of( settings ), threads );
+                assertEquals( expected.toString(), new String( Files.readAllBytes( out ), StandardCharsets.US_ASCII ) );
+                assertEquals( 241, summary.getNumLines() );
+                assertEquals( 120, summary.getNumFailed() );
+                assertEquals( Files.size( in ), summary.getInputBytes() );
+                assertEquals( Files.size( out ), summary.getOutputBytes() );
+                assertTrue( summary.getInputBytes() > 2 * ( 4 << 20 ) );
+            }
+        } finally {
+            Files.delete( in );
+            Files.delete( out );
+        }
+    }
+
+    public void testBlankLinesKeepAlignment() throws IOException{
+        String line = "LINESTRING (-149.9 61.2, -149.85 61.25)";
+        Path in = Files.createTempFile( "geometries", ".txt" );
+        Path out = Files.createTempFile( "encoded", ".txt" );
+        try {
+            Files.write( in, ( "a\t" + line + "\n\n  \r\nb\t" + line + "\n" ).getBytes( StandardCharsets.US_ASCII ) );
+            BulkFileEncoder.Summary summary = BulkFileEncoder.encode( in, out, ImmutablePolylineEncoderSettings.DEFAULT, 1 );
+            List<String> lines = Files.readAllLines( out );
+            assertEquals( 4, lines.size() );
+            assertTrue( lines.get( 0 ).startsWith( "a\t" ) );
+            assertEquals( "\t", lines.get( 1 ) );
+            assertEquals( "\t", lines.get( 2 ) );
+            assertTrue( lines.get( 3 ).startsWith( "b\t" ) );
+            assertEquals( 4, summary.getNumLines() );
+            assertEquals( 2, summary.getNumFailed() );
+        } finally {
+            Files.delete( in );
+            Files.delete( out );
+        }
+    }
+
+    public void testEmptyFile() throws IOException{
+        Path in = Files.createTempFile( "geometries", ".txt" );
+        Path out = Files.createTempFile( "encoded", ".txt" );
+        try {
+            BulkFileEncoder.Summary summary = BulkFileEncoder.encode( in, out, ImmutablePolylineEncoderSettings.DEFAULT, 2 );
+            assertEquals( 0, summary.getNumLines() );
+            List<String> lines = Files.readAllLines( out );
+            assertTrue( lines.isEmpty() );
+        } finally {
+            Files.delete( in );
+            Files.delete( out );
+        }
+    }
+}
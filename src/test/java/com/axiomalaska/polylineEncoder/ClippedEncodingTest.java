@@ -0,0 +1,91 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.EncodedMultiPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class ClippedEncodingTest extends TestCase {
+    private Polygon testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testClipPolygon() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        Envelope env = testPolygon.getEnvelopeInternal();
+
+        // a box around everything at the deepest zoom is a full encode
+        EncodedMultiPolyline all = PolylineEncoder.encodeClipped( testPolygon, env.getMinX() - 1, env.getMinY() - 1, env.getMaxX() + 1, env.getMaxY() + 1, 30, settings );
+        assertEquals( PolylineEncoder.encodeParts( testPolygon, settings ).getPoints(), all.getPoints() );
+        assertEquals( PolylineEncoder.encodeParts( testPolygon, settings ).getLevels(), all.getLevels() );
+
+        // the west half, at zoom 10
+        double midX = ( env.getMinX() + env.getMaxX() ) / 2;
+        EncodedMultiPolyline west = PolylineEncoder.encodeClipped( testPolygon, env.getMinX() - 1, env.getMinY() - 1, midX, env.getMaxY() + 1, 10, settings );
+        assertTrue( west.getNumParts() < all.getNumParts() );
+        assertEquals( 0, west.getRingIndex( 0 ) );
+        boolean onEdge = false;
+        for( int part = 0; part < west.getNumParts(); part++ ){
+            double[] coords = new double[ PolylineDecoder.countPoints( west.getPoints( part ) ) * 2 ];
+            PolylineDecoder.decode( west.getPoints( part ), coords );
+            assertEquals( coords[0], coords[ coords.length - 2 ], 0 );
+            assertEquals( coords[1], coords[ coords.length - 1 ], 0 );
+            for( int i = 0; i < coords.length; i += 2 ){
+                assertTrue( coords[i] <= midX );
+                onEdge |= coords[i] > midX - 0.00001;
+            }
+        }
+        assertTrue( onEdge );
+        assertTrue( PolylineDecoder.countPoints( west.getPoints() ) < PolylineDecoder.countPoints( all.getPoints() ) );
+        String levels = west.getLevels();
+        for( int i = 0; i < levels.length(); i++ ){
+            assertTrue( levels.charAt( i ) - 63 >= settings.getNumLevels() - 1 - 10 );
+        }
+
+        // nothing in an empty ocean
+        assertEquals( 0, PolylineEncoder.encodeClipped( testPolygon, 0, 0, 1, 1, 10, settings ).getNumParts() );
+    }
+
+    public void testClipLineAndTile() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        GeometryFactory geometryFactory = new GeometryFactory();
+
+        // a zigzag in and out of the box falls apart into one part per pass
+        LineString zigzag = geometryFactory.createLineString( new Coordinate[]{
+            new Coordinate( -2, 0.5 ), new Coordinate( 2, 0.5 ), new Coordinate( 2, 0.7 ), new Coordinate( 0.5, 0.7 ), new Coordinate( 0.5, 3 ) } );
+        EncodedMultiPolyline pieces = PolylineEncoder.encodeClipped( zigzag, 0, 0, 1, 1, 17, settings );
+        assertEquals( 2, pieces.getNumParts() );
+        assertEquals( PolylineEncoder.encode( geometryFactory.createLineString( new Coordinate[]{ new Coordinate( 0, 0.5 ), new Coordinate( 1, 0.5 ) } ), settings ).getPoints(),
+            pieces.getPoints( 0 ) );
+        assertEquals( PolylineEncoder.encode( geometryFactory.createLineString( new Coordinate[]{ new Coordinate( 1, 0.7 ), new Coordinate( 0.5, 0.7 ), new Coordinate( 0.5, 1 ) } ), settings ).getPoints(),
+            pieces.getPoints( 1 ) );
+
+        // the zoom 7 tile holding the polygon has all of it, its neighbour none
+        Coordinate c = testPolygon.getCentroid().getCoordinate();
+        int tileX = (int) Math.floor( ( c.x + 180 ) / 360 * 128 );
+        double latRad = Math.toRadians( c.y );
+        int tileY = (int) Math.floor( ( 1 - Math.log( Math.tan( latRad ) + 1 / Math.cos( latRad ) ) / Math.PI ) / 2 * 128 );
+        EncodedMultiPolyline tile = PolylineEncoder.encodeTile( testPolygon, 7, tileX, tileY, settings );
+        assertEquals( PolylineEncoder.encodeClipped( testPolygon, -180, -85, 180, 85, 7, settings ).getPoints(), tile.getPoints() );
+        assertTrue( PolylineDecoder.countPoints( tile.getPoints() ) < testPolygon.getNumPoints() );
+        assertEquals( 0, PolylineEncoder.encodeTile( testPolygon, 7, tileX + 1, tileY, settings ).getNumParts() );
+        try {
+            PolylineEncoder.encodeTile( testPolygon, 2, 4, 0, settings );
+            fail( "no such tile" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+}
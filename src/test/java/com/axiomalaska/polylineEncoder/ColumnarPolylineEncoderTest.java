@@ -0,0 +1,122 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.axiomalaska.polylineencoder.ColumnarPolylineEncoder;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.ImmutablePolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class ColumnarPolylineEncoderTest extends TestCase {
+    private Coordinate[] ring;
+
+    protected void setUp() throws ParseException, IOException{
+        ring = TestGeometries.alaskaPolygon().getExteriorRing().getCoordinates();
+    }
+
+    public void testSameAsEncode() throws UnsupportedGeometryTypeException{
+        // the whole ring, then consecutive pieces of it, then an empty line
+        int[] offsets = new int[]{ 0, ring.length, ring.length + 2, ring.length + 100, ring.length * 2, ring.length * 2 };
+        double[] coords = new double[ ring.length * 4 ];
+        for( int i = 0; i < ring.length * 2; i++ ){
+            coords[ i * 2 ] = ring[ i % ring.length ].x;
+            coords[ i * 2 + 1 ] = ring[ i % ring.length ].y;
+        }
+        DoubleBuffer direct = ByteBuffer.allocateDirect( coords.length * 8 ).order( ByteOrder.nativeOrder() ).asDoubleBuffer();
+        direct.put( coords ).flip();
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        ImmutablePolylineEncoderSettings immutable = ImmutablePolylineEncoderSettings.of( settings );
+        GeometryFactory geometryFactory = new GeometryFactory();
+
+        for( DoubleBuffer buffer : new DoubleBuffer[]{ DoubleBuffer.wrap( coords ), direct } ){
+            ByteBuffer out = ByteBuffer.allocate( 1 << 16 );
+            int[] outOffsets = new int[ 11 ];
+            assertEquals( 5, ColumnarPolylineEncoder.encode( buffer, offsets, 0, 5, immutable, out, outOffsets ) );
+            assertEquals( out.position(), outOffsets[10] );
+            ByteBuffer dumbOut = ByteBuffer.allocateDirect( 1 << 16 );
+            int[] dumbOffsets = new int[ 11 ];
+            assertEquals( 5, ColumnarPolylineEncoder.dumbEncode( buffer, offsets, 0, 5, 17, 1, dumbOut, dumbOffsets ) );
+            assertEquals( 0, buffer.position() );
+
+            for( int line = 0; line < 5; line++ ){
+                int numPoints = offsets[ line + 1 ] - offsets[ line ];
+                double[] xs = new double[ numPoints ];
+                double[] ys = new double[ numPoints ];
+                Coordinate[] lineCoords = new Coordinate[ numPoints ];
+                for( int i = 0; i < numPoints; i++ ){
+                    xs[i] = coords[ ( offsets[ line ] + i ) * 2 ];
+                    ys[i] = coords[ ( offsets[ line ] + i ) * 2 + 1 ];
+                    lineCoords[i] = new Coordinate( xs[i], ys[i] );
+                }
+                EncodedPolyline expected = PolylineEncoder.encode( xs, ys, numPoints, settings );
+                assertEquals( expected.getPoints(), string( out, outOffsets[ line * 2 ], outOffsets[ line * 2 + 1 ] ) );
+                assertEquals( expected.getLevels(), string( out, outOffsets[ line * 2 + 1 ], outOffsets[ line * 2 + 2 ] ) );
+
+                EncodedPolyline dumb = PolylineEncoder.dumbEncode( geometryFactory.createLineString( lineCoords ), 17, 1 );
+                assertEquals( dumb.getPoints(), string( dumbOut, dumbOffsets[ line * 2 ], dumbOffsets[ line * 2 + 1 ] ) );
+                assertEquals( dumb.getLevels(), string( dumbOut, dumbOffsets[ line * 2 + 1 ], dumbOffsets[ line * 2 + 2 ] ) );
+            }
+        }
+    }
+
+    public void testResumesWhenOutputIsFull(){
+        int numLines = 50;
+        int[] offsets = new int[ numLines + 1 ];
+        double[] coords = new double[ ring.length * 2 ];
+        for( int i = 0; i < ring.length; i++ ){
+            coords[ i * 2 ] = ring[i].x;
+            coords[ i * 2 + 1 ] = ring[i].y;
+        }
+        for( int line = 1; line <= numLines; line++ ){
+            offsets[ line ] = ring.length * line / numLines;
+        }
+        ImmutablePolylineEncoderSettings settings = ImmutablePolylineEncoderSettings.DEFAULT;
+        ByteBuffer all = ByteBuffer.allocate( 1 << 16 );
+        int[] allOffsets = new int[ numLines * 2 + 1 ];
+        ColumnarPolylineEncoder.encode( DoubleBuffer.wrap( coords ), offsets, 0, numLines, settings, all, allOffsets );
+
+        // drain a small buffer until every line is encoded
+        StringBuilder drained = new StringBuilder();
+        ByteBuffer small = ByteBuffer.allocate( 2048 );
+        int[] outOffsets = new int[ numLines * 2 + 1 ];
+        int line = 0;
+        int calls = 0;
+        while( line < numLines ){
+            int next = ColumnarPolylineEncoder.encode( DoubleBuffer.wrap( coords ), offsets, line, numLines, settings, small, outOffsets );
+            assertTrue( next > line );
+            assertEquals( small.position(), outOffsets[ ( next - line ) * 2 ] );
+            drained.append( string( small, 0, small.position() ) );
+            small.clear();
+            line = next;
+            calls++;
+        }
+        assertTrue( calls > 1 );
+        assertEquals( string( all, 0, all.position() ), drained.toString() );
+
+        offsets[3] = offsets[2] - 1;
+        try {
+            ColumnarPolylineEncoder.encode( DoubleBuffer.wrap( coords ), offsets, 0, numLines, settings, all, allOffsets );
+            fail( "decreasing offsets" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+
+    private static String string( ByteBuffer buffer, int from, int to ){
+        byte[] bytes = new byte[ to - from ];
+        for( int i = from; i < to; i++ ){
+            bytes[ i - from ] = buffer.get( i );
+        }
+        return new String( bytes, StandardCharsets.ISO_8859_1 );
+    }
+}
@@ -0,0 +1,62 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.axiomalaska.polylineencoder.CompactPolyline;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class CompactPolylineTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testViews() throws UnsupportedGeometryTypeException, IOException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline expected = PolylineEncoder.encode( testPolygon, settings );
+        CompactPolyline compact = PolylineEncoder.encodeCompact( testPolygon, settings );
+
+        assertEquals( expected.getPoints().length(), compact.getPointsLength() );
+        assertEquals( expected.getLevels().length(), compact.getLevelsLength() );
+        assertEquals( expected.getPoints(), compact.getPointsChars().toString() );
+        assertEquals( expected.getLevels(), compact.getLevelsChars().toString() );
+        assertSame( compact.getPoints(), compact.getPoints() );
+        assertEquals( expected.getLevels(), compact.toEncodedPolyline().getLevels() );
+        assertEquals( compact, CompactPolyline.of( expected ) );
+        assertEquals( compact.hashCode(), CompactPolyline.of( expected ).hashCode() );
+
+        ByteBuffer points = compact.getPointsBuffer();
+        assertTrue( points.isReadOnly() );
+        assertEquals( 0, points.position() );
+        byte[] pointBytes = new byte[ points.remaining() ];
+        points.get( pointBytes );
+        assertEquals( expected.getPoints(), new String( pointBytes, StandardCharsets.US_ASCII ) );
+        assertEquals( expected.getLevels().length(), compact.getLevelsBuffer().remaining() );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compact.writePointsTo( out );
+        compact.writeLevelsTo( out );
+        assertEquals( expected.getPoints() + expected.getLevels(), out.toString( "US-ASCII" ) );
+
+        int numPoints = PolylineDecoder.countPoints( compact.getPointsChars() );
+        PolylineDecoder.Cursor cursor = PolylineDecoder.cursor( compact );
+        int i = 0;
+        while( cursor.next() ){
+            i++;
+        }
+        assertEquals( numPoints, i );
+        assertEquals( expected.getPoints().substring( 3, 9 ), compact.getPointsChars().subSequence( 3, 9 ).toString() );
+    }
+}
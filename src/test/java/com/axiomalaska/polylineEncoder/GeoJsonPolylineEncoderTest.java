@@ -0,0 +1,153 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.GeoJsonFeatureReader;
+import com.axiomalaska.polylineencoder.GeoJsonPolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class GeoJsonPolylineEncoderTest extends TestCase {
+    private Polygon polygon;
+    private String polygonCoordinates;
+
+    protected void setUp() throws ParseException, IOException{
+        polygon = TestGeometries.alaskaPolygon();
+        StringBuilder sb = new StringBuilder( "[" );
+        appendRing( sb, polygon.getExteriorRing().getCoordinates() );
+        for( int i = 0; i < polygon.getNumInteriorRing(); i++ ){
+            sb.append( ",\n  " );
+            appendRing( sb, polygon.getInteriorRingN( i ).getCoordinates() );
+        }
+        polygonCoordinates = sb.append( "]" ).toString();
+    }
+
+    private static void appendRing( StringBuilder sb, Coordinate[] coords ){
+        sb.append( '[' );
+        for( int i = 0; i < coords.length; i++ ){
+            sb.append( i == 0 ? "" : ", " ).append( '[' ).append( coords[i].x ).append( ',' ).append( coords[i].y ).append( ']' );
+        }
+        sb.append( ']' );
+    }
+
+    public void testFeatureCollection() throws IOException, ParseException, UnsupportedGeometryTypeException{
+        LineString line = new GeometryFactory().createLineString( new Coordinate[]{
+            new Coordinate( -149.9, 61.2 ), new Coordinate( -149.85, 61.25 ), new Coordinate( -1.4985e2, 6.13E1 ) } );
+        String geoJson = "{ \"type\": \"FeatureCollection\", \"name\": \"test\",\n"
+            + "\"features\": [\n"
+            + "{ \"type\": \"Feature\", \"id\": \"poly\\t\\\"1\\\"\", \"properties\": { \"note\": \"has ] and } and \\\" in it\", \"list\": [ [ 1, 2 ], { \"a\": null } ] },\n"
+            + "  \"geometry\": { \"type\": \"Polygon\", \"coordinates\": " + polygonCoordinates + " } },\n"
+            // coordinates before type, numeric id after the geometry
+            + "{ \"type\": \"Feature\", \"geometry\": { \"coordinates\": [ [ -149.9, 61.2, 12.5 ], [ -149.85, 61.25 ], [ -1.4985e2, 6.13E1 ] ], \"type\": \"LineString\" }, \"id\": 42, \"properties\": null },\n"
+            + "{ \"type\": \"Feature\", \"id\": \"nothing\", \"geometry\": null, \"properties\": {} },\n"
+            + "{ \"type\": \"Feature\", \"id\": \"point\", \"geometry\": { \"type\": \"Point\", \"coordinates\": [ 1, 2 ] } },\n"
+            + "{ \"type\": \"Feature\", \"id\": \"open\", \"geometry\": { \"type\": \"Polygon\", \"coordinates\": [ [ [ 0, 0 ], [ 0, 1 ], [ 1, 1 ], [ 1, 0 ] ] ] } },\n"
+            + "{ \"type\": \"Feature\", \"properties\": { \"id\": \"not the feature id\" }, \"geometry\": { \"type\": \"LineString\", \"coordinates\": [] } }\n"
+            + "], \"bbox\": [ -180, -90, 180, 90 ] }";
+
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline expectedPolygon = PolylineEncoder.encode( polygon, settings );
+        EncodedPolyline expectedLine = PolylineEncoder.encode( line, settings );
+        EncodedPolyline expectedEmpty = PolylineEncoder.encodeWkt( "LINESTRING EMPTY", settings );
+        String expected = "poly\\t\"1\"\t" + expectedPolygon.getPoints() + "\t" + expectedPolygon.getLevels() + "\n"
+            + "42\t" + expectedLine.getPoints() + "\t" + expectedLine.getLevels() + "\n"
+            + "\t" + expectedEmpty.getPoints() + "\t" + expectedEmpty.getLevels() + "\n";
+
+        // in one read, and a few bytes at a time so every token crosses a buffer boundary
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals( 3, GeoJsonPolylineEncoder.encode( Channels.newChannel( new ByteArrayInputStream( geoJson.getBytes( StandardCharsets.UTF_8 ) ) ), out, settings ) );
+        assertEquals( expected, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+
+        out.reset();
+        assertEquals( 3, GeoJsonPolylineEncoder.encode( Channels.newChannel( new TrickleInputStream( geoJson ) ), out, settings ) );
+        assertEquals( expected, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+
+        Path file = Files.createTempFile( "features", ".geojson" );
+        try {
+            Files.write( file, geoJson.getBytes( StandardCharsets.UTF_8 ) );
+            out.reset();
+            assertEquals( 3, GeoJsonPolylineEncoder.encode( file, out, settings ) );
+            assertEquals( expected, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+        } finally {
+            Files.delete( file );
+        }
+    }
+
+    public void testReaderCoordinates() throws IOException, ParseException{
+        String geoJson = "{\"type\":\"Feature\",\"id\":\"caf\\u00e9 \u00e9t\u00e9\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":" + polygonCoordinates + "}}";
+        GeoJsonFeatureReader reader = new GeoJsonFeatureReader( new TrickleInputStream( geoJson ) );
+        assertTrue( reader.next() );
+        assertEquals( "caf\u00e9 \u00e9t\u00e9", reader.getId() );
+        assertEquals( "Polygon", reader.getGeometryType() );
+        Coordinate[] ring = polygon.getExteriorRing().getCoordinates();
+        assertEquals( ring.length, reader.getNumPoints() );
+        for( int i = 0; i < ring.length; i++ ){
+            assertEquals( ring[i].x, reader.getX( i ) );
+            assertEquals( ring[i].y, reader.getY( i ) );
+        }
+        assertFalse( reader.next() );
+    }
+
+    public void testFeatureSequence() throws IOException, ParseException{
+        String geoJson = "\u001e{\"type\":\"Feature\",\"id\":1,\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,1]]}}\n"
+            + "\u001e{\"id\":2,\"geometry\":{\"type\":\"MultiLineString\",\"coordinates\":[[[2,2],[3,3],[4,4]],[[5,5],[6,6]]]},\"type\":\"Feature\"}\n";
+        GeoJsonFeatureReader reader = new GeoJsonFeatureReader( new ByteArrayInputStream( geoJson.getBytes( StandardCharsets.UTF_8 ) ) );
+        assertTrue( reader.next() );
+        assertEquals( "1", reader.getId() );
+        assertEquals( 2, reader.getNumPoints() );
+        assertTrue( reader.next() );
+        assertEquals( "2", reader.getId() );
+        assertEquals( "MultiLineString", reader.getGeometryType() );
+        assertEquals( 3, reader.getNumPoints() );
+        assertEquals( 4.0, reader.getY( 2 ) );
+        assertFalse( reader.next() );
+    }
+
+    public void testMalformed() throws IOException{
+        String[] inputs = new String[]{
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[0,0],[1,x]]}}]}",
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[[0,0]]]}}]}",
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"properties\":{\"a\":\"unterminated}]}",
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"id\":1 \"geometry\":null}]}"
+        };
+        for( String input : inputs ){
+            GeoJsonFeatureReader reader = new GeoJsonFeatureReader( new ByteArrayInputStream( input.getBytes( StandardCharsets.UTF_8 ) ) );
+            try {
+                reader.next();
+                fail( "Expected a ParseException for " + input );
+            } catch( ParseException e ){
+                //expected
+            }
+        }
+    }
+
+    /**
+     * Returns at most 7 bytes per read.
+     */
+    private static class TrickleInputStream extends FilterInputStream {
+        TrickleInputStream( String s ){
+            super( new ByteArrayInputStream( s.getBytes( StandardCharsets.UTF_8 ) ) );
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+            return super.read( b, off, Math.min( len, 7 ) );
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.IncrementalPolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class IncrementalPolylineEncoderTest extends TestCase {
+    private Polygon testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testAppendMatchesDumbEncode() throws UnsupportedGeometryTypeException{
+        IncrementalPolylineEncoder encoder = new IncrementalPolylineEncoder();
+        String previous = "";
+        for( int i = 0; i < testPolygon.getExteriorRing().getNumPoints(); i++ ){
+            encoder.append( testPolygon.getExteriorRing().getCoordinateN( i ).x, testPolygon.getExteriorRing().getCoordinateN( i ).y );
+            String points = encoder.toEncodedPolyline().getPoints();
+            assertTrue( points.startsWith( previous ) );
+            previous = points;
+        }
+        EncodedPolyline expected = PolylineEncoder.dumbEncode( testPolygon );
+        assertEquals( expected.getPoints(), encoder.toEncodedPolyline().getPoints() );
+        assertEquals( expected.getLevels(), encoder.toEncodedPolyline().getLevels() );
+        assertEquals( encoder.toEncodedPolyline().getPoints(), encoder.toCompactPolyline().getPoints() );
+    }
+
+    public void testOnlineSimplification(){
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        IncrementalPolylineEncoder encoder = new IncrementalPolylineEncoder( settings, 64 );
+        Random random = new Random( 42 );
+        int numPoints = 5000;
+        double[] coords = new double[ numPoints * 2 ];
+        Set<Long> input = new HashSet<Long>();
+        double x = -150;
+        double y = 60;
+        double heading = 0;
+        String written = "";
+        for( int i = 0; i < numPoints; i++ ){
+            // mostly straight legs with GPS jitter and an occasional turn
+            if( i % 400 == 0 ){
+                heading = random.nextDouble() * Math.PI * 2;
+            }
+            x += Math.cos( heading ) * 0.0001 + ( random.nextDouble() - 0.5 ) * 0.000005;
+            y += Math.sin( heading ) * 0.0001 + ( random.nextDouble() - 0.5 ) * 0.000005;
+            coords[ i * 2 ] = x;
+            coords[ i * 2 + 1 ] = y;
+            input.add( key( (int) Math.floor( x * 1e5 ), (int) Math.floor( y * 1e5 ) ) );
+            encoder.append( x, y );
+            if( i % 500 == 0 ){
+                String points = encoder.toEncodedPolyline().getPoints();
+                assertTrue( points.startsWith( written ) );
+                written = points.substring( 0, encoder.getWrittenPointsLength() );
+            }
+        }
+        encoder.flush();
+        EncodedPolyline encoded = encoder.toEncodedPolyline();
+        assertEquals( encoder.getNumWritten(), PolylineDecoder.countPoints( encoded.getPoints() ) );
+        assertTrue( encoded.getPoints().startsWith( written ) );
+
+        int[] levels = new int[ encoder.getNumWritten() ];
+        assertEquals( encoder.getNumWritten(), PolylineDecoder.decodeLevels( encoded.getLevels(), levels ) );
+        assertEquals( settings.getNumLevels() - 1, levels[0] );
+        assertEquals( settings.getNumLevels() - 1, levels[ levels.length - 1 ] );
+
+        int[] decoded = new int[ encoder.getNumWritten() * 2 ];
+        PolylineDecoder.decode( encoded.getPoints(), decoded );
+        assertTrue( encoder.getNumWritten() < numPoints / 10 );
+        for( int i = 0; i < encoder.getNumWritten(); i++ ){
+            assertTrue( input.contains( key( decoded[ i * 2 ], decoded[ i * 2 + 1 ] ) ) );
+        }
+        assertEquals( (int) Math.floor( coords[ coords.length - 2 ] * 1e5 ), decoded[ decoded.length - 2 ] );
+        assertEquals( (int) Math.floor( coords[ coords.length - 1 ] * 1e5 ), decoded[ decoded.length - 1 ] );
+    }
+
+    private static long key( int xe5, int ye5 ){
+        return ( (long) xe5 << 32 ) | ( ye5 & 0xffffffffL );
+    }
+}
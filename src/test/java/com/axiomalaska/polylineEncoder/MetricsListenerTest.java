@@ -0,0 +1,89 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.axiomalaska.polylineencoder.EncodeMetrics;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.MetricsListener;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+public class MetricsListenerTest extends TestCase {
+    private Polygon testPolygon;
+    private final List<EncodeMetrics> recorded = new ArrayList<EncodeMetrics>();
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    protected void tearDown(){
+        PolylineEncoder.setMetricsListener( MetricsListener.NO_OP );
+    }
+
+    public void testListener() throws UnsupportedGeometryTypeException, ParseException, IOException{
+        PolylineEncoder.setMetricsListener( new MetricsListener() {
+            public void encoded( EncodeMetrics metrics ){
+                recorded.add( metrics );
+            }
+        });
+
+        EncodedPolyline encoded = PolylineEncoder.encode( testPolygon, new PolylineEncoderSettings() );
+        assertEquals( 1, recorded.size() );
+        EncodeMetrics metrics = recorded.get( 0 );
+        assertEquals( testPolygon.getExteriorRing().getNumPoints(), metrics.getInputVertices() );
+        assertEquals( PolylineDecoder.countPoints( encoded.getPoints() ), metrics.getOutputVertices() );
+        assertEquals( encoded.getPoints().length(), metrics.getPointsBytes() );
+        assertEquals( encoded.getLevels().length(), metrics.getLevelsBytes() );
+        assertEquals( 0, metrics.getParseNanos() );
+        assertTrue( metrics.getSimplifyNanos() > 0 );
+
+        PolylineEncoder.encodeWkt( testPolygon.toText(), new PolylineEncoderSettings() );
+        assertTrue( recorded.get( 1 ).getParseNanos() > 0 );
+
+        StringWriter points = new StringWriter();
+        PolylineEncoder.encode( testPolygon, new PolylineEncoderSettings(), points, null );
+        assertEquals( points.toString().length(), recorded.get( 2 ).getPointsBytes() );
+        assertEquals( 0, recorded.get( 2 ).getLevelsBytes() );
+
+        PolylineEncoder.setMetricsListener( MetricsListener.NO_OP );
+        PolylineEncoder.encode( testPolygon );
+        assertEquals( 3, recorded.size() );
+    }
+
+    public void testFlightRecorderEvent() throws UnsupportedGeometryTypeException, IOException{
+        Path file = Files.createTempFile( "polyline-encoder", ".jfr" );
+        try {
+            try( Recording recording = new Recording() ){
+                recording.enable( "com.axiomalaska.polylineencoder.Encode" );
+                recording.start();
+                PolylineEncoder.encode( testPolygon );
+                recording.stop();
+                recording.dump( file );
+            }
+            int events = 0;
+            for( RecordedEvent event : RecordingFile.readAllEvents( file ) ){
+                if( event.getEventType().getName().equals( "com.axiomalaska.polylineencoder.Encode" ) ){
+                    assertEquals( testPolygon.getExteriorRing().getNumPoints(), event.getInt( "inputVertices" ) );
+                    events++;
+                }
+            }
+            assertEquals( 1, events );
+        } finally {
+            Files.deleteIfExists( file );
+        }
+    }
+}
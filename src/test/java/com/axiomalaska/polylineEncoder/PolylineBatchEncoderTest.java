@@ -0,0 +1,73 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import com.axiomalaska.polylineencoder.EncodeResult;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineBatchEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class PolylineBatchEncoderTest extends TestCase {
+    private List<Geometry> geometries;
+
+    protected void setUp() throws ParseException, IOException{
+        Geometry testPolygon = TestGeometries.alaskaPolygon();
+
+        geometries = new ArrayList<Geometry>();
+        for( int i = 0; i < 200; i++ ){
+            if( i % 50 == 7 ){
+                geometries.add( testPolygon );
+            } else if( i % 40 == 3 ){
+                geometries.add( WktUtil.wktToGeom( "POINT (" + i + " 1)" ) );
+            } else {
+                geometries.add( WktUtil.wktToGeom( "LINESTRING (0 0, " + i + " 1, 2 " + i + ", 3 3)" ) );
+            }
+        }
+    }
+
+    public void testOrderAndFailures() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        ForkJoinPool pool = new ForkJoinPool( 4 );
+        try {
+            assertResults( PolylineBatchEncoder.encode( geometries, settings, pool ), settings );
+            assertResults( PolylineBatchEncoder.encode( geometries.stream(), settings, pool ), settings );
+        } finally {
+            pool.shutdown();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+        try {
+            assertResults( PolylineBatchEncoder.encode( geometries.iterator(), settings, executor ), settings );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertResults( List<EncodeResult> results, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException{
+        assertEquals( geometries.size(), results.size() );
+        for( int i = 0; i < results.size(); i++ ){
+            EncodeResult result = results.get( i );
+            assertEquals( i, result.getIndex() );
+            if( i % 40 == 3 ){
+                assertFalse( result.isSuccess() );
+                assertTrue( result.getError() instanceof UnsupportedGeometryTypeException );
+            } else {
+                EncodedPolyline expected = PolylineEncoder.encode( geometries.get( i ), settings );
+                assertEquals( expected.getPoints(), result.getEncodedPolyline().getPoints() );
+                assertEquals( expected.getLevels(), result.getEncodedPolyline().getLevels() );
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class PolylineDecoderTest extends TestCase {
+    private Polygon testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testDumbEncodeRoundTrip() throws UnsupportedGeometryTypeException{
+        EncodedPolyline ep = PolylineEncoder.dumbEncode( testPolygon );
+        Coordinate[] coords = testPolygon.getExteriorRing().getCoordinates();
+
+        assertEquals( coords.length, PolylineDecoder.countPoints( ep.getPoints() ) );
+
+        double[] decoded = new double[ coords.length * 2 ];
+        assertEquals( coords.length, PolylineDecoder.decode( ep.getPoints(), decoded ) );
+        int[] e5 = new int[ coords.length * 2 ];
+        assertEquals( coords.length, PolylineDecoder.decode( ep.getPoints(), e5 ) );
+        for( int i = 0; i < coords.length; i++ ){
+            assertEquals( (int) Math.floor( coords[i].x * 1e5 ), e5[ i * 2 ] );
+            assertEquals( (int) Math.floor( coords[i].y * 1e5 ), e5[ i * 2 + 1 ] );
+            assertEquals( coords[i].x, decoded[ i * 2 ], 1e-5 );
+            assertEquals( coords[i].y, decoded[ i * 2 + 1 ], 1e-5 );
+        }
+
+        CoordinateSequence seq = PolylineDecoder.decodeToSequence( ep.getPoints() );
+        assertEquals( coords.length, seq.size() );
+        assertEquals( decoded[2], seq.getX( 1 ), 0 );
+        assertEquals( decoded[3], seq.getY( 1 ), 0 );
+    }
+
+    public void testLevelFiltering() throws UnsupportedGeometryTypeException{
+        EncodedPolyline ep = PolylineEncoder.encode( testPolygon );
+        int numPoints = PolylineDecoder.countPoints( ep.getPoints() );
+        int[] levels = new int[ numPoints ];
+        assertEquals( numPoints, PolylineDecoder.decodeLevels( ep.getLevels(), levels ) );
+        assertEquals( 17, levels[0] );
+        assertEquals( 17, levels[ numPoints - 1 ] );
+
+        int minLevel = 12;
+        int expected = 0;
+        for( int level : levels ){
+            if( level >= minLevel ){
+                expected++;
+            }
+        }
+        assertTrue( expected < numPoints );
+        assertEquals( expected, PolylineDecoder.decodeToSequence( ep.getPoints(), ep.getLevels(), minLevel ).size() );
+
+        final int[] visited = new int[1];
+        PolylineDecoder.decode( ep.getPoints(), ep.getLevels(), minLevel, new PolylineDecoder.PointVisitor() {
+            public void visit( int index, double x, double y, int level ){
+                assertTrue( level >= 12 );
+                visited[0]++;
+            }
+        });
+        assertEquals( expected, visited[0] );
+
+        PolylineDecoder.Cursor cursor = PolylineDecoder.cursor( ep );
+        int i = 0;
+        while( cursor.next() ){
+            assertEquals( levels[i++], cursor.getLevel() );
+        }
+        assertEquals( numPoints, i );
+    }
+
+    public void testMalformedInput(){
+        try {
+            PolylineDecoder.decode( "_p~iF", new double[2] );
+            fail( "Expected IllegalArgumentException" );
+        } catch( IllegalArgumentException e ){
+        }
+        try {
+            PolylineDecoder.decode( "??", "PP", 0, new double[4] );
+            fail( "Expected IllegalArgumentException" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+}
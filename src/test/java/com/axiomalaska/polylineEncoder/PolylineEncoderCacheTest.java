@@ -0,0 +1,77 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.CacheStats;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderCache;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class PolylineEncoderCacheTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testHitsAndSettingsKey() throws UnsupportedGeometryTypeException{
+        PolylineEncoderCache cache = PolylineEncoderCache.withMaxEntries( 10 );
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline expected = PolylineEncoder.encode( testPolygon, settings );
+
+        for( int i = 0; i < 3; i++ ){
+            EncodedPolyline encoded = cache.encode( testPolygon.copy(), settings );
+            assertEquals( expected.getPoints(), encoded.getPoints() );
+            assertEquals( expected.getLevels(), encoded.getLevels() );
+            encoded.setPoints( "modified" );
+        }
+        CacheStats stats = cache.getStats();
+        assertEquals( 1, stats.getMissCount() );
+        assertEquals( 2, stats.getHitCount() );
+
+        PolylineEncoderSettings coarse = new PolylineEncoderSettings( 4, 4, 0.001, false );
+        assertEquals( PolylineEncoder.encode( testPolygon, coarse ).getLevels(), cache.encode( testPolygon, coarse ).getLevels() );
+        assertEquals( 2, cache.getStats().getMissCount() );
+        assertEquals( 2, cache.getStats().getSize() );
+    }
+
+    public void testPrecisionKey() throws UnsupportedGeometryTypeException{
+        PolylineEncoderCache cache = PolylineEncoderCache.withMaxEntries( 10 );
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        PolylineEncoderSettings precise = new PolylineEncoderSettings();
+        precise.setPrecision( 6 );
+
+        assertEquals( PolylineEncoder.encode( testPolygon, settings ).getPoints(), cache.encode( testPolygon, settings ).getPoints() );
+        assertEquals( PolylineEncoder.encode( testPolygon, precise ).getPoints(), cache.encode( testPolygon, precise ).getPoints() );
+        assertEquals( 2, cache.getStats().getMissCount() );
+        assertEquals( 2, cache.getStats().getSize() );
+    }
+
+    public void testEviction() throws UnsupportedGeometryTypeException, ParseException{
+        PolylineEncoderCache cache = PolylineEncoderCache.withMaxEntries( 2 );
+        for( int i = 0; i < 5; i++ ){
+            cache.encode( WktUtil.wktToGeom( "LINESTRING (0 0, " + i + " 1, 2 2)" ) );
+        }
+        assertEquals( 2, cache.getStats().getSize() );
+        assertEquals( 3, cache.getStats().getEvictionCount() );
+
+        EncodedPolyline big = PolylineEncoder.encode( testPolygon );
+        long bigSize = big.getPoints().length() + big.getLevels().length();
+        PolylineEncoderCache byBytes = PolylineEncoderCache.withMaxBytes( bigSize + 10 );
+        byBytes.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 1 1)" ) );
+        byBytes.encode( testPolygon );
+        assertEquals( 1, byBytes.getStats().getSize() );
+        assertEquals( bigSize, byBytes.getStats().getWeight() );
+
+        byBytes.setMaxSize( 10 );
+        assertEquals( 0, byBytes.getStats().getSize() );
+        assertEquals( 2, byBytes.getStats().getEvictionCount() );
+    }
+}
@@ -0,0 +1,155 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.axiomalaska.polylineencoder.EncodeResult;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderProcessor;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class PolylineEncoderProcessorTest extends TestCase {
+    private Geometry testPolygon;
+    private ExecutorService executor;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+        executor = Executors.newFixedThreadPool( 3 );
+    }
+
+    protected void tearDown(){
+        executor.shutdownNow();
+    }
+
+    public void testOrderedGeometries() throws UnsupportedGeometryTypeException, ParseException, InterruptedException{
+        List<Geometry> input = new ArrayList<Geometry>();
+        for( int i = 0; i < 50; i++ ){
+            input.add( i % 10 == 3 ? WktUtil.wktToGeom( "POINT (1 2)" ) : i % 2 == 0 ? testPolygon : WktUtil.wktToGeom( "LINESTRING (" + i + " 0, 1 1, 2 " + i + ")" ) );
+        }
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        PolylineEncoderProcessor<Geometry> processor = PolylineEncoderProcessor.forGeometries( settings, executor, 3, 6, true );
+        Collector collector = new Collector( 1 );
+        processor.subscribe( collector );
+        try( SubmissionPublisher<Geometry> publisher = new SubmissionPublisher<Geometry>() ){
+            publisher.subscribe( processor );
+            for( Geometry geometry : input ){
+                publisher.submit( geometry );
+            }
+        }
+        assertTrue( collector.done.await( 30, TimeUnit.SECONDS ) );
+        assertNull( collector.error );
+
+        assertEquals( input.size(), collector.results.size() );
+        for( int i = 0; i < input.size(); i++ ){
+            EncodeResult result = collector.results.get( i );
+            assertEquals( i, result.getIndex() );
+            if( i % 10 == 3 ){
+                assertTrue( result.getError() instanceof UnsupportedGeometryTypeException );
+            } else {
+                EncodedPolyline expected = PolylineEncoder.encode( input.get( i ), settings );
+                assertEquals( expected.getPoints(), result.getEncodedPolyline().getPoints() );
+                assertEquals( expected.getLevels(), result.getEncodedPolyline().getLevels() );
+            }
+        }
+    }
+
+    public void testBackpressureUnorderedWkt() throws UnsupportedGeometryTypeException, InterruptedException{
+        String wkt = testPolygon.toText();
+        AtomicLong requested = new AtomicLong();
+        int maxInFlight = 4;
+        PolylineEncoderProcessor<CharSequence> processor = PolylineEncoderProcessor.forWkt( new PolylineEncoderSettings(), executor, 2, maxInFlight, false );
+        Collector collector = new Collector( 0 );
+        processor.subscribe( collector );
+
+        // endless upstream that counts how many items it was asked for
+        processor.onSubscribe( new Flow.Subscription() {
+            public void request( long n ){
+                for( long i = 0; i < n; i++ ){
+                    requested.incrementAndGet();
+                    processor.onNext( wkt );
+                }
+            }
+            public void cancel(){
+            }
+        });
+        assertEquals( maxInFlight, requested.get() );
+
+        collector.subscription.request( 10 );
+        long deadline = System.currentTimeMillis() + 30000;
+        while( collector.results.size() < 10 && System.currentTimeMillis() < deadline ){
+            Thread.sleep( 10 );
+        }
+        Thread.sleep( 100 );
+        assertEquals( 10, collector.results.size() );
+        assertEquals( 10 + maxInFlight, requested.get() );
+        String expected = PolylineEncoder.encode( testPolygon ).getPoints();
+        List<Long> indexes = new ArrayList<Long>();
+        for( EncodeResult result : collector.results ){
+            assertEquals( expected, result.getEncodedPolyline().getPoints() );
+            indexes.add( result.getIndex() );
+        }
+        Collections.sort( indexes );
+        for( int i = 0; i < 10; i++ ){
+            assertTrue( indexes.get( i ) < 10 + maxInFlight );
+        }
+
+        processor.onComplete();
+        collector.subscription.request( Long.MAX_VALUE );
+        assertTrue( collector.done.await( 30, TimeUnit.SECONDS ) );
+        assertEquals( 10 + maxInFlight, collector.results.size() );
+    }
+
+    /**
+     * Collects results, requesting batch at a time (0 to leave requests to the test).
+     */
+    private static final class Collector implements Flow.Subscriber<EncodeResult> {
+        final List<EncodeResult> results = Collections.synchronizedList( new ArrayList<EncodeResult>() );
+        final CountDownLatch done = new CountDownLatch( 1 );
+        private final int batch;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+
+        Collector( int batch ) {
+            this.batch = batch;
+        }
+
+        public void onSubscribe( Flow.Subscription subscription ){
+            this.subscription = subscription;
+            if( batch > 0 ){
+                subscription.request( batch );
+            }
+        }
+
+        public void onNext( EncodeResult item ){
+            results.add( item );
+            if( batch > 0 ){
+                subscription.request( 1 );
+            }
+        }
+
+        public void onError( Throwable throwable ){
+            error = throwable;
+            done.countDown();
+        }
+
+        public void onComplete(){
+            done.countDown();
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package com.axiomalaska.polylineEncoder;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
+import com.axiomalaska.polylineencoder.EncodedMultiPolyline;
 import com.axiomalaska.polylineencoder.EncodedPolyline;
 import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
 import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
 
 import junit.framework.TestCase;
 
@@ -22,9 +28,7 @@ public class PolylineEncoderTest extends TestCase {
     private LineString testLineString;
     
     protected void setUp() throws ParseException, IOException{
-    	BufferedReader reader = new BufferedReader( new FileReader( "src/test/resources/testPolygonWKT.txt" ) );
-        WKTReader wktReader = new WKTReader();
-        testPolygon = (Polygon) wktReader.read( reader );
+        testPolygon = TestGeometries.alaskaPolygon();
         
         GeometryFactory geomFactory = new GeometryFactory( new PrecisionModel( PrecisionModel.FLOATING ), 4326 );
         Coordinate[] coords = new Coordinate[3];
@@ -65,4 +69,125 @@ public class PolylineEncoderTest extends TestCase {
         assertTrue( elp.getLevels()!= null );    
     }
     
+    public void testKnownEncodings() throws ParseException, UnsupportedGeometryTypeException{
+        EncodedPolyline ep = PolylineEncoder.encode( "LINESTRING (-148.1868 60.7431, -148.1867 60.7417, -148.1861 60.7405, -148.1849 60.7402, -148.1791 60.7409)" );
+        assertEquals( "k{vqJnvmg[vGSnFuBz@qFkCgc@", ep.getPoints() );
+        assertEquals( "PCFDP", ep.getLevels() );
+
+        ep = PolylineEncoder.encode( "POLYGON ((0 0, 0 5, 5 5, 5 0, 0 0))" );
+        assertEquals( "??_qo]??_qo]~po]??~po]", ep.getPoints() );
+        assertEquals( "PPPPP", ep.getLevels() );
+
+        ep = PolylineEncoder.encode( testLineString );
+        assertEquals( "??_seK_seK", ep.getPoints() );
+        assertEquals( "PP", ep.getLevels() );
+    }
+
+    public void testPackedArrayEncoding() throws UnsupportedGeometryTypeException{
+        Coordinate[] coords = testPolygon.getExteriorRing().getCoordinates();
+        double[] xs = new double[ coords.length ];
+        double[] ys = new double[ coords.length ];
+        for( int i = 0; i < coords.length; i++ ){
+            xs[i] = coords[i].x;
+            ys[i] = coords[i].y;
+        }
+
+        PolylineEncoderSettings settings = new PolylineEncoderSettings( 10, 3, 0.0001, false );
+        EncodedPolyline fromGeom = PolylineEncoder.encode( testPolygon, settings );
+        EncodedPolyline fromArrays = PolylineEncoder.encode( xs, ys, coords.length, settings );
+        assertEquals( fromGeom.getPoints(), fromArrays.getPoints() );
+        assertEquals( fromGeom.getLevels(), fromArrays.getLevels() );
+    }
+    
+    public void testStreamingEncoding() throws IOException, UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline ep = PolylineEncoder.encode( testPolygon, settings );
+
+        StringWriter points = new StringWriter();
+        StringBuilder levels = new StringBuilder();
+        PolylineEncoder.encode( testPolygon, settings, points, levels );
+        assertEquals( ep.getPoints(), points.toString() );
+        assertEquals( ep.getLevels(), levels.toString() );
+
+        byte[] pointBytes = new byte[ ep.getPoints().length() + 10 ];
+        ByteBuffer pointBuffer = ByteBuffer.wrap( pointBytes, 10, pointBytes.length - 10 );
+        ByteBuffer levelBuffer = ByteBuffer.allocateDirect( ep.getLevels().length() );
+        PolylineEncoder.encode( testPolygon, settings, pointBuffer, levelBuffer );
+        assertEquals( pointBytes.length, pointBuffer.position() );
+        assertEquals( ep.getPoints(), new String( pointBytes, 10, pointBytes.length - 10, StandardCharsets.US_ASCII ) );
+        levelBuffer.flip();
+        assertEquals( ep.getLevels(), StandardCharsets.US_ASCII.decode( levelBuffer ).toString() );
+
+        try {
+            PolylineEncoder.encode( testPolygon, settings, ByteBuffer.allocate( 16 ), null );
+            fail( "Expected BufferOverflowException" );
+        } catch( BufferOverflowException e ){
+        }
+
+        EncodedPolyline dumb = PolylineEncoder.dumbEncode( testPolygon, 3, 2 );
+        points = new StringWriter();
+        PolylineEncoder.dumbEncode( testPolygon, 3, 2, points, null );
+        assertEquals( dumb.getPoints(), points.toString() );
+    }
+    
+    public void testParallelSimplification() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings sequential = new PolylineEncoderSettings();
+        PolylineEncoderSettings parallel = new PolylineEncoderSettings();
+        parallel.setParallelThreshold( 64 );
+
+        EncodedPolyline expected = PolylineEncoder.encode( testPolygon, sequential );
+        EncodedPolyline actual = PolylineEncoder.encode( testPolygon, parallel );
+        assertEquals( expected.getPoints(), actual.getPoints() );
+        assertEquals( expected.getLevels(), actual.getLevels() );
+
+        // long enough for the furthest point scans to be split as well
+        Random random = new Random( 1 );
+        int numPoints = 300000;
+        double[] xs = new double[ numPoints ];
+        double[] ys = new double[ numPoints ];
+        for( int i = 1; i < numPoints; i++ ){
+            xs[i] = xs[ i - 1 ] + random.nextDouble() * 0.0001;
+            ys[i] = ys[ i - 1 ] + ( random.nextDouble() - 0.5 ) * 0.0001;
+        }
+        expected = PolylineEncoder.encode( xs, ys, numPoints, sequential );
+        actual = PolylineEncoder.encode( xs, ys, numPoints, parallel );
+        assertEquals( expected.getPoints(), actual.getPoints() );
+        assertEquals( expected.getLevels(), actual.getLevels() );
+    }
+    
+    public void testMultiPartEncoding() throws ParseException, UnsupportedGeometryTypeException{
+        Geometry collection = WktUtil.wktToGeom( "GEOMETRYCOLLECTION ("
+            + "MULTIPOLYGON (((0 0, 0 5, 5 5, 5 0, 0 0), (1 1, 2 1, 2 2, 1 1)), ((10 10, 10 12, 12 11, 10 10))), "
+            + "MULTILINESTRING ((-148.1868 60.7431, -148.1867 60.7417, -148.1861 60.7405, -148.1849 60.7402, -148.1791 60.7409), (0 0, 1 1, 2 2)))" );
+        String[] expectedRings = new String[]{
+             "LINESTRING (0 0, 0 5, 5 5, 5 0, 0 0)"
+            ,"LINESTRING (1 1, 2 1, 2 2, 1 1)"
+            ,"LINESTRING (10 10, 10 12, 12 11, 10 10)"
+            ,"LINESTRING (-148.1868 60.7431, -148.1867 60.7417, -148.1861 60.7405, -148.1849 60.7402, -148.1791 60.7409)"
+            ,"LINESTRING (0 0, 1 1, 2 2)"
+        };
+        int[] expectedGeometries = new int[]{ 0, 0, 1, 2, 3 };
+
+        EncodedMultiPolyline encoded = PolylineEncoder.encodeParts( collection );
+        assertEquals( expectedRings.length, encoded.getNumParts() );
+        for( int i = 0; i < expectedRings.length; i++ ){
+            EncodedPolyline expected = PolylineEncoder.encode( expectedRings[i] );
+            assertEquals( expected.getPoints(), encoded.getPoints( i ) );
+            assertEquals( expected.getLevels(), encoded.getLevels( i ) );
+            assertEquals( expectedGeometries[i], encoded.getGeometryIndex( i ) );
+            assertEquals( i == 1, encoded.isHole( i ) );
+        }
+
+        EncodedMultiPolyline single = PolylineEncoder.encodeParts( testPolygon );
+        assertEquals( 1 + testPolygon.getNumInteriorRing(), single.getNumParts() );
+        assertEquals( PolylineEncoder.encode( testPolygon ).getPoints(), single.getPoints( 0 ) );
+        assertEquals( PolylineEncoder.encode( testPolygon.getFactory().createLineString( testPolygon.getInteriorRingN( 0 ).getCoordinateSequence() ) ).getLevels(), single.getLevels( 1 ) );
+
+        try {
+            PolylineEncoder.encodeParts( WktUtil.wktToGeom( "MULTIPOINT ((0 0), (1 1))" ) );
+            fail( "Expected UnsupportedGeometryTypeException" );
+        } catch( UnsupportedGeometryTypeException e ){
+        }
+    }
+    
 }
@@ -0,0 +1,112 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.Random;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.ImmutablePolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class PrecisionEncodingTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testSameAsReference() throws UnsupportedGeometryTypeException, IOException{
+        // small steps mixed with jumps across the globe, for numbers of every length
+        Random random = new Random( 3 );
+        Coordinate[] coords = new Coordinate[ 5000 ];
+        double x = 0;
+        double y = 0;
+        for( int i = 0; i < coords.length; i++ ){
+            if( i % 50 == 0 ){
+                x = random.nextDouble() * 360 - 180;
+                y = random.nextDouble() * 180 - 90;
+            } else {
+                x += ( random.nextDouble() - 0.5 ) * Math.pow( 10, -random.nextInt( 6 ) );
+                y += ( random.nextDouble() - 0.5 ) * Math.pow( 10, -random.nextInt( 6 ) );
+            }
+            coords[i] = new Coordinate( x, y );
+        }
+        Geometry line = new GeometryFactory().createLineString( coords );
+        String expected = referencePoints( coords );
+
+        assertEquals( expected, PolylineEncoder.dumbEncode( line, 17, 1 ).getPoints() );
+        StringBuilder streamed = new StringBuilder();
+        PolylineEncoder.dumbEncode( line, 17, 1, streamed, null );
+        assertEquals( expected, streamed.toString() );
+
+        // every vertex is kept with no simplification tolerance
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        settings.setVerySmall( 0 );
+        assertEquals( PolylineDecoder.countPoints( expected ), PolylineDecoder.countPoints( PolylineEncoder.encode( line, settings ).getPoints() ) );
+    }
+
+    public void testPrecision6() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline e5 = PolylineEncoder.encode( testPolygon, settings );
+        settings.setPrecision( 6 );
+        EncodedPolyline e6 = PolylineEncoder.encode( testPolygon, settings );
+        assertEquals( e5.getLevels(), e6.getLevels() );
+        assertTrue( e6.getPoints().length() > e5.getPoints().length() );
+
+        double[] decoded5 = new double[ PolylineDecoder.countPoints( e5.getPoints() ) * 2 ];
+        PolylineDecoder.decode( e5.getPoints(), decoded5 );
+        double[] decoded6 = new double[ decoded5.length ];
+        assertEquals( decoded5.length / 2, PolylineDecoder.decode( e6.getPoints(), 6, decoded6 ) );
+        Coordinate first = testPolygon.getCoordinates()[0];
+        assertEquals( first.x, decoded6[0], 0.000001 );
+        assertEquals( first.y, decoded6[1], 0.000001 );
+        for( int i = 0; i < decoded5.length; i++ ){
+            assertEquals( decoded5[i], decoded6[i], 0.00001 );
+        }
+
+        settings.setPrecision( 7 );
+        try {
+            ImmutablePolylineEncoderSettings.of( settings );
+            fail( "precision 7 overflows the deltas" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+
+    /**
+     * The original encoding: floor to 1e5, delta, one number at a time.
+     */
+    private static String referencePoints( Coordinate[] coords ){
+        StringBuilder sb = new StringBuilder();
+        int plat = 0;
+        int plng = 0;
+        for( Coordinate c : coords ){
+            int late5 = (int) Math.floor( c.y * 1e5 );
+            int lnge5 = (int) Math.floor( c.x * 1e5 );
+            appendSigned( sb, late5 - plat );
+            appendSigned( sb, lnge5 - plng );
+            plat = late5;
+            plng = lnge5;
+        }
+        return sb.toString();
+    }
+
+    private static void appendSigned( StringBuilder sb, int num ){
+        int sgn = num << 1;
+        if( num < 0 ){
+            sgn = ~sgn;
+        }
+        while( sgn >= 0x20 ){
+            sb.append( (char) ( ( 0x20 | ( sgn & 0x1f ) ) + 63 ) );
+            sgn >>= 5;
+        }
+        sb.append( (char) ( sgn + 63 ) );
+    }
+}
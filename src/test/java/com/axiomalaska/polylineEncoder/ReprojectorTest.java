@@ -0,0 +1,154 @@
+package com.axiomalaska.polylineEncoder;
+
+import com.axiomalaska.polylineencoder.BuiltInCrs;
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.Reprojector;
+import org.geotools.referencing.CRS;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.WKTReader;
+import org.opengis.referencing.operation.MathTransform;
+
+import junit.framework.TestCase;
+
+/**
+ * Reprojects between {@link BuiltInCrs} systems and systems parsed from WKT only, so no
+ * EPSG database is needed.
+ */
+public class ReprojectorTest extends TestCase {
+    private static final boolean LONGITUDE_FIRST = Boolean.getBoolean( Reprojector.FORCE_XY_PROPERTY );
+    private static final int UTM = 910002;
+
+    private static final String DATUM = "DATUM[\"WGS_1984\", SPHEROID[\"WGS 84\", 6378137, 298.257223563]],"
+        + " PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]";
+    private static final String WGS84 = "GEOGCS[\"WGS 84\", " + DATUM + "]";
+    // axis order of the EPSG definition of 4326
+    private static final String WGS84_LATITUDE_FIRST = "GEOGCS[\"WGS 84\", " + DATUM + ", AXIS[\"Lat\", NORTH], AXIS[\"Long\", EAST]]";
+    private static final String UTM_6N = "PROJCS[\"WGS 84 / UTM zone 6N\", " + WGS84 + ", PROJECTION[\"Transverse_Mercator\"],"
+        + " PARAMETER[\"latitude_of_origin\", 0], PARAMETER[\"central_meridian\", -147], PARAMETER[\"scale_factor\", 0.9996],"
+        + " PARAMETER[\"false_easting\", 500000], PARAMETER[\"false_northing\", 0], UNIT[\"metre\", 1]]";
+
+    private final GeometryFactory webMercator = new GeometryFactory( new PrecisionModel(), 3857 );
+
+    public void testEveryVertexKeepsItsOwnOrdinates() throws Exception{
+        // distinct x and y for every vertex, so ordinates paired with the wrong vertex show
+        LineString line = webMercator.createLineString( new Coordinate[]{
+            new Coordinate( -16687000, 8650000 ), new Coordinate( -16600000, 8700000 ), new Coordinate( -16500000, 8800000 ) } );
+        Geometry reprojected = Reprojector.reproject( line, 4326 );
+        assertEquals( 4326, reprojected.getSRID() );
+        assertEquals( 3, reprojected.getNumPoints() );
+        Coordinate[] coords = reprojected.getCoordinates();
+        for( int i = 0; i < 3; i++ ){
+            double[] expected = new double[]{ line.getCoordinateN( i ).x, line.getCoordinateN( i ).y };
+            BuiltInCrs.transform( 3857, 4326, expected, 0, 1 );
+            assertEquals( LONGITUDE_FIRST ? expected[0] : expected[1], coords[i].x, 0.0 );
+            assertEquals( LONGITUDE_FIRST ? expected[1] : expected[0], coords[i].y, 0.0 );
+        }
+    }
+
+    public void testRingsStayClosed() throws Exception{
+        Polygon polygon = (Polygon) read( "POLYGON ((-16687000 8650000, -16500000 8650000, -16500000 8800000, -16687000 8800000, -16687000 8650000),"
+            + " (-16650000 8700000, -16600000 8700000, -16600000 8750000, -16650000 8700000))" );
+        Polygon reprojected = (Polygon) Reprojector.reproject( polygon, 3338 );
+        assertTrue( reprojected.getExteriorRing().isClosed() );
+        assertEquals( 5, reprojected.getExteriorRing().getNumPoints() );
+        assertEquals( 1, reprojected.getNumInteriorRing() );
+        assertTrue( reprojected.getInteriorRingN( 0 ).isClosed() );
+        assertEquals( 4, reprojected.getInteriorRingN( 0 ).getNumPoints() );
+
+        LinearRing ring = webMercator.createLinearRing( polygon.getExteriorRing().getCoordinateSequence() );
+        Geometry reprojectedRing = Reprojector.reproject( ring, 3338 );
+        assertTrue( reprojectedRing instanceof LinearRing );
+        assertTrue( reprojectedRing.equalsExact( reprojected.getExteriorRing() ) );
+    }
+
+    public void testMultiPartOffsets() throws Exception{
+        String[] parts = new String[]{
+            "POINT (-16687000 8650000)",
+            "LINESTRING (-16687000 8650000, -16600000 8700000, -16500000 8800000)",
+            "POLYGON ((-16687000 8650000, -16500000 8650000, -16500000 8800000, -16687000 8650000),"
+                + " (-16650000 8700000, -16600000 8700000, -16600000 8750000, -16650000 8700000))",
+            "MULTIPOLYGON (((-15000000 8000000, -14900000 8000000, -14900000 8100000, -15000000 8000000)),"
+                + " ((-14000000 7000000, -13900000 7000000, -13900000 7100000, -14000000 7000000)))",
+            "MULTILINESTRING ((-15000000 8000000, -14900000 8000000), (-14000000 7000000, -13900000 7100000, -13800000 7200000))"
+        };
+        StringBuilder collection = new StringBuilder( "GEOMETRYCOLLECTION (" );
+        for( int i = 0; i < parts.length; i++ ){
+            collection.append( i == 0 ? "" : ", " ).append( parts[i] );
+        }
+        Geometry reprojected = Reprojector.reproject( read( collection.append( ")" ).toString() ), 3338 );
+        assertEquals( parts.length, reprojected.getNumGeometries() );
+        for( int i = 0; i < parts.length; i++ ){
+            Geometry expected = Reprojector.reproject( read( parts[i] ), 3338 );
+            assertEquals( expected.getGeometryType(), reprojected.getGeometryN( i ).getGeometryType() );
+            assertTrue( parts[i], expected.equalsExact( reprojected.getGeometryN( i ) ) );
+        }
+    }
+
+    public void testParallelSameAsSequential() throws Exception{
+        Coordinate[] coords = new Coordinate[ 10001 ];
+        for( int i = 0; i < coords.length; i++ ){
+            coords[i] = new Coordinate( -16687000 + i * 37.5, 8650000 + Math.sin( i / 100.0 ) * 20000 );
+        }
+        LineString line = webMercator.createLineString( coords );
+        for( int toSrid : new int[]{ 4326, 3338, 32606 } ){
+            Geometry sequential = Reprojector.reproject( line, toSrid, 0 );
+            Geometry parallel = Reprojector.reproject( line, toSrid, 1000 );
+            assertTrue( sequential.equalsExact( parallel ) );
+            assertTrue( sequential.equalsExact( Reprojector.reproject( line, toSrid, 3 ) ) );
+        }
+    }
+
+    public void testProjectedEncodingIsLongitudeFirst() throws Exception{
+        Reprojector.registerCoordinateReferenceSystem( 4326, CRS.parseWKT( WGS84_LATITUDE_FIRST ) );
+        Reprojector.registerCoordinateReferenceSystem( UTM, CRS.parseWKT( UTM_6N ) );
+        GeometryFactory geographic = new GeometryFactory( new PrecisionModel(), 4326 );
+        Coordinate[] lngLats = new Coordinate[]{ new Coordinate( -149.9, 61.2 ), new Coordinate( -149.5, 61.3 ),
+            new Coordinate( -149.45, 61.31 ), new Coordinate( -149.0, 61.0 ), new Coordinate( -148.5, 61.4 ) };
+        LineString line = geographic.createLineString( lngLats );
+        PolylineEncoderSettings meters = new PolylineEncoderSettings( 18, 2, 10.0, true );
+
+        // longitude first in, so distances are measured between the right points
+        MathTransform toUtm = CRS.findMathTransform( CRS.parseWKT( WGS84 ), CRS.parseWKT( UTM_6N ) );
+        EncodedPolyline expected = Reprojector.encodeProjected( line, toUtm, meters );
+        EncodedPolyline encoded = Reprojector.encodeProjected( line, UTM, meters );
+        assertEquals( expected.getPoints(), encoded.getPoints() );
+        assertEquals( expected.getLevels(), encoded.getLevels() );
+
+        // longitude first out of a projected source
+        double[] coords = new double[ lngLats.length * 2 ];
+        for( int i = 0; i < lngLats.length; i++ ){
+            coords[ i * 2 ] = lngLats[i].x;
+            coords[ ( i * 2 ) + 1 ] = lngLats[i].y;
+        }
+        toUtm.transform( coords, 0, coords, 0, lngLats.length );
+        Coordinate[] utm = new Coordinate[ lngLats.length ];
+        for( int i = 0; i < lngLats.length; i++ ){
+            utm[i] = new Coordinate( coords[ i * 2 ], coords[ ( i * 2 ) + 1 ] );
+        }
+        LineString utmLine = new GeometryFactory( new PrecisionModel(), UTM ).createLineString( utm );
+        EncodedPolyline fromUtm = Reprojector.encodeProjected( utmLine, UTM, meters );
+        double[] decoded = new double[ lngLats.length * 2 ];
+        int numDecoded = PolylineDecoder.decode( fromUtm.getPoints(), decoded );
+        assertEquals( lngLats.length, numDecoded );
+        for( int i = 0; i < numDecoded; i++ ){
+            assertEquals( lngLats[i].x, decoded[ i * 2 ], 1e-5 );
+            assertEquals( lngLats[i].y, decoded[ ( i * 2 ) + 1 ], 1e-5 );
+        }
+    }
+
+    protected void tearDown(){
+        Reprojector.clearCaches();
+    }
+
+    private Geometry read( String wkt ) throws Exception{
+        return new WKTReader( webMercator ).read( wkt );
+    }
+}
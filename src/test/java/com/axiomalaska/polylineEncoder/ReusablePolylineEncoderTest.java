@@ -0,0 +1,111 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.ImmutablePolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.ReusablePolylineEncoder;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class ReusablePolylineEncoderTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testSameAsStatic() throws Exception{
+        PolylineEncoderSettings coarse = new PolylineEncoderSettings( 10, 3, 0.0001, false );
+        PolylineEncoderSettings custom = new PolylineEncoderSettings();
+        custom.setZoomLevelBreaks( new double[]{ 1, 0.5, 0.5, 0.25, 0.1, 0.05, 0.01, 0.005, 0.001, 0.0005, 0.0004, 0.0003, 0.0002, 0.0001, 0.00005, 0.00004, 0.00002, 0.00001 } );
+        PolylineEncoderSettings unordered = new PolylineEncoderSettings();
+        unordered.setZoomLevelBreaks( new double[]{ 0.5, 1, 0.25, 0.1, 0.05, 0.01, 0.005, 0.001, 0.0005, 0.0004, 0.0003, 0.0002, 0.0001, 0.00005, 0.00004, 0.00002, 0.00003, 0.00001 } );
+        for( PolylineEncoderSettings settings : new PolylineEncoderSettings[]{ new PolylineEncoderSettings(), coarse, custom, unordered } ){
+            EncodedPolyline expected = PolylineEncoder.encode( testPolygon, settings );
+            ReusablePolylineEncoder encoder = new ReusablePolylineEncoder( ImmutablePolylineEncoderSettings.of( settings ) );
+            for( int i = 0; i < 2; i++ ){
+                assertEquals( expected.getPoints(), encoder.encode( testPolygon ).getPoints() );
+                assertEquals( expected.getLevels(), encoder.encode( testPolygon ).getLevels() );
+                assertEquals( expected.getLevels(), encoder.encodeWkt( testPolygon.toText() ).getLevels() );
+                assertEquals( expected.getPoints(), encoder.encodeCompact( testPolygon ).getPoints() );
+            }
+            StringBuilder points = new StringBuilder();
+            encoder.encode( testPolygon, points, null );
+            assertEquals( expected.getPoints(), points.toString() );
+
+            // constant time level lookup matches the linear scan over the breaks
+            ImmutablePolylineEncoderSettings immutable = ImmutablePolylineEncoderSettings.of( settings );
+            Random random = new Random( 7 );
+            for( int i = 0; i < 100000; i++ ){
+                double dist = Math.pow( 10, random.nextDouble() * 10 - 7 );
+                if( i % 100 == 0 ){
+                    dist = settings.getZoomLevelBreaks()[ random.nextInt( settings.getNumLevels() ) ];
+                }
+                int lev = 0;
+                if( dist > settings.getVerySmall() ){
+                    while( dist < settings.getZoomLevelBreaks()[lev] ){
+                        lev++;
+                    }
+                }
+                assertEquals( settings.getNumLevels() - lev - 1, immutable.getLevel( dist ) );
+            }
+        }
+
+        List<Future<EncodedPolyline>> results = new ArrayList<Future<EncodedPolyline>>();
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        ReusablePolylineEncoder shared = new ReusablePolylineEncoder();
+        try {
+            for( int i = 0; i < 40; i++ ){
+                results.add( executor.submit( () -> shared.encode( testPolygon ) ) );
+            }
+            EncodedPolyline expected = PolylineEncoder.encode( testPolygon );
+            for( Future<EncodedPolyline> result : results ){
+                assertEquals( expected.getPoints(), result.get().getPoints() );
+                assertEquals( expected.getLevels(), result.get().getLevels() );
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testSettings() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        settings.setNumLevels( 10 );
+        assertEquals( 10, settings.getZoomLevelBreaks().length );
+        assertEquals( settings.getVerySmall(), settings.getZoomLevelBreaks()[9] );
+        assertEquals( PolylineEncoder.encode( testPolygon, new PolylineEncoderSettings( 10, 2, 0.00001, true ) ).getLevels(),
+            PolylineEncoder.encode( testPolygon, settings ).getLevels() );
+
+        ImmutablePolylineEncoderSettings immutable = ImmutablePolylineEncoderSettings.of( settings );
+        settings.setNumLevels( 4 );
+        assertEquals( 10, immutable.getNumLevels() );
+        immutable.getZoomLevelBreaks()[0] = 0;
+        assertTrue( immutable.getZoomLevelBreaks()[0] > 0 );
+        assertEquals( 10, immutable.toSettings().getNumLevels() );
+
+        settings.setZoomLevelBreaks( new double[]{ 1, 0.1 } );
+        try {
+            ImmutablePolylineEncoderSettings.of( settings );
+            fail( "breaks do not match numLevels" );
+        } catch( IllegalArgumentException e ){
+        }
+        settings.setVerySmall( -1 );
+        try {
+            ImmutablePolylineEncoderSettings.of( settings );
+            fail( "negative verySmall" );
+        } catch( IllegalArgumentException e ){
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.SimplificationIndex;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class SimplificationIndexTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testLevelsMatchEncoder() throws UnsupportedGeometryTypeException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        EncodedPolyline full = PolylineEncoder.encode( testPolygon, settings );
+        SimplificationIndex index = SimplificationIndex.build( testPolygon, settings );
+
+        EncodedPolyline level0 = index.encode( 0 );
+        assertEquals( full.getPoints(), level0.getPoints() );
+        assertEquals( full.getLevels(), level0.getLevels() );
+        assertEquals( PolylineDecoder.countPoints( full.getPoints() ), index.getNumRetained() );
+
+        int numRetained = index.getNumRetained();
+        for( int minLevel = 0; minLevel < settings.getNumLevels(); minLevel++ ){
+            double[] expected = new double[ numRetained * 2 ];
+            int numExpected = PolylineDecoder.decode( full.getPoints(), full.getLevels(), minLevel, expected );
+
+            EncodedPolyline subset = index.encode( minLevel );
+            double[] actual = new double[ numRetained * 2 ];
+            assertEquals( numExpected, PolylineDecoder.decode( subset.getPoints(), actual ) );
+            assertTrue( Arrays.equals( expected, actual ) );
+            assertEquals( numExpected, index.getVertexIndexes( minLevel ).length );
+            assertEquals( numExpected, index.getCoordinates( minLevel ).size() );
+        }
+    }
+
+    public void testTolerance() throws UnsupportedGeometryTypeException{
+        SimplificationIndex index = SimplificationIndex.build( testPolygon, new PolylineEncoderSettings() );
+        int[] all = index.getVertexIndexesForTolerance( 0 );
+        assertEquals( index.getNumRetained(), all.length );
+        assertEquals( 0, all[0] );
+        assertEquals( index.getNumPoints() - 1, all[ all.length - 1 ] );
+
+        int previous = all.length;
+        for( double tolerance = 1e-5; tolerance < 10; tolerance *= 4 ){
+            int[] indexes = index.getVertexIndexesForTolerance( tolerance );
+            assertTrue( indexes.length <= previous );
+            for( int i = 1; i < indexes.length; i++ ){
+                assertTrue( indexes[i] > indexes[ i - 1 ] );
+            }
+            assertEquals( indexes.length, PolylineDecoder.countPoints( index.encodeForTolerance( tolerance ).getPoints() ) );
+            previous = indexes.length;
+        }
+        assertEquals( 2, index.getVertexIndexesForTolerance( Double.MAX_VALUE ).length );
+    }
+}
@@ -0,0 +1,64 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.SimplificationIndex;
+import com.axiomalaska.polylineencoder.SimplificationStrategy;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import com.axiomalaska.polylineencoder.WktUtil;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class SimplificationStrategyTest extends TestCase {
+    private Geometry testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testVisvalingamWhyatt() throws UnsupportedGeometryTypeException, ParseException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        settings.setSimplificationStrategy( SimplificationStrategy.VISVALINGAM_WHYATT );
+
+        // collinear vertices have no area and are dropped
+        EncodedPolyline line = PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 1 1, 2 2, 3 3, 3 4)" ), settings );
+        assertEquals( PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 3 3, 3 4)" ) ).getPoints(), line.getPoints() );
+
+        EncodedPolyline polygon = PolylineEncoder.encode( testPolygon, settings );
+        int numPoints = PolylineDecoder.countPoints( polygon.getPoints() );
+        int[] levels = new int[ numPoints ];
+        assertEquals( numPoints, PolylineDecoder.decodeLevels( polygon.getLevels(), levels ) );
+        assertEquals( 17, levels[0] );
+        assertEquals( 17, levels[ numPoints - 1 ] );
+        int coarse = PolylineDecoder.decodeToSequence( polygon.getPoints(), polygon.getLevels(), 12 ).size();
+        assertTrue( coarse > 2 && coarse < numPoints );
+
+        EncodedPolyline fromIndex = SimplificationIndex.build( testPolygon, settings ).encode( 0 );
+        assertEquals( polygon.getPoints(), fromIndex.getPoints() );
+        assertEquals( polygon.getLevels(), fromIndex.getLevels() );
+    }
+
+    public void testPrefilter() throws UnsupportedGeometryTypeException, ParseException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        settings.setPrefilterDistance( 0 );
+        EncodedPolyline deduplicated = PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 0 0, 1 1, 1 1, 1 1, 2 0, 2 0)" ), settings );
+        EncodedPolyline expected = PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 1 1, 2 0)" ) );
+        assertEquals( expected.getPoints(), deduplicated.getPoints() );
+        assertEquals( expected.getLevels(), deduplicated.getLevels() );
+
+        settings.setPrefilterDistance( 0.5 );
+        EncodedPolyline radial = PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 0.1 0.2, 1 1, 1.2 1.1, 2 0, 2.1 0)" ), settings );
+        assertEquals( PolylineEncoder.encode( WktUtil.wktToGeom( "LINESTRING (0 0, 1 1, 2 0, 2.1 0)" ) ).getPoints(), radial.getPoints() );
+
+        SimplificationIndex index = SimplificationIndex.build( WktUtil.wktToGeom( "LINESTRING (0 0, 0.1 0.2, 1 1, 1.2 1.1, 2 0, 2.1 0)" ), settings );
+        int[] indexes = index.getVertexIndexes( 0 );
+        assertEquals( 6, index.getNumPoints() );
+        assertEquals( 5, indexes[ indexes.length - 1 ] );
+    }
+}
@@ -0,0 +1,41 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Test fixtures read from src/test/resources once per run.
+ */
+final class TestGeometries {
+    private static String alaskaPolygonWkt;
+    private static Polygon alaskaPolygon;
+
+    private TestGeometries() {
+    }
+
+    /**
+     * @return WKT of the Alaska test polygon, as stored in testPolygonWKT.txt
+     */
+    static synchronized String alaskaPolygonWkt() throws IOException{
+        if( alaskaPolygonWkt == null ){
+            alaskaPolygonWkt = new String( Files.readAllBytes( Paths.get( "src/test/resources/testPolygonWKT.txt" ) ), StandardCharsets.UTF_8 );
+        }
+        return alaskaPolygonWkt;
+    }
+
+    /**
+     * @return a copy of the Alaska test polygon, which the caller may modify
+     */
+    static synchronized Polygon alaskaPolygon() throws IOException, ParseException{
+        if( alaskaPolygon == null ){
+            alaskaPolygon = (Polygon) new WKTReader().read( alaskaPolygonWkt() );
+        }
+        return (Polygon) alaskaPolygon.copy();
+    }
+}
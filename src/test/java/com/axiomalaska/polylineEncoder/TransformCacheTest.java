@@ -0,0 +1,99 @@
+package com.axiomalaska.polylineEncoder;
+
+import com.axiomalaska.polylineencoder.CacheStats;
+import com.axiomalaska.polylineencoder.Reprojector;
+import org.geotools.referencing.CRS;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.operation.MathTransform;
+
+import junit.framework.TestCase;
+
+/**
+ * Exercises the transform cache with systems parsed from WKT and registered under SRIDs of
+ * our own, so no EPSG database is needed.
+ */
+public class TransformCacheTest extends TestCase {
+    private static final int GEOGRAPHIC = 910001;
+    private static final int UTM = 910002;
+    private static final int ALBERS = 910003;
+
+    private static final String WGS84 = "GEOGCS[\"WGS 84\", DATUM[\"WGS_1984\", SPHEROID[\"WGS 84\", 6378137, 298.257223563]],"
+        + " PRIMEM[\"Greenwich\", 0], UNIT[\"degree\", 0.017453292519943295]]";
+    private static final String UTM_6N = "PROJCS[\"WGS 84 / UTM zone 6N\", " + WGS84 + ", PROJECTION[\"Transverse_Mercator\"],"
+        + " PARAMETER[\"latitude_of_origin\", 0], PARAMETER[\"central_meridian\", -147], PARAMETER[\"scale_factor\", 0.9996],"
+        + " PARAMETER[\"false_easting\", 500000], PARAMETER[\"false_northing\", 0], UNIT[\"metre\", 1]]";
+    private static final String ALASKA_ALBERS = "PROJCS[\"WGS 84 / Alaska Albers\", " + WGS84 + ", PROJECTION[\"Albers_Conic_Equal_Area\"],"
+        + " PARAMETER[\"standard_parallel_1\", 55], PARAMETER[\"standard_parallel_2\", 65], PARAMETER[\"latitude_of_center\", 50],"
+        + " PARAMETER[\"longitude_of_center\", -154], PARAMETER[\"false_easting\", 0], PARAMETER[\"false_northing\", 0], UNIT[\"metre\", 1]]";
+
+    protected void setUp() throws FactoryException{
+        Reprojector.clearCaches();
+        Reprojector.registerCoordinateReferenceSystem( GEOGRAPHIC, CRS.parseWKT( WGS84 ) );
+        Reprojector.registerCoordinateReferenceSystem( UTM, CRS.parseWKT( UTM_6N ) );
+        Reprojector.registerCoordinateReferenceSystem( ALBERS, CRS.parseWKT( ALASKA_ALBERS ) );
+    }
+
+    protected void tearDown(){
+        Reprojector.setTransformCacheSize( Reprojector.DEFAULT_TRANSFORM_CACHE_SIZE );
+        Reprojector.clearCaches();
+    }
+
+    public void testHitsMissesAndEvictions() throws FactoryException{
+        Reprojector.setTransformCacheSize( 2 );
+        CacheStats before = Reprojector.getTransformCacheStats();
+
+        MathTransform toUtm = Reprojector.getMathTransform( GEOGRAPHIC, UTM );
+        assertSame( toUtm, Reprojector.getMathTransform( GEOGRAPHIC, UTM ) );
+        Reprojector.getMathTransform( GEOGRAPHIC, ALBERS );
+        // least recently used is GEOGRAPHIC -> UTM
+        Reprojector.getMathTransform( UTM, ALBERS );
+        assertCounts( before, 1, 3, 1, 2 );
+
+        assertNotNull( Reprojector.getMathTransform( GEOGRAPHIC, ALBERS ) );
+        assertNotSame( toUtm, Reprojector.getMathTransform( GEOGRAPHIC, UTM ) );
+        assertCounts( before, 2, 4, 2, 2 );
+        assertEquals( 2, Reprojector.getTransformCacheStats().getMaxWeight() );
+    }
+
+    public void testShrinkingEvicts() throws FactoryException{
+        int[][] pairs = new int[][]{ { GEOGRAPHIC, UTM }, { GEOGRAPHIC, ALBERS }, { UTM, ALBERS }, { ALBERS, GEOGRAPHIC } };
+        for( int[] pair : pairs ){
+            Reprojector.getMathTransform( pair[0], pair[1] );
+        }
+        CacheStats before = Reprojector.getTransformCacheStats();
+        assertEquals( 4, before.getSize() );
+
+        Reprojector.setTransformCacheSize( 1 );
+        assertCounts( before, 0, 0, 3, 1 );
+        // only the most recently used pair is left
+        Reprojector.getMathTransform( ALBERS, GEOGRAPHIC );
+        assertCounts( before, 1, 0, 3, 1 );
+        Reprojector.getMathTransform( GEOGRAPHIC, UTM );
+        assertCounts( before, 1, 1, 4, 1 );
+    }
+
+    public void testWarmUp() throws FactoryException{
+        // built in systems never reach the cache
+        Reprojector.warmUp( 4326, 3857, 3338 );
+        assertEquals( 0, Reprojector.getTransformCacheStats().getSize() );
+
+        Reprojector.warmUp( GEOGRAPHIC, UTM, ALBERS );
+        CacheStats before = Reprojector.getTransformCacheStats();
+        assertEquals( 9, before.getSize() );
+        int[] srids = new int[]{ GEOGRAPHIC, UTM, ALBERS };
+        for( int fromSrid : srids ){
+            for( int toSrid : srids ){
+                Reprojector.getMathTransform( fromSrid, toSrid );
+            }
+        }
+        assertCounts( before, 9, 0, 0, 9 );
+    }
+
+    private static void assertCounts( CacheStats before, long hits, long misses, long evictions, int size ){
+        CacheStats after = Reprojector.getTransformCacheStats();
+        assertEquals( "hits", hits, after.getHitCount() - before.getHitCount() );
+        assertEquals( "misses", misses, after.getMissCount() - before.getMissCount() );
+        assertEquals( "evictions", evictions, after.getEvictionCount() - before.getEvictionCount() );
+        assertEquals( "size", size, after.getSize() );
+    }
+}
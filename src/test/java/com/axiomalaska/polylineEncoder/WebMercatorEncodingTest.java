@@ -0,0 +1,75 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineDecoder;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+
+import junit.framework.TestCase;
+
+public class WebMercatorEncodingTest extends TestCase {
+    private static final double R = 6378137.0;
+    private static final double RADIANS = Math.PI / 180;
+
+    private Polygon testPolygon;
+
+    protected void setUp() throws ParseException, IOException{
+        testPolygon = TestGeometries.alaskaPolygon();
+    }
+
+    public void testSameAsEncodingProjectedGeometry() throws UnsupportedGeometryTypeException{
+        // 10 m tolerance, doubling per level
+        PolylineEncoderSettings settings = new PolylineEncoderSettings( 18, 2, 10, true );
+        EncodedPolyline fused = PolylineEncoder.encodeWebMercator( testPolygon, settings );
+
+        // the same vertices and levels as encoding a projected copy of the line
+        LineString ring = testPolygon.getExteriorRing();
+        Coordinate[] projected = new Coordinate[ ring.getNumPoints() ];
+        for( int i = 0; i < projected.length; i++ ){
+            Coordinate c = ring.getCoordinateN( i );
+            projected[i] = new Coordinate( R * c.x * RADIANS, R * Math.log( Math.tan( Math.PI / 4 + c.y * RADIANS / 2 ) ) );
+        }
+        Geometry projectedLine = new GeometryFactory().createLineString( projected );
+        EncodedPolyline expected = PolylineEncoder.encode( projectedLine, settings );
+        assertEquals( expected.getLevels(), fused.getLevels() );
+        assertEquals( PolylineDecoder.countPoints( expected.getPoints() ), PolylineDecoder.countPoints( fused.getPoints() ) );
+
+        // with points from the original longitudes and latitudes
+        double[] coords = new double[ PolylineDecoder.countPoints( fused.getPoints() ) * 2 ];
+        PolylineDecoder.decode( fused.getPoints(), coords );
+        assertEquals( ring.getCoordinateN( 0 ).x, coords[0], 0.00001 );
+        assertEquals( ring.getCoordinateN( 0 ).y, coords[1], 0.00001 );
+        assertTrue( PolylineDecoder.countPoints( fused.getPoints() ) < ring.getNumPoints() );
+
+        // input already in Web Mercator is unprojected for the points
+        projectedLine.setSRID( 3857 );
+        EncodedPolyline fromMercator = PolylineEncoder.encodeWebMercator( projectedLine, settings );
+        assertEquals( fused.getLevels(), fromMercator.getLevels() );
+        double[] mercatorCoords = new double[ coords.length ];
+        PolylineDecoder.decode( fromMercator.getPoints(), mercatorCoords );
+        for( int i = 0; i < coords.length; i++ ){
+            assertEquals( coords[i], mercatorCoords[i], 0.000011 );
+        }
+
+        double[] lngs = new double[ ring.getNumPoints() ];
+        double[] lats = new double[ ring.getNumPoints() ];
+        for( int i = 0; i < lngs.length; i++ ){
+            lngs[i] = ring.getCoordinateN( i ).x;
+            lats[i] = ring.getCoordinateN( i ).y;
+        }
+        assertEquals( fused.getPoints(), PolylineEncoder.encodeWebMercator( lngs, lats, lngs.length, settings ).getPoints() );
+        settings.setPrefilterDistance( 50 );
+        EncodedPolyline prefiltered = PolylineEncoder.encodeWebMercator( lngs, lats, lngs.length, settings );
+        assertTrue( PolylineDecoder.countPoints( prefiltered.getPoints() ) <= PolylineDecoder.countPoints( fused.getPoints() ) );
+        assertTrue( prefiltered.getPoints().startsWith( fused.getPoints().substring( 0, 4 ) ) );
+    }
+}
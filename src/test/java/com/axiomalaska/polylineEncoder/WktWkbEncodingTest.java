@@ -0,0 +1,222 @@
+package com.axiomalaska.polylineEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import com.axiomalaska.polylineencoder.EncodedPolyline;
+import com.axiomalaska.polylineencoder.PolylineEncoder;
+import com.axiomalaska.polylineencoder.PolylineEncoderSettings;
+import com.axiomalaska.polylineencoder.UnsupportedGeometryTypeException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ByteOrderValues;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+
+import junit.framework.TestCase;
+
+public class WktWkbEncodingTest extends TestCase {
+    private String testPolygonWkt;
+
+    protected void setUp() throws IOException{
+        testPolygonWkt = TestGeometries.alaskaPolygonWkt();
+    }
+
+    public void testWktMatchesJts() throws UnsupportedGeometryTypeException, ParseException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        assertSameEncoding( testPolygonWkt, settings );
+
+        Random random = new Random( 42 );
+        for( int i = 0; i < 20; i++ ){
+            StringBuilder wkt = new StringBuilder( "LINESTRING (" );
+            int numPoints = 2 + random.nextInt( 500 );
+            double x = -150 + random.nextDouble();
+            double y = 60 + random.nextDouble();
+            for( int j = 0; j < numPoints; j++ ){
+                x += random.nextGaussian() * 0.01;
+                y += random.nextGaussian() * 0.01;
+                if( j > 0 ){
+                    wkt.append( ", " );
+                }
+                // alternate full precision and short coordinates to hit both number parsers
+                if( j % 2 == 0 ){
+                    wkt.append( x ).append( ' ' ).append( y );
+                } else {
+                    wkt.append( String.format( Locale.ROOT, "%.6f %.4f", x, y ) );
+                }
+            }
+            wkt.append( ')' );
+            assertSameEncoding( wkt.toString(), settings );
+        }
+
+        assertSameEncoding( "LINESTRING (1e-3 -2.5E2, 0.000015 12345678901234567890, -0 .5)", settings );
+    }
+
+    public void testWkbMatchesJts() throws UnsupportedGeometryTypeException, ParseException{
+        PolylineEncoderSettings settings = new PolylineEncoderSettings();
+        Geometry polygon = new WKTReader().read( testPolygonWkt );
+        EncodedPolyline expected = PolylineEncoder.encode( polygon, settings );
+
+        for( int byteOrder : new int[]{ ByteOrderValues.BIG_ENDIAN, ByteOrderValues.LITTLE_ENDIAN } ){
+            byte[] wkb = new WKBWriter( 2, byteOrder ).write( polygon );
+            assertEncodingEquals( expected, PolylineEncoder.encodeWkb( wkb, settings ) );
+            assertEncodingEquals( expected, PolylineEncoder.encodeWkbHex( WKBWriter.toHex( wkb ), settings ) );
+            assertEquals( PolylineEncoder.dumbEncode( polygon ).getPoints(), PolylineEncoder.dumbEncodeFromWkb( wkb ).getPoints() );
+        }
+
+        Geometry line = new WKTReader().read( "LINESTRING Z (-150.1 60.2 5, -150.3 60.25 7, -150.35 60.4 9)" );
+        line.setSRID( 4326 );
+        byte[] ewkb = new WKBWriter( 3, ByteOrderValues.LITTLE_ENDIAN, true ).write( line );
+        assertEncodingEquals( PolylineEncoder.encode( line, settings ), PolylineEncoder.encodeWkb( ewkb, settings ) );
+    }
+
+    public void testUnsupportedAndMalformedInput() throws ParseException{
+        try {
+            PolylineEncoder.encodeWkt( "POINT (1 2)", new PolylineEncoderSettings() );
+            fail( "Expected UnsupportedGeometryTypeException" );
+        } catch( UnsupportedGeometryTypeException e ){
+        }
+        try {
+            PolylineEncoder.encodeWkt( "LINESTRING (1 2, 3", new PolylineEncoderSettings() );
+            fail( "Expected ParseException" );
+        } catch( ParseException | UnsupportedGeometryTypeException e ){
+            assertTrue( e instanceof ParseException );
+        }
+        try {
+            PolylineEncoder.encodeWkb( new byte[]{ 1, 2, 0, 0, 0, 5, 0 }, new PolylineEncoderSettings() );
+            fail( "Expected ParseException" );
+        } catch( ParseException | UnsupportedGeometryTypeException e ){
+            assertTrue( e instanceof ParseException );
+        }
+    }
+
+    public void testMalformedNumbersAndOrdinates() throws UnsupportedGeometryTypeException{
+        // each rejected by WKTReader too
+        String[] malformed = new String[]{
+            "LINESTRING (1.2.3 4, 5 6)",
+            "LINESTRING (1-2 3, 5 6)",
+            "LINESTRING (1 2x, 5 6)",
+            "LINESTRING (1 2 3 4, 5 6)",
+            "LINESTRING Z (1 2 3 4, 5 6 7)",
+            "LINESTRING ZM (1 2 3 4 5, 5 6 7 8)"
+        };
+        for( String wkt : malformed ){
+            try {
+                new WKTReader().read( wkt );
+                fail( "WKTReader accepted " + wkt );
+            } catch( ParseException e ){
+            }
+            try {
+                PolylineEncoder.encodeWkt( wkt, new PolylineEncoderSettings() );
+                fail( "Expected ParseException for " + wkt );
+            } catch( ParseException e ){
+            }
+        }
+        for( String wkt : new String[]{ "LINESTRING (1 2 3, 5 6)", "LINESTRING ZM (1 2 3 4, 5 6 7 8)", "LINESTRING(1e2 2,5 6 )" } ){
+            try {
+                assertSameEncoding( wkt, new PolylineEncoderSettings() );
+            } catch( ParseException e ){
+                fail( wkt + ": " + e.getMessage() );
+            }
+        }
+    }
+
+    public void testInteriorRingsChecked() throws UnsupportedGeometryTypeException, ParseException{
+        String shell = "POLYGON ((0 0, 1 0, 1 1, 0 0)";
+        // rejected by WKTReader with the same exception
+        String[] invalid = new String[]{
+            shell + ", (0 0, 1 1, 2 2))",
+            shell + ", (0 0, 1 1, 0 0))",
+            shell + ", (x))",
+            shell + ", (1.2.3 0, 1 0, 1 1, 0 0))",
+            shell + ", ())",
+            shell + ",)",
+            shell + " (0 0, 1 0, 1 1, 0 0))",
+            shell + ", (0 0, 1 0, 1 1, 0 0)",
+            shell
+        };
+        for( String wkt : invalid ){
+            Exception expected = null;
+            try {
+                new WKTReader().read( wkt );
+            } catch( ParseException | IllegalArgumentException e ){
+                expected = e;
+            }
+            assertNotNull( "WKTReader accepted " + wkt, expected );
+            assertSameException( wkt, expected, () -> PolylineEncoder.encodeWkt( wkt, new PolylineEncoderSettings() ) );
+            assertSameException( wkt, expected, () -> PolylineEncoder.encode( wkt ) );
+            assertSameException( wkt, expected, () -> PolylineEncoder.dumbEncodeFromWkt( wkt ) );
+        }
+        assertSameEncoding( shell + ", EMPTY, (0 0, 0.5 0, 0.5 0.5, 0 0 7), (2 2, 3 2, 3 3, 2 2))", new PolylineEncoderSettings() );
+    }
+
+    public void testWkbInteriorRingsChecked() throws UnsupportedGeometryTypeException, ParseException{
+        double[] shell = new double[]{ 0, 0, 1, 0, 1, 1, 0, 0 };
+        double[] open = new double[]{ 0, 0, 1, 0, 1, 1, 0, 1 };
+        double[] threePoints = new double[]{ 0, 0, 1, 0, 0, 0 };
+        byte[] twoRings = polygonWkb( 2, shell, shell );
+        byte[][] invalid = new byte[][]{
+            polygonWkb( 2, shell ),
+            polygonWkb( 2, shell, open ),
+            polygonWkb( 2, shell, threePoints ),
+            // last point of the hole cut short
+            Arrays.copyOf( twoRings, twoRings.length - 8 )
+        };
+        for( byte[] wkb : invalid ){
+            try {
+                PolylineEncoder.encodeWkb( wkb, new PolylineEncoderSettings() );
+                fail( "Expected an exception for " + WKBWriter.toHex( wkb ) );
+            } catch( ParseException | IllegalArgumentException e ){
+            }
+        }
+        EncodedPolyline expected = PolylineEncoder.encodeWkt( "POLYGON ((0 0, 1 0, 1 1, 0 0))", new PolylineEncoderSettings() );
+        assertEncodingEquals( expected, PolylineEncoder.encodeWkb( polygonWkb( 3, shell, new double[ 0 ], shell ), new PolylineEncoderSettings() ) );
+    }
+
+    /**
+     * Little endian polygon WKB declaring numRings rings, of which the given ones are written.
+     */
+    private static byte[] polygonWkb( int numRings, double[]... rings ){
+        int size = 9;
+        for( double[] ring : rings ){
+            size += 4 + ring.length * 8;
+        }
+        ByteBuffer buf = ByteBuffer.allocate( size ).order( ByteOrder.LITTLE_ENDIAN );
+        buf.put( (byte) 1 ).putInt( 3 ).putInt( numRings );
+        for( double[] ring : rings ){
+            buf.putInt( ring.length / 2 );
+            for( double ordinate : ring ){
+                buf.putDouble( ordinate );
+            }
+        }
+        return buf.array();
+    }
+
+    private interface WktEncoding {
+        EncodedPolyline encode() throws UnsupportedGeometryTypeException, ParseException;
+    }
+
+    private static void assertSameException( String wkt, Exception expected, WktEncoding encoding ) throws UnsupportedGeometryTypeException{
+        try {
+            encoding.encode();
+            fail( "Expected " + expected.getClass().getSimpleName() + " for " + wkt );
+        } catch( ParseException | IllegalArgumentException e ){
+            assertEquals( wkt, expected.getClass(), e.getClass() );
+        }
+    }
+
+    private static void assertSameEncoding( String wkt, PolylineEncoderSettings settings ) throws UnsupportedGeometryTypeException, ParseException{
+        Geometry geometry = new WKTReader().read( wkt );
+        assertEncodingEquals( PolylineEncoder.encode( geometry, settings ), PolylineEncoder.encodeWkt( wkt, settings ) );
+        assertEncodingEquals( PolylineEncoder.dumbEncode( geometry ), PolylineEncoder.dumbEncodeFromWkt( wkt ) );
+    }
+
+    private static void assertEncodingEquals( EncodedPolyline expected, EncodedPolyline actual ){
+        assertEquals( expected.getPoints(), actual.getPoints() );
+        assertEquals( expected.getLevels(), actual.getLevels() );
+    }
+}